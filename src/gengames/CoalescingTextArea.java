@@ -0,0 +1,127 @@
+package gengames;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JTextArea;
+import javax.swing.Timer;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+/**
+ * A JTextArea which games and GAs can write to from their own threads as fast as they like, for the GAFrame's output areas.  Text
+ * appended is only added to a batch, and the batch is added to the area on the event dispatch thread FRAMES_PER_SECOND times a second,
+ * so the Swing document is changed once a frame rather than once per line, and never from another thread.  Only the last maxChars
+ * characters are kept, so a long run's output does not grow without limit; earlier lines are dropped from the top of the area, and
+ * from the batch if more than that is written in a single frame.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public class CoalescingTextArea extends JTextArea {
+    private static final long serialVersionUID = 1L;
+    /** How often text written to the area is shown. */
+    protected static final int FRAMES_PER_SECOND = 10;
+
+    private final int maxChars;
+    private final Object lock = new Object();
+    /** Text written since the last frame. */
+    private StringBuilder pending = new StringBuilder();
+    /** Whether the area's text is to be replaced by the pending text, rather than added to. */
+    private boolean replace;
+
+    /**
+     * @param limit the most characters to keep.
+     */
+    public CoalescingTextArea(int limit) {
+        maxChars = limit;
+        Timer timer = new Timer(1000 / FRAMES_PER_SECOND, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refresh();
+            }
+        });
+        timer.setCoalesce(true);
+        timer.start();
+    }
+
+    /**
+     * Adds text to the next frame.
+     * @see javax.swing.JTextArea#append(java.lang.String)
+     */
+    @Override
+    public void append(String str) {
+        if (str == null)
+            return;
+        synchronized (lock) {
+            pending.append(str);
+            if (pending.length() > maxChars) {
+                int excess = pending.length() - maxChars;
+                int newline = pending.indexOf("\n", excess);
+                pending.delete(0, newline < 0 ? excess : newline + 1);
+                replace = true;
+            }
+        }
+    }
+
+    /**
+     * Replaces the text in the next frame, along with anything written before it since the last frame.
+     * @see javax.swing.text.JTextComponent#setText(java.lang.String)
+     */
+    @Override
+    public void setText(String t) {
+        synchronized (lock) {
+            pending.setLength(0);
+            replace = true;
+        }
+        append(t);
+    }
+
+    /**
+     * Returns the text as it will be shown once the next frame is drawn.
+     * @see javax.swing.text.JTextComponent#getText()
+     */
+    @Override
+    public String getText() {
+        synchronized (lock) {
+            return replace ? pending.toString() : super.getText() + pending;
+        }
+    }
+
+    /**
+     * Shows the text written since the last frame, on the event dispatch thread, then trims the area to maxChars.
+     */
+    private void refresh() {
+        String batch;
+        boolean replacing;
+        synchronized (lock) {
+            if (pending.length() == 0 && !replace)
+                return;
+            batch = pending.toString();
+            replacing = replace;
+            pending = new StringBuilder();
+            replace = false;
+        }
+        if (replacing)
+            super.setText(batch);
+        else
+            super.append(batch);
+        trim();
+    }
+
+    /**
+     * Removes the oldest lines until the area holds at most maxChars characters.
+     */
+    private void trim() {
+        Document doc = getDocument();
+        int excess = doc.getLength() - maxChars;
+        if (excess <= 0)
+            return;
+        try {
+            // cut after the end of a line, so the area never starts part way through one
+            int newline = doc.getText(excess, doc.getLength() - excess).indexOf('\n');
+            doc.remove(0, newline < 0 ? excess : excess + newline + 1);
+        } catch (BadLocationException e) {
+            throw new RuntimeException("Trimming the text area failed.", e);
+        }
+    }
+}
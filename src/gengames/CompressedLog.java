@@ -0,0 +1,255 @@
+package gengames;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams text to gzipped files in a directory, so the full output of a large run can be kept without holding it in a JTextArea.
+ * Appending only copies the text into the current batch, and a background thread compresses and writes each batch while the next
+ * fills, so the threads producing output never wait on the disk unless they get far enough ahead of it to fill MAX_PENDING.
+ * <p>The log rotates to a new file, named for the log and numbered in order, once a file reaches its size limit, and whenever
+ * {@link #rotate()} is called, as the GA does every few generations.  Numbering continues after any files already in the directory,
+ * so a log is never overwritten.  Each file is a complete gzip stream once it has been rotated away from or the log closed, and
+ * each batch is flushed as it is written, so if the run is killed its current file can still be read up to the last batch.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public class CompressedLog implements Closeable {
+    /** The most text waiting to be written before appending waits for the writer to catch up. */
+    protected static final int MAX_PENDING = 4 << 20;
+    /** Text smaller than this is left for up to BATCH_WAIT milliseconds to gather more before it is written. */
+    private static final int BATCH_SIZE = 1 << 16;
+    private static final long BATCH_WAIT = 100;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final File directory;
+    private final String name;
+    private volatile long rotateBytes;
+    private final Thread writer;
+    private final Object lock = new Object();
+    private StringBuilder pending = new StringBuilder();
+    private StringBuilder writing = new StringBuilder();
+    private boolean rotate;
+    private boolean closed;
+    private IOException failure;
+
+    private int number;
+    private Counter counter;
+    private Writer out;
+
+    /**
+     * Opens a log, which starts writing to its first file as soon as it has anything to write.
+     * @param dir the directory to write the log's files to, which is created if it does not exist.
+     * @param logName the name of the log, which each file is named for.
+     * @param maxBytes the size, compressed, after which a file is rotated.
+     * @throws IOException if the directory cannot be created.
+     */
+    public CompressedLog(File dir, String logName, long maxBytes) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("Cannot create the directory " + dir + ".");
+        directory = dir;
+        name = logName;
+        rotateBytes = maxBytes;
+        number = lastFile();
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write();
+            }
+        }, "Log Writer " + logName);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Appends text to the log.  If the writer has fallen MAX_PENDING behind, waits for it to catch up.
+     * @param text the text.
+     */
+    public void append(String text) {
+        synchronized (lock) {
+            boolean interrupted = false;
+            while (pending.length() >= MAX_PENDING && !closed && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+            if (closed || failure != null)
+                return;
+            if (pending.length() == 0)
+                lock.notifyAll();
+            pending.append(text);
+        }
+    }
+
+    /**
+     * Finishes the current file once what has been appended so far is written, so later text goes to a new file.
+     */
+    public void rotate() {
+        synchronized (lock) {
+            rotate = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * @param maxBytes the size, compressed, after which a file is rotated, which applies to the current file too.
+     */
+    public void setMaxBytes(long maxBytes) {
+        rotateBytes = maxBytes;
+    }
+
+    /**
+     * @return the directory the log is written to.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the error which stopped the log being written, or null if it is still being written.
+     */
+    public IOException getFailure() {
+        synchronized (lock) {
+            return failure;
+        }
+    }
+
+    /**
+     * Writes everything appended and closes the current file.
+     * @throws IOException if the log could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        IOException e = getFailure();
+        if (e != null)
+            throw e;
+    }
+
+    /**
+     * Runs on the writer thread, writing each batch as it fills until the log is closed.
+     */
+    private void write() {
+        try {
+            while (true) {
+                boolean rotating;
+                boolean last;
+                synchronized (lock) {
+                    while (pending.length() == 0 && !rotate && !closed)
+                        lock.wait();
+                    if (pending.length() < BATCH_SIZE && !rotate && !closed)
+                        lock.wait(BATCH_WAIT);
+                    StringBuilder batch = pending;
+                    pending = writing;
+                    writing = batch;
+                    rotating = rotate;
+                    rotate = false;
+                    last = closed;
+                    lock.notifyAll();
+                }
+                if (writing.length() > 0) {
+                    if (out == null)
+                        open();
+                    out.append(writing);
+                    out.flush();
+                    writing.setLength(0);
+                }
+                if (out != null && (rotating || last || counter.bytes >= rotateBytes))
+                    finish();
+                if (last)
+                    return;
+            }
+        } catch (IOException e) {
+            synchronized (lock) {
+                failure = e;
+                lock.notifyAll();
+            }
+            try {
+                if (out != null)
+                    out.close();
+            } catch (IOException ignored) {
+                // the log has already failed
+            }
+        } catch (InterruptedException e) {
+            // only a daemon thread, so nothing interrupts it
+        }
+    }
+
+    private void open() throws IOException {
+        number++;
+        counter = new Counter(new FileOutputStream(file(number)));
+        out = new OutputStreamWriter(new GZIPOutputStream(counter, BUFFER_SIZE, true), StandardCharsets.UTF_8);
+    }
+
+    private void finish() throws IOException {
+        out.close();
+        out = null;
+    }
+
+    private File file(int n) {
+        return new File(directory, String.format("%s-%06d.log.gz", name, n));
+    }
+
+    /**
+     * @return the number of the last file of this log already in the directory, or 0 if there are none.
+     */
+    private int lastFile() {
+        int last = 0;
+        String[] files = directory.list();
+        if (files == null)
+            return last;
+        for (String f : files) {
+            if (!f.startsWith(name + "-") || !f.endsWith(".log.gz"))
+                continue;
+            try {
+                last = Math.max(last, Integer.parseInt(f.substring(name.length() + 1, f.length() - ".log.gz".length())));
+            } catch (NumberFormatException e) {
+                // not one of this log's files
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Counts the compressed bytes written to a file, to rotate it once it is large enough.
+     */
+    private static class Counter extends FilterOutputStream {
+        long bytes;
+
+        Counter(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes += len;
+        }
+    }
+}
@@ -37,6 +37,19 @@ public class DummyGameController extends GameController {
         return;
     }
 
+    /**
+     * Takes in a set of players and assigns them a score, exactly as the three argument constructor does, since dummy scores do not
+     * depend on any deal or the number of rounds.
+     * @param players A group of players to 'play' against each other.
+     * @param gameOutput The location to output content to.
+     * @param running A boolean flag indicating if the game should start off running.
+     * @param settings The game's settings, unused.
+     */
+    public DummyGameController(Player[] players, JTextArea gameOutput, boolean running,
+            @SuppressWarnings("unused") GameSettings settings) {
+        this(players, gameOutput, running);
+    }
+
     /**
      * @see gengames.GameController#gameOver()
      */
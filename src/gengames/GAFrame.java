@@ -1,14 +1,17 @@
 package gengames;
 
 import gengames.ga.DummyGAController;
+import gengames.ga.FitnessModel;
 import gengames.ga.GAController;
 import gengames.ga.InvalidRequestException;
+import gengames.ga.TournamentStyle;
 import gengames.hearts.HeartsGameController;
 
 import java.awt.Font;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
+import java.io.File;
 import java.security.SecureRandom;
 import java.util.Hashtable;
 import java.util.Map;
@@ -73,6 +76,8 @@ public class GAFrame extends JFrame implements ActionListener {
      * See the sections on Inclusion of Custom GameControllers for more information on how to use this field.
      */
     public static final Map<String,Class<? extends GameController>> games = new Hashtable<>();
+    /** The most characters each output area keeps, earlier lines are dropped as more output arrives. */
+    private static final int OUTPUT_CHARS = 1 << 18;
     
     private JScrollPane gameScrollPane;
     private JScrollPane gaScrollPane;
@@ -81,11 +86,9 @@ public class GAFrame extends JFrame implements ActionListener {
     private JMenuBar menuBar;
     private JMenu gameMenu;
     private JMenu fileMenu;
-    private JMenuItem setSaveLocItem;
-    private JMenuItem savePopItem;
     private JMenuItem saveGameItem;
     private JMenuItem saveGenItem;
-    private JMenuItem loadPopItem;
+    private JMenuItem saveLogItem;
     private JMenu runsMenu;
     private JMenuItem testGAItem;
     private JMenuItem testGameItem;
@@ -103,6 +106,21 @@ public class GAFrame extends JFrame implements ActionListener {
     private JMenuItem mutationItem;
     private JMenuItem crossoverTypeItem;
     private JMenuItem tournamentStyleItem;
+    private JMenuItem evolutionModeItem;
+    private JMenuItem fitnessMemoItem;
+    private JMenuItem duplicatesItem;
+    private JMenuItem duplicateDealsItem;
+    private JMenuItem fitnessModelItem;
+    private JMenuItem roundLimitItem;
+    private JMenuItem parallelRoundsItem;
+    private JMenuItem batchGamesItem;
+    private JMenuItem phaseTimingItem;
+    private JMenuItem metricsLogItem;
+    private JMenuItem expressedMutationItem;
+    private JMenuItem packedPopulationItem;
+    private JMenuItem virtualThreadsItem;
+    private JMenuItem logRotationItem;
+    private JMenuItem logSizeItem;
 
     private Hashtable<JMenuItem,Class<? extends GameController>> menus = new Hashtable<>();
     private Class<? extends GameController> gameContClass = null;
@@ -156,30 +174,52 @@ public class GAFrame extends JFrame implements ActionListener {
             }
             
             // Identify File Operations
-            else if (src == setSaveLocItem || src == savePopItem || src == saveGameItem || src == saveGenItem || src == loadPopItem)
+            else if (src == saveGameItem || src == saveGenItem || src == saveLogItem)
             {
                 if (gameContClass == null)
                     throw new InvalidRequestException(
                             "You must select a game to play first.");
-                if(src == setSaveLocItem)
+                if(src == saveGameItem)
                 {
-                    // TODO
-                }
-                else if(src == savePopItem)
-                {
-                    // TODO
-                }
-                else if(src == saveGameItem)
-                {
-                    // TODO
+                    if (ga == null)
+                        throw new InvalidRequestException(
+                                "You must select a GA to save games from first.");
+                    File current = ga.getGameRecords();
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "What file should every game be recorded to? (leave empty to stop recording)",
+                            "Save Games", JOptionPane.QUESTION_MESSAGE,
+                            null, null, current == null ? "" : current.getPath());
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setGameRecords(res.trim().isEmpty() ? null : new File(res.trim())); // throws exception
                 }
                 else if(src == saveGenItem)
                 {
-                    // TODO
+                    if (ga == null)
+                        throw new InvalidRequestException(
+                                "You must select a GA to save generations from first.");
+                    File current = ga.getGenerationJournal();
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "What directory should every generation be journaled to? (leave empty to stop journaling)",
+                            "Save Generations", JOptionPane.QUESTION_MESSAGE,
+                            null, null, current == null ? "" : current.getPath());
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setGenerationJournal(res.trim().isEmpty() ? null : new File(res.trim())); // throws exception
                 }
-                else if(src == loadPopItem)
+                else if(src == saveLogItem)
                 {
-                    // TODO
+                    if (ga == null)
+                        throw new InvalidRequestException(
+                                "You must select a GA to save output from first.");
+                    File current = ga.getOutputLog();
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "What directory should game and GA output be logged to? (leave empty to stop logging)",
+                            "Save Output", JOptionPane.QUESTION_MESSAGE,
+                            null, null, current == null ? "" : current.getPath());
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setOutputLog(res.trim().isEmpty() ? null : new File(res.trim())); // throws exception
                 }
             }
 
@@ -232,7 +272,14 @@ public class GAFrame extends JFrame implements ActionListener {
             // Identify GA Settings
             else if (src == populationItem || src == matingPoolItem
                     || src == mutationItem || src == crossoverTypeItem
-                    || src == tournamentStyleItem) {
+                    || src == tournamentStyleItem || src == evolutionModeItem
+                    || src == fitnessMemoItem || src == duplicatesItem
+                    || src == duplicateDealsItem || src == fitnessModelItem
+                    || src == roundLimitItem || src == parallelRoundsItem
+                    || src == batchGamesItem
+                    || src == phaseTimingItem || src == metricsLogItem
+                    || src == expressedMutationItem || src == packedPopulationItem
+                    || src == virtualThreadsItem || src == logRotationItem || src == logSizeItem) {
                 if (ga == null)
                     throw new InvalidRequestException(
                             "You must select a GA to configure first.");
@@ -282,16 +329,172 @@ public class GAFrame extends JFrame implements ActionListener {
                     int cross = Integer.parseInt(res);
                     ga.setCrossoverType(cross); // throws exception
                 } else if (src == tournamentStyleItem) {
-                    String[] possibleValues = {
-                            ga.getPopulationSize() + " Games",
-                            (int) Math.pow(ga.getPopulationSize(), 2)
-                                    + " Games" };
+                    TournamentStyle[] styles = TournamentStyle.values();
+                    String[] possibleValues = new String[styles.length];
+                    for (int i = 0; i < styles.length; i++) {
+                        possibleValues[i] = styles[i].description(ga.getPopulationSize());
+                    }
                     String res = (String) JOptionPane.showInputDialog(this,
                             "Set The Tournament Style:", "Tournament Style",
                             JOptionPane.QUESTION_MESSAGE, null, possibleValues,
-                            possibleValues[ga.getTournamentStyle() ? 1 : 0]);
-                    ga.setTournamentStyle(res.equals(possibleValues[1]) ? true
-                            : false);
+                            possibleValues[ga.getTournamentStyle().ordinal()]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    for (int i = 0; i < styles.length; i++) {
+                        if (res.equals(possibleValues[i]))
+                            ga.setTournamentStyle(styles[i]);
+                    }
+                } else if (src == evolutionModeItem) {
+                    String[] possibleValues = { "Generational", "Steady State" };
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "Set The Evolution Mode:", "Evolution Mode",
+                            JOptionPane.QUESTION_MESSAGE, null, possibleValues,
+                            possibleValues[ga.getSteadyState() ? 1 : 0]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setSteadyState(res.equals(possibleValues[1]));
+                } else if (src == fitnessMemoItem) {
+                    String[] possibleValues = { "Off", "On" };
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "Remember the fitness of unchanged strategies between generations?",
+                            "Fitness Memoization", JOptionPane.QUESTION_MESSAGE,
+                            null, possibleValues,
+                            possibleValues[ga.getFitnessMemo() ? 1 : 0]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setFitnessMemo(res.equals(possibleValues[1]));
+                } else if (src == duplicatesItem) {
+                    String[] possibleValues = { "Allowed", "Prevented" };
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "Can players with identical strategies be in the population?",
+                            "Duplicate Strategies", JOptionPane.QUESTION_MESSAGE,
+                            null, possibleValues,
+                            possibleValues[ga.getAllowDuplicates() ? 0 : 1]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setAllowDuplicates(res.equals(possibleValues[0]));
+                } else if (src == duplicateDealsItem) {
+                    String[] possibleValues = { "Independent", "Duplicate" };
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "Should every table play the same deals, rotating seats?",
+                            "Duplicate Deals", JOptionPane.QUESTION_MESSAGE,
+                            null, possibleValues,
+                            possibleValues[ga.getDuplicateDeals() ? 1 : 0]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setDuplicateDeals(res.equals(possibleValues[1]));
+                } else if (src == fitnessModelItem) {
+                    FitnessModel[] models = FitnessModel.values();
+                    String[] possibleValues = new String[models.length];
+                    for (int i = 0; i < models.length; i++) {
+                        possibleValues[i] = models[i].description();
+                    }
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "How should players be ranked?", "Fitness Model",
+                            JOptionPane.QUESTION_MESSAGE, null, possibleValues,
+                            possibleValues[ga.getFitnessModel().ordinal()]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    for (int i = 0; i < models.length; i++) {
+                        if (res.equals(possibleValues[i]))
+                            ga.setFitnessModel(models[i]);
+                    }
+                } else if (src == roundLimitItem) {
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "How many rounds should every game last? (0 plays each game to its normal end)",
+                            "Round Limit", JOptionPane.QUESTION_MESSAGE,
+                            null, null, ga.getRoundLimit());
+                    if (res == null) // if they hit cancel
+                        return;
+                    int limit = Integer.parseInt(res);
+                    ga.setRoundLimit(limit); // throws exception
+                } else if (src == parallelRoundsItem) {
+                    String[] possibleValues = { "One At A Time", "In Parallel" };
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "Should each game play several rounds at once?",
+                            "Parallel Rounds", JOptionPane.QUESTION_MESSAGE,
+                            null, possibleValues,
+                            possibleValues[ga.getParallelRounds() ? 1 : 0]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setParallelRounds(res.equals(possibleValues[1]));
+                } else if (src == batchGamesItem) {
+                    String[] possibleValues = { "One Game At A Time", "In Batches" };
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "Should tournaments play many tables at once, without game output?",
+                            "Batched Games", JOptionPane.QUESTION_MESSAGE,
+                            null, possibleValues,
+                            possibleValues[ga.getBatchGames() ? 1 : 0]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setBatchGames(res.equals(possibleValues[1]));
+                } else if (src == phaseTimingItem) {
+                    String[] possibleValues = { "Off", "On" };
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "Should the time spent in each phase of play be reported every generation?",
+                            "Phase Timing", JOptionPane.QUESTION_MESSAGE,
+                            null, possibleValues,
+                            possibleValues[ga.getPhaseTiming() ? 1 : 0]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setPhaseTiming(res.equals(possibleValues[1]));
+                } else if (src == metricsLogItem) {
+                    File current = ga.getMetricsLog();
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "What file should metrics be written to? (leave empty to stop writing them)",
+                            "Metrics Log", JOptionPane.QUESTION_MESSAGE,
+                            null, null, current == null ? "" : current.getPath());
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setMetricsLog(res.trim().isEmpty() ? null : new File(res.trim())); // throws exception
+                } else if (src == expressedMutationItem) {
+                    String[] possibleValues = { "Any Locus", "Expressed Loci" };
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "Which loci may mutation change?",
+                            "Mutation Loci", JOptionPane.QUESTION_MESSAGE,
+                            null, possibleValues,
+                            possibleValues[ga.getExpressedMutation() ? 1 : 0]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setExpressedMutation(res.equals(possibleValues[1]));
+                } else if (src == packedPopulationItem) {
+                    String[] possibleValues = { "Players", "Packed Off Heap" };
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "How should the population be stored?",
+                            "Population Storage", JOptionPane.QUESTION_MESSAGE,
+                            null, possibleValues,
+                            possibleValues[ga.getPackedPopulation() ? 1 : 0]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setPackedPopulation(res.equals(possibleValues[1]));
+                } else if (src == virtualThreadsItem) {
+                    String[] possibleValues = { "Platform Threads", "Virtual Threads" };
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "What threads should games run on? (games which start their own threads always use platform threads)",
+                            "Game Threads", JOptionPane.QUESTION_MESSAGE,
+                            null, possibleValues,
+                            possibleValues[ga.getVirtualThreads() ? 1 : 0]);
+                    if (res == null) // if they hit cancel
+                        return;
+                    ga.setVirtualThreads(res.equals(possibleValues[1])); // throws exception
+                } else if (src == logRotationItem) {
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "How many generations should each output log file hold?",
+                            "Log Rotation", JOptionPane.QUESTION_MESSAGE,
+                            null, null, ga.getLogRotation());
+                    if (res == null) // if they hit cancel
+                        return;
+                    int generations = Integer.parseInt(res);
+                    ga.setLogRotation(generations); // throws exception
+                } else if (src == logSizeItem) {
+                    String res = (String) JOptionPane.showInputDialog(this,
+                            "How many megabytes may an output log file reach?",
+                            "Log Size", JOptionPane.QUESTION_MESSAGE,
+                            null, null, ga.getLogSize());
+                    if (res == null) // if they hit cancel
+                        return;
+                    int megabytes = Integer.parseInt(res);
+                    ga.setLogSize(megabytes); // throws exception
                 }
             } else
                 throw new InvalidRequestException(
@@ -375,21 +578,19 @@ public class GAFrame extends JFrame implements ActionListener {
         
 
         gameScrollPane = new JScrollPane();
-        gameTextArea = new JTextArea();
+        gameTextArea = new CoalescingTextArea(OUTPUT_CHARS);
         gameTextArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 10));
         gaScrollPane = new JScrollPane();
-        gaTextArea = new JTextArea();
+        gaTextArea = new CoalescingTextArea(OUTPUT_CHARS);
         gaTextArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 10));
         menuBar = new JMenuBar();
         
         gameMenu = new JMenu();
         
         fileMenu = new JMenu();
-        setSaveLocItem = new JMenuItem();
-        savePopItem = new JMenuItem();
         saveGameItem = new JMenuItem();
         saveGenItem = new JMenuItem();
-        loadPopItem = new JMenuItem();
+        saveLogItem = new JMenuItem();
         
         runsMenu = new JMenu();
         testGAItem = new JMenuItem();
@@ -410,6 +611,21 @@ public class GAFrame extends JFrame implements ActionListener {
         mutationItem = new JMenuItem();
         crossoverTypeItem = new JMenuItem();
         tournamentStyleItem = new JMenuItem();
+        evolutionModeItem = new JMenuItem();
+        fitnessMemoItem = new JMenuItem();
+        duplicatesItem = new JMenuItem();
+        duplicateDealsItem = new JMenuItem();
+        fitnessModelItem = new JMenuItem();
+        roundLimitItem = new JMenuItem();
+        parallelRoundsItem = new JMenuItem();
+        batchGamesItem = new JMenuItem();
+        phaseTimingItem = new JMenuItem();
+        metricsLogItem = new JMenuItem();
+        expressedMutationItem = new JMenuItem();
+        packedPopulationItem = new JMenuItem();
+        virtualThreadsItem = new JMenuItem();
+        logRotationItem = new JMenuItem();
+        logSizeItem = new JMenuItem();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DO_NOTHING_ON_CLOSE);
 
@@ -434,14 +650,6 @@ public class GAFrame extends JFrame implements ActionListener {
         
         fileMenu.setText("File");
         
-        setSaveLocItem.setText("Choose a Save Directory");
-        setSaveLocItem.addActionListener(this);
-        fileMenu.add(setSaveLocItem);
-        
-        savePopItem.setText("Save Population Data");
-        savePopItem.addActionListener(this);
-        fileMenu.add(savePopItem);
-        
         saveGameItem.setText("Save Games");
         saveGameItem.addActionListener(this);
         fileMenu.add(saveGameItem);
@@ -450,12 +658,11 @@ public class GAFrame extends JFrame implements ActionListener {
         saveGenItem.addActionListener(this);
         fileMenu.add(saveGenItem);
         
-        loadPopItem.setText("Load a Population");
-        loadPopItem.addActionListener(this);
-        fileMenu.add(loadPopItem);
+        saveLogItem.setText("Save Output");
+        saveLogItem.addActionListener(this);
+        fileMenu.add(saveLogItem);
         
-        // TODO this needs to be implemented first, no?
-    //  menuBar.add(fileMenu);
+        menuBar.add(fileMenu);
 
         runsMenu.setText("Run Types");
 
@@ -523,6 +730,67 @@ public class GAFrame extends JFrame implements ActionListener {
         tournamentStyleItem.addActionListener(this);
         gaMenu.add(tournamentStyleItem);
 
+        evolutionModeItem.setText("Set Evolution Mode");
+        evolutionModeItem.addActionListener(this);
+        gaMenu.add(evolutionModeItem);
+
+        fitnessMemoItem.setText("Set Fitness Memoization");
+        fitnessMemoItem.addActionListener(this);
+        gaMenu.add(fitnessMemoItem);
+
+        duplicatesItem.setText("Set Duplicate Strategies");
+        duplicatesItem.addActionListener(this);
+        gaMenu.add(duplicatesItem);
+
+        duplicateDealsItem.setText("Set Duplicate Deals");
+        duplicateDealsItem.addActionListener(this);
+        gaMenu.add(duplicateDealsItem);
+
+        fitnessModelItem.setText("Set Fitness Model");
+        fitnessModelItem.addActionListener(this);
+        gaMenu.add(fitnessModelItem);
+
+        roundLimitItem.setText("Set Round Limit");
+        roundLimitItem.addActionListener(this);
+        gaMenu.add(roundLimitItem);
+
+        parallelRoundsItem.setText("Set Parallel Rounds");
+        parallelRoundsItem.addActionListener(this);
+        gaMenu.add(parallelRoundsItem);
+
+        batchGamesItem.setText("Set Batched Games");
+        batchGamesItem.addActionListener(this);
+        gaMenu.add(batchGamesItem);
+
+        phaseTimingItem.setText("Set Phase Timing");
+        phaseTimingItem.addActionListener(this);
+        gaMenu.add(phaseTimingItem);
+
+        metricsLogItem.setText("Set Metrics Log");
+        metricsLogItem.addActionListener(this);
+        gaMenu.add(metricsLogItem);
+
+        expressedMutationItem.setText("Set Mutation Loci");
+        expressedMutationItem.addActionListener(this);
+        gaMenu.add(expressedMutationItem);
+
+        packedPopulationItem.setText("Set Population Storage");
+        packedPopulationItem.addActionListener(this);
+        gaMenu.add(packedPopulationItem);
+
+        virtualThreadsItem.setText("Set Game Threads");
+        virtualThreadsItem.addActionListener(this);
+        if (GameController.virtualThreadsAvailable())
+            gaMenu.add(virtualThreadsItem);
+
+        logRotationItem.setText("Set Log Rotation");
+        logRotationItem.addActionListener(this);
+        gaMenu.add(logRotationItem);
+
+        logSizeItem.setText("Set Log Size");
+        logSizeItem.addActionListener(this);
+        gaMenu.add(logSizeItem);
+
         menuBar.add(gaMenu);
 
         setJMenuBar(menuBar);
@@ -0,0 +1,26 @@
+package gengames;
+
+/**
+ * Plays many games at once, without a GameController or a thread for each game.  A game which can be played much faster this way,
+ * such as by keeping every table's state in arrays and playing them in lockstep, returns a batch from
+ * {@link gengames.GameController#newBatch() GameController.newBatch()}, and the GA can then play a tournament's tables through it
+ * when asked to.  A batch only plays games, it does not update the players' fitness, as a player may sit at several tables in the
+ * same batch.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public interface GameBatch {
+    /**
+     * @return the most tables the batch can play at once.
+     */
+    public int capacity();
+
+    /**
+     * Plays one game at each table, as a GameController given the same settings would.
+     * @param tables the players at each table, in their seats.
+     * @param dealSeeds the seed to deal each table from, as in {@link gengames.GameSettings GameSettings}.
+     * @param roundLimit how many rounds each game lasts, or GameSettings.NO_ROUND_LIMIT to play each game to its normal end.
+     * @return each player's score, by table and then by seat.
+     */
+    public int[][] play(Player[][] tables, long[] dealSeeds, int roundLimit);
+}
@@ -1,5 +1,7 @@
 package gengames;
 
+import java.util.concurrent.locks.LockSupport;
+
 /**
  *<p>This is the primary class to be extended by third party developers looking to create their own game.  Developers will need to implement
  * extensions to the following classes in addition to GameController: {@link gengames.Player Player}, {@link gengames.PlayerBuilder PlayerBuilder}, and {@link gengames.Trait Trait}.</p>
@@ -13,25 +15,48 @@ package gengames;
  * (Player[], JTextArea, boolean) - the array of players, which will be the same size as the return value of numPlayers(); the JTextArea to 
  * write game output to; and the boolean indicates the game should start off running or not.</p>
  * 
+ * <p>Optionally, a game may also provide the constructor (Player[], JTextArea, boolean, {@link gengames.GameSettings GameSettings}),
+ * which the GA uses when the user has asked for any of the settings.  A game supporting them should seed all of its randomness, such
+ * as shuffling, from the deal seed if there is one, enabling the GA's duplicate deals mode where every table plays the same deals
+ * with the players rotated through every seat.  It should also end after exactly the round limit if there is one, regardless of
+ * score, so every game has a predictable cost.</p>
+ * 
  * <p>The GameController is expected to run its game asynchronously in a separate thread, therefore the second constructor should do little more than
- * validate the players and start a new thread, where the game itself runs.</p>
+ * validate the players and start a new thread, where the game itself runs.  Games should create that thread with
+ * {@link #newGameThread(Runnable)}, which gives them a virtual thread when the GA is asked to run games on virtual threads, so many
+ * more games can be in flight at once.  Virtual threads are opt in: a game creating its own Thread still works, but always runs on a
+ * platform thread, so an existing game must switch to newGameThread to run on virtual threads.  They also need Java 21 or later, on
+ * older JVMs newGameThread always creates platform threads.</p>
  * 
  * <h2>Updating The Players</h2>
  * <p>It is the responsibility of the GameController to call each player's addToFitness() method to record their success that round.  The developer may decide
  * by what metric the GameController assigns scores, and high scores may be either positive (for instance, Cribbage) or negative (like Hearts).
  * The Player's compareTo method is used to define whether lower or higher scores are better.</p>
  * 
+ * <h2>Playing In Batches</h2>
+ * <p>A game which can play many tables at once much faster than one controller per game may also override {@link #newBatch()} to
+ * return a {@link gengames.GameBatch GameBatch}, which the GA then uses to play its tournaments when the user asks for batched games.
+ * Batched games must score exactly as the controller does given the same deal seed and round limit.</p>
+ * 
+ * <h2>Metrics</h2>
+ * <p>The GA counts games and times them itself.  A game may also report each round it finishes, and the tricks or turns in it, with
+ * {@link gengames.metrics.MetricsRegistry#countRound(int) MetricsRegistry.get().countRound()}, so its throughput shows up in the GA's
+ * metrics.</p>
+ * 
  * <h2>Controlling The Game</h2>
  * <p>Genetic Games allows the user to control how quickly games and generations proceed by being able to run either continuously, or one generation,
  * game, or even round at a time.  The GAController handles most of this management, however classes implementing GameController are expected
- * to be able to pause and resume, and to run one round* at a time.  The suggested way of implementing this is to instruct the current thread to
- * sleep while setRunning() has been set to false and setRunRound() has not been set to true.  In other words something like:</p>
-<pre>while (!gameOver()) {
-  while (!(running || runRound))
-    Thread.sleep(50);
+ * to be able to pause and resume, and to run one round* at a time.  The suggested way of implementing this is to keep a
+ * {@link gengames.RunControl RunControl}, which setRunning() and runRound() change, and wait on it before each round.  In other words
+ * something like:</p>
+<pre>while (!gameOver) {
+  control.await();
   playRound();
-  runRound = false;
+  control.finish(RunControl.State.STEP_ROUND);
 }</pre>
+ * <p>Sleeping while flags are unset, as older games do, also works, as long as the flags are volatile, but a step then waits for the
+ * game's next check.  Likewise a game should call {@link #gameEnded()} once it is over, which wakes the GA at once, rather than
+ * whenever it next checks gameOver().</p>
  * 
  * <p>*As each game may have different ranges of time for which it would be desirable to pause between, what constitutes a round is left undefined.
  * The developer may decide what amount of play constitutes a round when developing their extension of GameController.</p>
@@ -40,6 +65,68 @@ package gengames;
  * @author Blake Lavender
  */
 public abstract class GameController implements Runnable {
+    /** Whether newGameThread creates virtual threads. */
+    private static volatile boolean virtualThreads;
+
+    /** The thread waiting for this game to end, if any. */
+    private volatile Thread watcher;
+
+    /**
+     * Creates the thread a game runs in, which is a virtual thread if games are set to run on them, otherwise a daemon platform
+     * thread.  Either way the game is free to set the thread's priority, which a virtual thread ignores, before starting it.
+     * @param game the game to run.
+     * @return the thread, not yet started.
+     */
+    protected static Thread newGameThread(Runnable game) {
+        if (virtualThreads)
+            return VirtualThreads.unstarted(game);
+        Thread t = new Thread(game);
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * Asks for a thread to be unparked as soon as the game ends, so it can park while it waits, rather than sleep between checks of
+     * gameOver().  The thread should still check gameOver() every so often, since not every game calls gameEnded().
+     * @param t the thread waiting for the game to end.
+     */
+    public final void notifyWhenOver(Thread t) {
+        watcher = t;
+    }
+
+    /**
+     * Wakes the thread waiting for the game to end, if there is one.  Should be called once gameOver() or interrupted() returns true.
+     */
+    protected final void gameEnded() {
+        Thread t = watcher;
+        if (t != null)
+            LockSupport.unpark(t);
+    }
+
+    /**
+     * @return true if this JVM can run games on virtual threads, which needs Java 21 or later.
+     */
+    public static boolean virtualThreadsAvailable() {
+        return VirtualThreads.available();
+    }
+
+    /**
+     * Sets whether games started from now on run on virtual threads or platform threads.
+     * @param virtual true to run games on virtual threads.
+     * @throws GenGameImplementationException if virtual threads are asked for, but this JVM cannot create them.
+     */
+    public static void setVirtualThreads(boolean virtual) {
+        if (virtual && !VirtualThreads.available())
+            throw new GenGameImplementationException("This JVM cannot create virtual threads.");
+        virtualThreads = virtual;
+    }
+
+    /**
+     * @return true if games started from now on run on virtual threads.
+     */
+    public static boolean getVirtualThreads() {
+        return virtualThreads;
+    }
     
     /**
      * This method should contain the gameplay, including pausing mechanisms if the game is not supposed to be running.
@@ -92,6 +179,15 @@ public abstract class GameController implements Runnable {
      */
     public abstract PlayerBuilder getDummyPlayerBuilder();
 
+    /**
+     * Returns a batch to play many of this game's tables at once, without a controller for each, if the game supports it.  Called on
+     * the instance made by the no argument constructor.
+     * @return a new GameBatch, or null, as by default, if games can only be played one controller at a time.
+     */
+    public GameBatch newBatch() {
+        return null;
+    }
+
     /**
      * Indicates the number of players per game.
      * @return the number of players to delegate to each game.
@@ -0,0 +1,90 @@
+package gengames;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file games append compact records of themselves to, passed to games in their {@link gengames.GameSettings GameSettings}.  What a
+ * record holds is up to the game, the log only keeps them apart, by writing each with its length in front.  A record is written
+ * with a single write, so games finishing at once never interleave their records, and keeping every game of a run costs one small
+ * write per game.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public class GameRecordLog implements Closeable {
+    private final File file;
+    private final FileOutputStream out;
+
+    /**
+     * Opens a file to append game records to.
+     * @param logFile the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public GameRecordLog(File logFile) throws IOException {
+        file = logFile;
+        out = new FileOutputStream(logFile, true);
+    }
+
+    /**
+     * Appends a game's record.
+     * @param record the record.
+     * @throws IOException if the record cannot be written, including if the log has been closed.
+     */
+    public void write(byte[] record) throws IOException {
+        byte[] framed = new byte[record.length + 4];
+        framed[0] = (byte) (record.length >>> 24);
+        framed[1] = (byte) (record.length >>> 16);
+        framed[2] = (byte) (record.length >>> 8);
+        framed[3] = (byte) record.length;
+        System.arraycopy(record, 0, framed, 4, record.length);
+        synchronized (this) {
+            out.write(framed);
+        }
+    }
+
+    /**
+     * @return the file being written to.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Closes the file.  Games still holding the log fail to write their records.
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Reads every record in a file.  A record cut short, as the last one may be if the run was killed while writing it, is skipped.
+     * @param logFile the file.
+     * @return the records, in the order they were written.
+     * @throws IOException if the file cannot be read.
+     */
+    public static List<byte[]> read(File logFile) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)));
+        try {
+            while (true) {
+                byte[] record = new byte[in.readInt()];
+                in.readFully(record);
+                records.add(record);
+            }
+        } catch (EOFException e) {
+            return records;
+        } finally {
+            in.close();
+        }
+    }
+}
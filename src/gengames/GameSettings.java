@@ -0,0 +1,103 @@
+package gengames;
+
+/**
+ * Optional settings the GAController may start a game with, passed to the (Player[], JTextArea, boolean, GameSettings) constructor
+ * described in {@link gengames.GameController GameController}.  A game which does not support a setting may ignore it, but should then
+ * not provide that constructor.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public class GameSettings {
+    /** The round limit which indicates the game is played until it would normally end. */
+    public static final int NO_ROUND_LIMIT = 0;
+
+    private final Long dealSeed;
+    private final int roundLimit;
+    private final boolean parallelRounds;
+    private final GameRecordLog gameRecords;
+
+    /**
+     * Constructs the settings for one game.
+     * @param dealSeed the seed for all of the game's randomness, or null to deal the game independently.
+     * @param roundLimit the number of rounds to play, or NO_ROUND_LIMIT to play until the game would normally end.
+     * @param parallelRounds true if the game should play several rounds at once, if it is able to.
+     */
+    public GameSettings(Long dealSeed, int roundLimit, boolean parallelRounds) {
+        this(dealSeed, roundLimit, parallelRounds, null);
+    }
+
+    /**
+     * Constructs the settings for one game.
+     * @param dealSeed the seed for all of the game's randomness, or null to deal the game independently.
+     * @param roundLimit the number of rounds to play, or NO_ROUND_LIMIT to play until the game would normally end.
+     * @param parallelRounds true if the game should play several rounds at once, if it is able to.
+     * @param gameRecords the log to append a record of the game to, or null if games are not recorded.
+     */
+    public GameSettings(Long dealSeed, int roundLimit, boolean parallelRounds, GameRecordLog gameRecords) {
+        if (roundLimit < 0)
+            throw new RuntimeException("A game cannot be limited to " + roundLimit + " rounds.");
+        this.dealSeed = dealSeed;
+        this.roundLimit = roundLimit;
+        this.parallelRounds = parallelRounds;
+        this.gameRecords = gameRecords;
+    }
+
+    /**
+     * @return true if the game's deals should be determined by the deal seed.
+     */
+    public boolean hasDealSeed() {
+        return dealSeed != null;
+    }
+
+    /**
+     * Games started with the same seed must deal the same cards (or roll the same dice) regardless of how the players play.
+     * @return the seed for all of the game's randomness.
+     * @throws RuntimeException if there is no deal seed.
+     */
+    public long getDealSeed() {
+        if (dealSeed == null)
+            throw new RuntimeException("This game has no deal seed.");
+        return dealSeed;
+    }
+
+    /**
+     * @return true if the game should end after a fixed number of rounds.
+     */
+    public boolean hasRoundLimit() {
+        return roundLimit != NO_ROUND_LIMIT;
+    }
+
+    /**
+     * Games limited to a number of rounds end after exactly that many, and not before, so every game costs about the same.
+     * @return the number of rounds to play, or NO_ROUND_LIMIT.
+     */
+    public int getRoundLimit() {
+        return roundLimit;
+    }
+
+    /**
+     * Games whose rounds are independent of each other, apart from the score, may deal several rounds ahead and play them at once on
+     * separate copies of the players, so one long game finishes sooner on a machine with many cores.  The game's result must not
+     * depend on whether its rounds are played in parallel.
+     * @return true if the game should play several rounds at once.
+     */
+    public boolean getParallelRounds() {
+        return parallelRounds;
+    }
+
+    /**
+     * @return true if the game should record itself.
+     */
+    public boolean hasGameRecords() {
+        return gameRecords != null;
+    }
+
+    /**
+     * Games able to record themselves should append a record of every game to this log once it is over, holding enough to replay
+     * the game exactly.
+     * @return the log to append a record of the game to, or null if games are not recorded.
+     */
+    public GameRecordLog getGameRecords() {
+        return gameRecords;
+    }
+}
@@ -0,0 +1,64 @@
+package gengames;
+
+import javax.swing.JTextArea;
+
+/**
+ * A JTextArea which sends what is written to it to a {@link CompressedLog}, and to the area it stands in for if there is one.  It is
+ * passed to games and GAs in place of their output area, so output can be logged without them knowing, and without it building up
+ * in a display nobody reads.  Only what is written through append and setText is passed on, and nothing is kept.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public class LoggedTextArea extends JTextArea {
+    private static final long serialVersionUID = 1L;
+
+    private final JTextArea display;
+    private final CompressedLog log;
+
+    /**
+     * @param shown the area to also write to, or null to only write to the log.
+     * @param logged the log to write to.
+     */
+    public LoggedTextArea(JTextArea shown, CompressedLog logged) {
+        display = shown;
+        log = logged;
+    }
+
+    /**
+     * @return the area this writes to, or null if it only writes to its log.
+     */
+    public JTextArea getDisplay() {
+        return display;
+    }
+
+    /**
+     * @see javax.swing.JTextArea#append(java.lang.String)
+     */
+    @Override
+    public void append(String str) {
+        if (log != null)
+            log.append(str);
+        if (display != null)
+            display.append(str);
+    }
+
+    /**
+     * Logs the new text, as it starts a new piece of output, rather than replacing what has been logged.
+     * @see javax.swing.text.JTextComponent#setText(java.lang.String)
+     */
+    @Override
+    public void setText(String t) {
+        if (log != null && t != null)
+            log.append(t);
+        if (display != null)
+            display.setText(t);
+    }
+
+    /**
+     * @see javax.swing.text.JTextComponent#getText()
+     */
+    @Override
+    public String getText() {
+        return display == null ? "" : display.getText();
+    }
+}
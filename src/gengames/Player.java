@@ -13,6 +13,8 @@ package gengames;
  */
 public abstract class Player implements Comparable<Player> {
     private long totalScore;
+    private int gamesPlayed;
+    private int[] expression;
     /**
      * The array where a player's strategy is stored.
      */
@@ -43,6 +45,15 @@ public abstract class Player implements Comparable<Player> {
         totalScore += score;
     }
 
+    /**
+     * Counts one more game played by the player.  It is used by GAController once each game is over, however many times the
+     * GameController called addToFitness() during it.
+     */
+    public final void countGame()
+    {
+        gamesPlayed++;
+    }
+
     /**
      * Return's the player's fitness.  It is used by GAController.
      * @return the player's current fitness.
@@ -52,20 +63,114 @@ public abstract class Player implements Comparable<Player> {
         return totalScore;
     }
 
+    /**
+     * Returns the number of games the player has been scored for since its fitness was last cleared.
+     * @return the number of games counted by countGame().
+     */
+    public final int gamesPlayed()
+    {
+        return gamesPlayed;
+    }
+
+    /**
+     * Returns the player's fitness averaged over the games it has played.  Unlike fitness() this can be compared between players who
+     * have not played the same number of games.
+     * @return the player's average score per game, or zero if it has not played.
+     */
+    public final double averageFitness()
+    {
+        return gamesPlayed == 0 ? 0 : (double) totalScore / gamesPlayed;
+    }
+
     /**
      * Resets the player's fitness to zero.  It is used by GAController.
      */
     public final void clearFitness()
     {
         totalScore = 0;
+        gamesPlayed = 0;
     }
 
     /**
-     * Selects a Trait at random from the Player's strategy and mutates it.
+     * Selects a Trait at random from the Player's strategy and mutates it.  The strategy is copied first, since identical strategies
+     * may share one array.
      */
     public final void mutate() {
-        int index = GAFrame.rnd.nextInt(strategy.length);
-        strategy[index] = strategy[index].mutate();
+        mutate(GAFrame.rnd.nextInt(strategy.length));
+    }
+
+    /**
+     * Mutates the Trait at one locus of the Player's strategy.  The strategy is copied first, since identical strategies may share
+     * one array.
+     * @param locus the index of the Trait to mutate.
+     */
+    public final void mutate(int locus) {
+        strategy = strategy.clone();
+        strategy[locus] = strategy[locus].mutate();
+    }
+
+    /**
+     * Records that the Trait at a locus decided one of the player's choices.  Players should call this whenever they consult their
+     * strategy, so the GA can tell which loci are expressed in play and which never affect it.  It costs an array increment.
+     * @param locus the index of the Trait consulted.
+     */
+    protected final void express(int locus)
+    {
+        express(locus, 1);
+    }
+
+    /**
+     * Records that the Trait at a locus decided several of the player's choices, such as choices a
+     * {@link gengames.GameBatch GameBatch} made for it by following its strategy.
+     * @param locus the index of the Trait consulted.
+     * @param times the number of choices it decided.
+     */
+    protected final void express(int locus, int times)
+    {
+        if (expression == null)
+            expression = new int[traitSize()];
+        expression[locus] += times;
+    }
+
+    /**
+     * Adds the number of times each locus was expressed since this was last called to <tt>counts</tt>, and starts counting again.
+     * It is used by GAController after each game.
+     * @param counts the running total for each locus, at least traitSize() long.
+     */
+    public final void drainExpression(long[] counts)
+    {
+        if (expression == null)
+            return;
+        for (int i = 0; i < expression.length; i++) {
+            counts[i] += expression[i];
+            expression[i] = 0;
+        }
+    }
+
+    /**
+     * Adds the expression counted by another player with the same strategy, such as a copy playing part of this player's game.
+     * @param other the player whose counts to add, which are then cleared.
+     */
+    protected final void addExpression(Player other)
+    {
+        if (other.expression == null)
+            return;
+        if (expression == null)
+            expression = new int[traitSize()];
+        for (int i = 0; i < expression.length; i++) {
+            expression[i] += other.expression[i];
+            other.expression[i] = 0;
+        }
+    }
+
+    /**
+     * A short name for a locus of the player's strategy, used in reports.  By default this is just the locus' index.
+     * @param locus the index of a Trait.
+     * @return the name of the locus.
+     */
+    public String locusName(int locus)
+    {
+        return "Locus " + locus;
     }
 
     /** This should compare two player's fitness.  For games where low score is best, return <tt>fitness() - other.fitness()</tt>.  For
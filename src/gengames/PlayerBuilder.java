@@ -19,6 +19,17 @@ public abstract class PlayerBuilder {
      */
     public abstract Player genPlayer(Trait[] str);
 
+    /**
+     * Returns a builder whose players have their strategies compiled into code specialised to their traits, rather than interpreting
+     * their traits for every decision, for games whose players can be compiled.  The GA does not use it, as an evolving population
+     * plays too many distinct strategies for compiling to pay off, but code evaluating a fixed set of strategies at length, such as
+     * an elite, may build its players with it.
+     * @return a builder of compiled players, or null, as by default, if this builder's players cannot be compiled.
+     */
+    public PlayerBuilder compiling() {
+        return null;
+    }
+
     /**
      * Returns the trait size for the player being built.
      * @return expected trait size.
@@ -0,0 +1,152 @@
+package gengames;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tells the threads running games and generations whether to run, pause, or step forward, in place of run flags polled from a sleep
+ * loop.  The state is changed atomically, so it is seen at once by every thread, and threads waiting for the state to leave PAUSED
+ * are parked and unparked as soon as it changes, so a step is taken microseconds after it is asked for.
+ * <p>A step, such as STEP_ROUND, lets the waiting thread run for one round and is then completed with {@link #finish(State)}, which
+ * pauses again unless another command has arrived in the meantime.  Asking for a step while running has no effect, as the step is
+ * already being taken.  INTERRUPTED is final, once interrupted waiting threads throw InterruptedException.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public class RunControl {
+    /**
+     * What the controlled thread should be doing.
+     */
+    public enum State {
+        /** Wait for a command. */
+        PAUSED,
+        /** Run until paused. */
+        RUNNING,
+        /** Run one round, then pause. */
+        STEP_ROUND,
+        /** Run one game, then pause. */
+        STEP_GAME,
+        /** Run one generation, then pause. */
+        STEP_GENERATION,
+        /** Stop for good. */
+        INTERRUPTED
+    }
+
+    private final AtomicReference<State> state;
+    private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param run true to start running, false to start paused.
+     */
+    public RunControl(boolean run) {
+        state = new AtomicReference<>(run ? State.RUNNING : State.PAUSED);
+    }
+
+    /**
+     * @return the current state.
+     */
+    public State get() {
+        return state.get();
+    }
+
+    /**
+     * Runs or pauses, cancelling any step in progress.  Does nothing once interrupted.
+     * @param run true to run, false to pause.
+     */
+    public void setRunning(boolean run) {
+        change(null, run ? State.RUNNING : State.PAUSED);
+    }
+
+    /**
+     * Asks for a step, unless already running.  A different step already asked for is replaced by the new one, and the same step is
+     * absorbed by it, so asking again while a round is being stepped through does not step through another.  Does nothing once
+     * interrupted.
+     * @param step STEP_ROUND, STEP_GAME or STEP_GENERATION.
+     */
+    public void step(State step) {
+        while (true) {
+            State s = state.get();
+            if (s == State.RUNNING || s == State.INTERRUPTED)
+                return;
+            if (state.compareAndSet(s, step)) {
+                wake();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Completes a step, pausing if it is still the state.
+     * @param step the step which has been taken.
+     * @return true if the step was still the state, and so it has now paused.
+     */
+    public boolean finish(State step) {
+        return change(step, State.PAUSED);
+    }
+
+    /**
+     * Interrupts the controlled thread for good, waking it if it is waiting.
+     */
+    public void interrupt() {
+        state.set(State.INTERRUPTED);
+        wake();
+    }
+
+    /**
+     * Waits while paused.
+     * @return the state once it is no longer PAUSED.
+     * @throws InterruptedException if interrupted, either by {@link #interrupt()} or the waiting thread being interrupted.
+     */
+    public State await() throws InterruptedException {
+        State s = state.get();
+        if (s == State.PAUSED) {
+            Thread me = Thread.currentThread();
+            waiters.add(me);
+            try {
+                while ((s = state.get()) == State.PAUSED) {
+                    LockSupport.park(this);
+                    if (Thread.interrupted())
+                        throw new InterruptedException();
+                }
+            } finally {
+                waiters.remove(me);
+            }
+        }
+        if (s == State.INTERRUPTED)
+            throw new InterruptedException();
+        return s;
+    }
+
+    /**
+     * Changes the state, unless it has been interrupted.
+     * @param expect the state to change from, or null to change from any state.
+     * @param update the state to change to.
+     * @return true if the state was changed.
+     */
+    private boolean change(State expect, State update) {
+        while (true) {
+            State s = state.get();
+            if (s == State.INTERRUPTED || (expect != null && s != expect))
+                return false;
+            if (state.compareAndSet(s, update)) {
+                wake();
+                return true;
+            }
+        }
+    }
+
+    private void wake() {
+        for (Thread t : waiters) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return state.get().toString();
+    }
+}
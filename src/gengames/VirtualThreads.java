@@ -0,0 +1,66 @@
+package gengames;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Creates virtual threads through reflection, since Genetic Games is built to run on JVMs which do not have them.  Virtual threads
+ * are scheduled by the JVM onto a pool of carrier threads as large as the number of cores, and a virtual thread sleeping or waiting
+ * gives up its carrier, so thousands of games pausing in sleep loops cost little more than their stacks.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */final class VirtualThreads {
+    private static final Object BUILDER;
+    private static final Method UNSTARTED;
+
+    static {
+        Object builder = null;
+        Method unstarted = null;
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            builder = ofVirtual.invoke(null);
+            unstarted = ofVirtual.getReturnType().getMethod("unstarted", Runnable.class);
+            // a JVM with virtual threads only as a preview feature refuses to make one
+            unstarted.invoke(builder, new Runnable() {
+                @Override
+                public void run() {
+                    // never started
+                }
+            });
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            builder = null;
+            unstarted = null;
+        }
+        BUILDER = builder;
+        UNSTARTED = unstarted;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if this JVM can create virtual threads.
+     */
+    static boolean available() {
+        return UNSTARTED != null;
+    }
+
+    /**
+     * Creates a virtual thread, which like every virtual thread is a daemon.
+     * @param task what the thread runs.
+     * @return the thread, not yet started.
+     * @throws GenGameImplementationException if this JVM cannot create virtual threads.
+     */
+    static Thread unstarted(Runnable task) {
+        if (!available())
+            throw new GenGameImplementationException("This JVM cannot create virtual threads.");
+        try {
+            return (Thread) UNSTARTED.invoke(BUILDER, task);
+        } catch (IllegalAccessException e) {
+            throw new GenGameImplementationException("A virtual thread could not be created.", e);
+        } catch (InvocationTargetException e) {
+            throw new GenGameImplementationException("A virtual thread could not be created.", e.getCause());
+        }
+    }
+}
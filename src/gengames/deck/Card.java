@@ -1,22 +1,73 @@
 package gengames.deck;
 
 /**
- * A card object, has a Suit and a Value.
+ * A card object, has a Suit and a Value.  There is exactly one instance of each of the 52 cards, so cards may be compared with ==, and
+ * each card has an index from 0 to 51 which can be used to represent sets of cards as bits of a long.  Indexes are ordered by value,
+ * then suit, the same order as the {@link ValueComparator}.
  * @author Michael Diamond
  * @author Blake Lavender
  */
 public class Card implements Comparable<Card> {
-    private Suit suit;
-    private Value val;
+    /** The number of distinct cards. */
+    public static final int DECK_SIZE = Suit.values().length * Value.values().length;
+
+    private static final Card[] CARDS = new Card[DECK_SIZE];
+    static {
+        for (Value v : Value.values())
+            for (Suit s : Suit.values()) {
+                Card c = new Card(s, v);
+                CARDS[c.index] = c;
+            }
+    }
+
+    private final Suit suit;
+    private final Value val;
+    private final int index;
 
     /**
      * Constructs a new card.
      * @param s the Suit of the card.
      * @param v the Value of the card.
      */
-    /* package */Card(Suit s, Value v) {
+    private Card(Suit s, Value v) {
         suit = s;
         val = v;
+        index = v.ordinal() * Suit.values().length + s.ordinal();
+    }
+
+    /**
+     * Looks up a card.
+     * @param s the Suit of the card.
+     * @param v the Value of the card.
+     * @return the one instance of that card.
+     */
+    public static Card of(Suit s, Value v) {
+        return CARDS[v.ordinal() * Suit.values().length + s.ordinal()];
+    }
+
+    /**
+     * Looks up a card by its index.
+     * @param index the card's index, from 0 to 51.
+     * @return the one instance of that card.
+     */
+    public static Card of(int index) {
+        return CARDS[index];
+    }
+
+    /**
+     * The card's index, ordered by value and then suit.
+     * @return a number from 0 to 51 unique to this card.
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * The card as a set containing only this card.
+     * @return a long with only the bit at this card's index set.
+     */
+    public long mask() {
+        return 1L << index;
     }
 
     /**
@@ -0,0 +1,102 @@
+package gengames.deck;
+
+/**
+ * Operations on sets of cards stored as the bits of a long, bit i set meaning the set contains {@link Card#of(int) Card.of(i)}.  Since
+ * card indexes are ordered by value then suit, the lowest and highest cards are the lowest and highest bits, and every card of a suit
+ * is every fourth bit, so these operations take constant time (get takes one step per card skipped) and never allocate.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public final class CardMask {
+    /** The set of every card. */
+    public static final long ALL = (1L << Card.DECK_SIZE) - 1;
+
+    private static final long[] SUITS = new long[Suit.values().length];
+    static {
+        for (int i = 0; i < Card.DECK_SIZE; i++) {
+            SUITS[i % SUITS.length] |= 1L << i;
+        }
+    }
+
+    private CardMask() {
+        // static methods only
+    }
+
+    /**
+     * @param cards some cards.
+     * @return the set of the cards.
+     */
+    public static long of(Cards cards) {
+        long mask = 0;
+        for (Card c : cards) {
+            mask |= c.mask();
+        }
+        return mask;
+    }
+
+    /**
+     * @param mask a set of cards.
+     * @return the cards, lowest first, as by the {@link ValueComparator}.
+     */
+    public static Cards toCards(long mask) {
+        Cards cards = new Cards();
+        for (long m = mask; m != 0; m &= m - 1) {
+            cards.add(Card.of(Long.numberOfTrailingZeros(m)));
+        }
+        return cards;
+    }
+
+    /**
+     * @param s a suit.
+     * @return the set of every card of that suit.
+     */
+    public static long suit(Suit s) {
+        return SUITS[s.ordinal()];
+    }
+
+    /**
+     * @param mask a set of cards.
+     * @param s a suit.
+     * @return the cards in the set of that suit.
+     */
+    public static long ofSuit(long mask, Suit s) {
+        return mask & SUITS[s.ordinal()];
+    }
+
+    /**
+     * @param mask a set of cards.
+     * @return the number of cards in the set.
+     */
+    public static int size(long mask) {
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * @param mask a non-empty set of cards.
+     * @return the lowest card in the set.
+     */
+    public static Card lowest(long mask) {
+        return Card.of(Long.numberOfTrailingZeros(mask));
+    }
+
+    /**
+     * @param mask a non-empty set of cards.
+     * @return the highest card in the set.
+     */
+    public static Card highest(long mask) {
+        return Card.of(63 - Long.numberOfLeadingZeros(mask));
+    }
+
+    /**
+     * @param mask a set of cards.
+     * @param n the position of the card to find, from 0.
+     * @return the nth lowest card in the set.
+     */
+    public static Card get(long mask, int n) {
+        long m = mask;
+        for (int i = 0; i < n; i++) {
+            m &= m - 1;
+        }
+        return lowest(m);
+    }
+}
@@ -0,0 +1,101 @@
+package gengames.deck;
+
+/**
+ * A deal of the whole deck to a number of players, each hand stored as a set of card indexes in the bits of a long.  Deals are produced
+ * by a {@link DealGenerator}, and the deal at a given position of the stream for a given seed is always the same, so any deal can be
+ * replayed from its seed and index.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ * @see Card#index()
+ */
+public final class Deal {
+    /** The step between successive SplitMix64 states. */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long seed;
+    private final long index;
+    private final long[] hands;
+
+    /**
+     * Deals the deck.
+     * @param seed the seed of the stream this deal is from.
+     * @param index the deal's position in the stream.
+     * @param players the number of hands to deal.
+     */
+    /* package */Deal(long seed, long index, int players) {
+        this.seed = seed;
+        this.index = index;
+        hands = new long[players];
+        int[] deck = new int[Card.DECK_SIZE];
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = i;
+        }
+        // Fisher-Yates, see Deck.shuffle()
+        long state = mix(seed ^ mix(index));
+        for (int n = deck.length - 1; n > 0; n--) {
+            state += GOLDEN_GAMMA;
+            int k = (int) ((mix(state) >>> 1) % (n + 1));
+            int temp = deck[n];
+            deck[n] = deck[k];
+            deck[k] = temp;
+        }
+        // dealt one card at a time around the table, like Deck
+        for (int i = 0; i < deck.length; i++) {
+            hands[i % players] |= 1L << deck[i];
+        }
+    }
+
+    /**
+     * Looks up a deal without a generator.
+     * @param seed the seed of the stream.
+     * @param index the deal's position in the stream.
+     * @param players the number of hands to deal.
+     * @return the deal, identical to the one a DealGenerator with that seed produces at that index.
+     */
+    public static Deal at(long seed, long index, int players) {
+        return new Deal(seed, index, players);
+    }
+
+    /**
+     * @return the seed of the stream this deal is from.
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @return the deal's position in its stream.
+     */
+    public long index() {
+        return index;
+    }
+
+    /**
+     * @param player the player's seat.
+     * @return the cards dealt to that seat, as a set of card indexes.
+     */
+    public long hand(int player) {
+        return hands[player];
+    }
+
+    /**
+     * @param player the player's seat.
+     * @return the cards dealt to that seat, in index order.
+     */
+    public Cards cards(int player) {
+        Cards cards = new Cards();
+        for (long hand = hands[player]; hand != 0; hand &= hand - 1) {
+            cards.add(Card.of(Long.numberOfTrailingZeros(hand)));
+        }
+        return cards;
+    }
+
+    /**
+     * The SplitMix64 finalizer, which scrambles a counter into well distributed random bits far more cheaply than SecureRandom.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
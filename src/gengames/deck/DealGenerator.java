@@ -0,0 +1,80 @@
+package gengames.deck;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Shuffles and splits decks into hands on a background thread, so games can take a ready made {@link Deal} rather than shuffling and
+ * dealing a Deck themselves.  Deals are numbered in the order they are generated, and the deal at each index depends only on the
+ * generator's seed, so any deal, or a whole stream of them, can be replayed with {@link Deal#at(long, long, int)}.
+ * <p>Games never wait for the generator: if no deal is ready the game generates the next one itself.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public class DealGenerator implements Runnable {
+    /** How long the generator sleeps when its buffer is full. */
+    private static final long FULL_WAIT = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final long seed;
+    private final int players;
+    private final DealRing ring;
+    private final AtomicLong nextIndex = new AtomicLong();
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a generator and starts its thread.
+     * @param seed the seed every deal is generated from.
+     * @param players the number of hands in each deal.
+     * @param buffer the number of deals to keep ready.
+     */
+    public DealGenerator(long seed, int players, int buffer) {
+        this.seed = seed;
+        this.players = players;
+        ring = new DealRing(buffer);
+        Thread thread = new Thread(this, "Deal Generator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Fills the buffer with deals until stopped.
+     * @see java.lang.Runnable#run()
+     */
+    @Override
+    public void run() {
+        while (!stopped) {
+            Deal deal = new Deal(seed, nextIndex.getAndIncrement(), players);
+            while (!ring.offer(deal)) {
+                if (stopped)
+                    return;
+                LockSupport.parkNanos(FULL_WAIT);
+            }
+        }
+    }
+
+    /**
+     * Takes the next deal.
+     * @return a deal no other caller has received.
+     */
+    public Deal next() {
+        Deal deal = ring.poll();
+        if (deal != null)
+            return deal;
+        return new Deal(seed, nextIndex.getAndIncrement(), players);
+    }
+
+    /**
+     * @return the seed every deal is generated from.
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Stops the generator's thread.  Deals can still be taken, but are generated by the caller.
+     */
+    public void stop() {
+        stopped = true;
+    }
+}
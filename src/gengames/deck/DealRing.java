@@ -0,0 +1,85 @@
+package gengames.deck;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free, multi-producer multi-consumer queue of deals, after Dmitry Vyukov's bounded queue.  Each slot carries a
+ * sequence number which says whether it is ready to be written or read for the current lap of the ring, so producers and consumers
+ * only contend on the counter at their own end and never block.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */class DealRing {
+    private final Deal[] slots;
+    private final AtomicLongArray sequence;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Constructs an empty ring.
+     * @param capacity the most deals the ring holds, rounded up to a power of two.
+     */
+    DealRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new Deal[size];
+        sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequence.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Adds a deal to the ring.
+     * @param deal the deal.
+     * @return false if the ring is full.
+     */
+    boolean offer(Deal deal) {
+        long pos = tail.get();
+        while (true) {
+            int i = (int) (pos & mask);
+            long dif = sequence.get(i) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[i] = deal;
+                    // publishes the slot to the consumer which reads this sequence
+                    sequence.lazySet(i, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (dif < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest deal from the ring.
+     * @return the deal, or null if the ring is empty.
+     */
+    Deal poll() {
+        long pos = head.get();
+        while (true) {
+            int i = (int) (pos & mask);
+            long dif = sequence.get(i) - (pos + 1);
+            if (dif == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    Deal deal = slots[i];
+                    slots[i] = null;
+                    // frees the slot for the producer on the next lap
+                    sequence.lazySet(i, pos + mask + 1);
+                    return deal;
+                }
+                pos = head.get();
+            } else if (dif < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package gengames.deck;
 
 import java.util.Collections;
+import java.util.Random;
 
 import gengames.GAFrame;
 
@@ -12,12 +13,27 @@ import gengames.GAFrame;
 public class Deck {
     private Cards deck;
     private int nextCard;
+    private final Random shuffleRnd;
 
     /**
      * Constructs a new deck of cards with a random inital order, seeded by GAFrame.seedRnd, rather than GAFrame.rnd.
      */
     public Deck() {
+        this(GAFrame.seedRnd, GAFrame.rnd);
+    }
+
+    /**
+     * Constructs a new deck of cards whose initial order and every shuffle come from the passed Random.  Two decks constructed with
+     * identically seeded Randoms deal exactly the same cards, which lets different games be played with the same deals.
+     * @param rnd the source of all randomness for this deck.
+     */
+    public Deck(Random rnd) {
+        this(rnd, rnd);
+    }
+
+    private Deck(Random seedRnd, Random rnd) {
         nextCard = 0;
+        shuffleRnd = rnd;
         deck = new Cards();
         /*
          * Creating the initial positions of Deck can use a different random
@@ -27,13 +43,13 @@ public class Deck {
          * generators, not just differently seeded instances of Random. See
          * initialization of both variables in GAFrame for more info.
          */
-        int suitStart = (int) (GAFrame.seedRnd.nextDouble() * 4);
-        int valueStart = (int) (GAFrame.seedRnd.nextDouble() * 13);
+        int suitStart = (int) (seedRnd.nextDouble() * 4);
+        int valueStart = (int) (seedRnd.nextDouble() * 13);
         Suit[] suits = Suit.values();
         Value[] values = Value.values();
         for (int i = 0; i < suits.length; i++)
             for (int j = 0; j < values.length; j++)
-                deck.add(new Card(suits[(suitStart++) % suits.length],
+                deck.add(Card.of(suits[(suitStart++) % suits.length],
                         values[(valueStart++) % values.length]));
         shuffle();
     }
@@ -43,7 +59,7 @@ public class Deck {
      */
     public void shuffle() {
         nextCard = 0;
-        Collections.shuffle(deck, GAFrame.rnd);
+        Collections.shuffle(deck, shuffleRnd);
         /*
         implementation of http://en.wikipedia.org/wiki/Fisher-Yates_shuffle
         but collections already has it, so why bother?
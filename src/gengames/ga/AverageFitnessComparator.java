@@ -0,0 +1,74 @@
+package gengames.ga;
+
+import java.util.Comparator;
+import java.util.List;
+
+import gengames.Player;
+
+/**
+ * Ranks players by their average fitness per game, rather than their total fitness, so players who have played a different number of
+ * games can be compared fairly.  As described in {@link gengames.GameController GameController}, the Player's compareTo method defines
+ * whether lower or higher scores are better, so the direction is taken from comparing the lowest and highest scoring players.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */class AverageFitnessComparator implements Comparator<Player> {
+    private final boolean lowIsBetter;
+
+    /**
+     * Constructs a comparator for the given players.
+     * @param players the players which will be compared, used to determine if low or high scores are better.
+     */
+    AverageFitnessComparator(List<Player> players) {
+        Boolean low = lowIsBetter(players);
+        // if everyone has the same score there's nothing to learn from, and it doesn't matter much
+        lowIsBetter = low == null || low;
+    }
+
+    /**
+     * Constructs a comparator when it is already known if low or high scores are better.
+     * @param low true if low scores are better.
+     */
+    AverageFitnessComparator(boolean low) {
+        lowIsBetter = low;
+    }
+
+    /**
+     * Determines if low or high scores are better by comparing the lowest and highest scoring players.
+     * @param players the players to examine.
+     * @return true if low scores are better, false if high scores are, or null if every player has the same fitness.
+     */
+    static Boolean lowIsBetter(List<Player> players) {
+        Player low = null;
+        Player high = null;
+        for (Player p : players) {
+            if (low == null || p.fitness() < low.fitness())
+                low = p;
+            if (high == null || p.fitness() > high.fitness())
+                high = p;
+        }
+        if (low == null || low.fitness() == high.fitness())
+            return null;
+        return low.compareTo(high) < 0;
+    }
+
+    /**
+     * The average to rank a player by.
+     * @param p the player.
+     * @return the player's average fitness.
+     */
+    double average(Player p) {
+        return p.averageFitness();
+    }
+
+    /**
+     * Compares two players by their average fitness, best player first.
+     * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public int compare(Player one, Player two) {
+        if (lowIsBetter)
+            return Double.compare(average(one), average(two));
+        return Double.compare(average(two), average(one));
+    }
+}
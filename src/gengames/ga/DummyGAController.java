@@ -1,9 +1,6 @@
 package gengames.ga;
 
-import java.lang.reflect.Constructor;
-
 import gengames.GameController;
-import gengames.GenGameImplementationException;
 import gengames.Player;
 import gengames.PlayerBuilder;
 import gengames.RunLevel;
@@ -44,23 +41,19 @@ public class DummyGAController extends GAController {
                             + " run level.");
         }
 
+        // a single game is the case parallel rounds are for, if the game can play them
+        try {
+            if (rl == RunLevel.TEST_PLAYER)
+                setParallelRounds(true);
+        } catch (InvalidRequestException e) {
+            // rounds will be played one at a time
+        }
+
         gameOutput.setText("");
         Player[] players = new Player[gameSize];
         for (int i = 0; i < gameSize; i++)
             players[i] = pb.genPlayer();
-        Object[] arr = new Object[3];
-        arr[0] = players;
-        arr[1] = gameOutput;
-        arr[2] = running || runGen || runGame;
-        Constructor<?>[] constructs = gameClass.getConstructors();
-        for (Constructor<?> con : constructs) {
-            try {
-                game = (GameController) con.newInstance(arr);
-            } catch (Exception e) {
-                e.printStackTrace();
-                throw new GenGameImplementationException("No acceptable constructor found.", e);
-            }
-        }
+        game = newGame(players, runGames());
 
         gaOutput.setText("Starting Game Between Real Players:\n");
         for (Player p : players)
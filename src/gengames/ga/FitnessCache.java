@@ -0,0 +1,135 @@
+package gengames.ga;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import gengames.Player;
+
+/**
+ * Remembers the scores each strategy has earned across generations.  Players which survive pruning, and the clones made to refill the
+ * population, have exactly the same strategy as a player which has already been evaluated, so rather than starting their fitness over
+ * each generation their estimate keeps improving, and once it is precise enough they need not play at all.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */class FitnessCache {
+    /**
+     * A strategy's estimate is settled once the 95% confidence interval around its mean is within this fraction of the mean.
+     */
+    private static final double PRECISION = .1;
+
+    private final Map<GenomeKey, FitnessStats> stats = new HashMap<>();
+    private final int minGames;
+    private Boolean lowIsBetter;
+
+    /**
+     * Constructs an empty cache.
+     * @param min the fewest games a strategy must play before its estimate can be settled.
+     */
+    FitnessCache(int min) {
+        minGames = min;
+    }
+
+    /**
+     * Records the score a player earned in one game.
+     * @param p the player.
+     * @param score the score it earned.
+     */
+    void record(Player p, long score) {
+        GenomeKey key = new GenomeKey(p.getStrategy());
+        FitnessStats s = stats.get(key);
+        if (s == null) {
+            s = new FitnessStats();
+            stats.put(key, s);
+        }
+        s.add(score);
+    }
+
+    /**
+     * @param p the player to look up.
+     * @return the statistics for the player's strategy, or null if it has not been scored.
+     */
+    FitnessStats get(Player p) {
+        return stats.get(new GenomeKey(p.getStrategy()));
+    }
+
+    /**
+     * @param p the player to look up.
+     * @return the number of games the player's strategy has been scored for.
+     */
+    int games(Player p) {
+        FitnessStats s = get(p);
+        return s == null ? 0 : s.games();
+    }
+
+    /**
+     * Indicates the player's fitness is known well enough that playing more games would not change its estimate much.
+     * @param p the player to check.
+     * @return true if the estimate is settled.
+     */
+    boolean settled(Player p) {
+        FitnessStats s = get(p);
+        return s != null && s.games() >= minGames
+                && s.halfWidth() <= PRECISION * Math.abs(s.mean());
+    }
+
+    /**
+     * Indicates a game between these players would not tell us anything we need to know.
+     * @param ps the players who would play.
+     * @return true if every player's estimate is settled.
+     */
+    boolean settled(Player[] ps) {
+        for (Player p : ps) {
+            if (!settled(p))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Constructs a comparator ranking players by their strategy's average score, best player first.  Players whose strategy has not
+     * been scored are ranked by their own average fitness.
+     * @param players the players which will be compared.
+     * @return a comparator for the players.
+     */
+    Comparator<Player> ranking(List<Player> players) {
+        // settled players may not have played this generation, so remember which way is better once we've seen it
+        Boolean low = AverageFitnessComparator.lowIsBetter(players);
+        if (low != null)
+            lowIsBetter = low;
+        return new AverageFitnessComparator(lowIsBetter == null || lowIsBetter) {
+            @Override
+            double average(Player p) {
+                FitnessStats s = get(p);
+                return s == null ? p.averageFitness() : s.mean();
+            }
+        };
+    }
+
+    /**
+     * Forgets every strategy not present in the population.
+     * @param population the current population.
+     */
+    void retain(List<Player> population) {
+        Set<GenomeKey> keep = new HashSet<>();
+        for (Player p : population) {
+            keep.add(new GenomeKey(p.getStrategy()));
+        }
+        for (GenomeKey key : new ArrayList<>(stats.keySet())) {
+            if (!keep.contains(key))
+                stats.remove(key);
+        }
+    }
+
+    /**
+     * @return the number of strategies in the cache.
+     */
+    int size() {
+        return stats.size();
+    }
+}
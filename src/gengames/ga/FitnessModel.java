@@ -0,0 +1,32 @@
+package gengames.ga;
+
+/**
+ * The ways the GAController can turn the scores players earn in games into a ranking for selection.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public enum FitnessModel {
+    /** Players are ranked by their average score per game. */
+    AVERAGE,
+    /**
+     * Players are ranked by a skill rating, updated after every game from the order the players finished in.  Ratings account for how
+     * strong each player's opponents were, so players need not all play the same number of games against the same opponents.
+     */
+    RATING;
+
+    /**
+     * Describes this model for display in the GAFrame.
+     * @return a short description of the model.
+     */
+    public String description() {
+        switch (this) {
+        case AVERAGE:
+            return "Average Score Per Game";
+        case RATING:
+            return "Skill Rating";
+        default:
+            throw new RuntimeException(
+                    "Switched Over All FitnessModels, None Matched.  Critical Error.");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package gengames.ga;
+
+/**
+ * Running statistics of the scores a strategy has earned, one score per game.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */class FitnessStats {
+    private int games;
+    private double sum;
+    private double sumSquares;
+
+    /**
+     * Records the score from one game.
+     * @param score the score earned.
+     */
+    void add(long score) {
+        games++;
+        sum += score;
+        sumSquares += (double) score * score;
+    }
+
+    /**
+     * @return the number of games recorded.
+     */
+    int games() {
+        return games;
+    }
+
+    /**
+     * @return the average score per game, or zero if no games have been recorded.
+     */
+    double mean() {
+        return games == 0 ? 0 : sum / games;
+    }
+
+    /**
+     * @return the sample variance of the scores, or zero if fewer than two games have been recorded.
+     */
+    double variance() {
+        if (games < 2)
+            return 0;
+        double mean = mean();
+        return Math.max(0, (sumSquares - games * mean * mean) / (games - 1));
+    }
+
+    /**
+     * @return the half width of the 95% confidence interval around the mean.
+     */
+    double halfWidth() {
+        if (games == 0)
+            return Double.POSITIVE_INFINITY;
+        return 1.96 * Math.sqrt(variance() / games);
+    }
+}
@@ -1,17 +1,45 @@
 package gengames.ga;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import gengames.CompressedLog;
 import gengames.DummyGameController;
 import gengames.GAFrame;
+import gengames.GameBatch;
 import gengames.GameController;
+import gengames.GameRecordLog;
+import gengames.GameSettings;
 import gengames.GenGameImplementationException;
+import gengames.LoggedTextArea;
 import gengames.Player;
 import gengames.PlayerBuilder;
+import gengames.RunControl;
+import gengames.RunControl.State;
 import gengames.RunLevel;
 import gengames.Trait;
+import gengames.journal.GenerationJournal;
+import gengames.metrics.CrossoverEvent;
+import gengames.metrics.GenerationEvent;
+import gengames.metrics.Latency;
+import gengames.metrics.MetricsRegistry;
+import gengames.metrics.MetricsSnapshotWriter;
+import gengames.metrics.MutationEvent;
+import gengames.metrics.PhaseSnapshot;
+import gengames.metrics.PhaseTimer;
+import gengames.metrics.SelectionEvent;
 
 import javax.swing.JTextArea;
 
@@ -22,18 +50,12 @@ import javax.swing.JTextArea;
  */
 public class GAController implements Runnable {
     // running variables
-    /** Indicates that the GA is running. */
-    protected boolean running;
-    /** Indicates the GA should run for one generation. */
-    protected boolean runGen;
-    /** Indicates the GA should run for one game. */
-    protected boolean runGame;
-    /** Indicates the GA should run for one round. */
-    protected boolean runRound;
+    /** Whether the GA is running, paused, or stepping through a generation, a game or a round. */
+    protected final RunControl control = new RunControl(false);
     private Thread GAThread;
 
     /** The current game the GAController is managing. */
-    protected GameController game;
+    protected volatile GameController game;
     /** The PlayerBuilder for normal players. */
     protected PlayerBuilder playerBuilder;
     /** The PlayerBuilder for dummy players. */
@@ -56,14 +78,112 @@ public class GAController implements Runnable {
     /** The default Crossover Type */
     protected static final int defaultCrossoverType = 1;
     /** The default tournament style. */
-    protected static final boolean defaultTournametStyle = false;
+    protected static final TournamentStyle defaultTournametStyle = TournamentStyle.SIMPLE;
+    /** The default evolution mode, generational (false) or steady state (true). */
+    protected static final boolean defaultSteadyState = false;
+    /** The default fitness memoization setting. */
+    protected static final boolean defaultFitnessMemo = false;
+    /** By default players with identical strategies are allowed in the population. */
+    protected static final boolean defaultAllowDuplicates = true;
+    /** By default every game is dealt independently. */
+    protected static final boolean defaultDuplicateDeals = false;
+    /** By default games are played until they would normally end. */
+    protected static final int defaultRoundLimit = GameSettings.NO_ROUND_LIMIT;
+    /** By default each game plays its rounds one at a time. */
+    protected static final boolean defaultParallelRounds = false;
+    /** The default fitness model. */
+    protected static final FitnessModel defaultFitnessModel = FitnessModel.AVERAGE;
+    /** By default the phases of play are not timed. */
+    protected static final boolean defaultPhaseTiming = false;
+    /** By default mutation may change any locus. */
+    protected static final boolean defaultExpressedMutation = false;
+    /** By default the population is kept as players on the heap. */
+    protected static final boolean defaultPackedPopulation = false;
+    /** By default every game is played by its own controller. */
+    protected static final boolean defaultBatchGames = false;
+    /** By default games run on platform threads. */
+    protected static final boolean defaultVirtualThreads = false;
+    /** By default the output logs move to new files every 10 generations. */
+    protected static final int defaultLogRotation = 10;
+    /** By default an output log moves to a new file once its file reaches 64 megabytes. */
+    protected static final int defaultLogSize = 64;
+    /** How often, in seconds, metrics are written when they are written to a file. */
+    protected static final int METRICS_LOG_PERIOD = 10;
+
+    /** How many times a new strategy is mutated trying to make it unique before giving up. */
+    private static final int UNIQUE_ATTEMPTS = 100;
+
+    /** How long the GA waits between checks of a game which does not wake it when it ends. */
+    private static final long GAME_POLL = TimeUnit.MILLISECONDS.toNanos(50);
 
     // GA variables
     private int populationSize = defaultPopulationSize;
     private double matingPoolSize = defaultMatingPoolSize;
     private double mutationRate = defaultMutationRate;
     private int crossoverType = defaultCrossoverType;
-    private boolean tournamentStyle = defaultTournametStyle;
+    private TournamentStyle tournamentStyle = defaultTournametStyle;
+    private boolean steadyState = defaultSteadyState;
+    private FitnessCache fitnessCache;
+    private boolean allowDuplicates = defaultAllowDuplicates;
+    private final GenomePool genomePool = new GenomePool();
+    private boolean duplicateDeals = defaultDuplicateDeals;
+    private int roundLimit = defaultRoundLimit;
+    private boolean parallelRounds = defaultParallelRounds;
+    private boolean batchGames = defaultBatchGames;
+    /** Plays tables in batches, or null if the game cannot. */
+    private GameBatch batch;
+    /** The games waiting to be played in the next batch, and the seed each is dealt from. */
+    private final List<Player[]> batchTables = new ArrayList<>();
+    private long[] batchSeeds;
+    private FitnessModel fitnessModel = defaultFitnessModel;
+    /** Every strategy's skill rating, if players are ranked by rating. */
+    private SkillRatings ratings;
+    /** Whether lower fitness is better, as seen in the rated games, or null until it has been seen. */
+    private Boolean ratingLowIsBetter;
+    /** The phase times at the end of the last generation, each generation reports the time since. */
+    private PhaseSnapshot phaseTotals;
+    /** The time spent in each phase of play during the last generation, or null if it was not timed. */
+    private volatile PhaseSnapshot lastPhaseTimes;
+    private boolean expressedMutation = defaultExpressedMutation;
+    private boolean packedPopulation = defaultPackedPopulation;
+    private int logRotation = defaultLogRotation;
+    private int logSize = defaultLogSize;
+    /** Game output is written to this log rather than the game output area, if asked to. */
+    private CompressedLog gameLog;
+    /** GA output is written to this log as well as the GA output area, while game output is logged. */
+    private CompressedLog gaLog;
+    /** The game output area, while game output is logged instead. */
+    private JTextArea gameDisplay;
+    /** The population while it is packed off the heap, in which case thePopulation is empty. */
+    private PackedPopulation packed;
+    /** Whether lower fitness is better, as seen in the packed population's games, or null until it has been seen. */
+    private Boolean packedLowIsBetter;
+    /** How often each locus is expressed in play. */
+    private final LocusExpression expression = new LocusExpression();
+    /** How often each locus was expressed during the last generation, or null if players do not record it. */
+    private long[] lastExpression;
+    /** The throughput and latency metrics. */
+    private final MetricsRegistry metrics = MetricsRegistry.get();
+    /** Journals every generation to disk, if asked to. */
+    private GenerationJournal journal;
+    /** Each player's index in the last journaled generation, while journaling a population of players. */
+    private Map<Player, Integer> journaled;
+    /** The parents of each player added since the last journaled generation, while journaling a population of players. */
+    private Map<Player, int[]> lineage;
+    /** Every game played is recorded to this log, if asked to. */
+    private GameRecordLog gameRecords;
+    /** Writes the metrics to a file, if asked to. */
+    private MetricsSnapshotWriter metricsLog;
+    /** When the current generation started, in System.nanoTime(). */
+    private long generationStarted;
+    /** The Flight Recorder event for the current generation. */
+    private GenerationEvent generationEvent;
+    /** The number of games played before the current generation started. */
+    private long gamesBefore;
+    /** The deals every table plays this generation, or null if games are dealt independently. */
+    private long[] dealSeeds;
+    /** The racing tournament in progress, if any. */
+    private Race race;
 
     /** The class of the GameController to run */
     protected Class<? extends GameController> gameClass;
@@ -72,6 +192,11 @@ public class GAController implements Runnable {
 
     private int generations = 0;
 
+    /** The number of games the steady state GA keeps running at once. */
+    private final int workers = Runtime.getRuntime().availableProcessors();
+    /** The games currently being played by the steady state GA. */
+    private final List<Table> tables = new ArrayList<>();
+
     /** Boolean flag indicating this GA uses dummy games */
     protected boolean dummyGame;
     /** Boolean flag indicating this GA uses dummy players */
@@ -100,6 +225,10 @@ public class GAController implements Runnable {
         playerBuilder = tempGC.getPlayerBuilder();
         dummyBuilder = tempGC.getDummyPlayerBuilder();
         gameSize = tempGC.numPlayers();
+        batch = tempGC.newBatch();
+        GameController.setVirtualThreads(defaultVirtualThreads);
+        if (defaultFitnessMemo)
+            fitnessCache = new FitnessCache(gameSize);
 
         switch (rl) {
         case TEST_GA:
@@ -136,6 +265,10 @@ public class GAController implements Runnable {
 
     // GA methods
     private void initializePopulation(int popSize) {
+        if (packedPopulation) {
+            initializePackedPopulation(popSize);
+            return;
+        }
         if (dummyPlayer) {
             output.setText("Starting a new dummy population with a size of "
                     + populationSize + "\n");
@@ -143,7 +276,7 @@ public class GAController implements Runnable {
             thePopulation = new ArrayList<>(popSize);
 
             for (int i = 0; i < popSize; i++) {
-                thePopulation.add(dummyBuilder.genPlayer());
+                thePopulation.add(newPlayer(dummyBuilder.genPlayer().getStrategy()));
             }
         } else {
             output.setText("Starting a new population with a size of "
@@ -152,7 +285,7 @@ public class GAController implements Runnable {
             thePopulation = new ArrayList<>(popSize);
 
             for (int i = 0; i < popSize; i++) {
-                thePopulation.add(playerBuilder.genPlayer());
+                thePopulation.add(newPlayer(playerBuilder.genPlayer().getStrategy()));
             }
         }
 
@@ -163,6 +296,26 @@ public class GAController implements Runnable {
         for (Player p : thePopulation) {
             output.append(p.toString() + "\n");
         }
+        reportUnique();
+        output.append("Population successfully initialized!\n");
+        output.append("Mating Pool Size is " + matingPoolSize + "\n");
+        output.append("Mutation Rate is " + mutationRate + "\n");
+        output.append("Crossover Type is " + crossoverType + "\n");
+    }
+
+    /**
+     * Generates the initial population straight into packed records, without keeping a player for each.
+     * @param popSize the size of the population.
+     */
+    private void initializePackedPopulation(int popSize) {
+        output.setText("Starting a new packed " + (dummyPlayer ? "dummy " : "")
+                + "population with a size of " + populationSize + "\n");
+        thePopulation = new ArrayList<>();
+        packed = new PackedPopulation(builder().genPlayer().getStrategy(), popSize);
+        for (int i = 0; i < popSize; i++) {
+            packed.add(builder().genPlayer().getStrategy());
+        }
+        reportPacked();
         output.append("Population successfully initialized!\n");
         output.append("Mating Pool Size is " + matingPoolSize + "\n");
         output.append("Mutation Rate is " + mutationRate + "\n");
@@ -176,20 +329,32 @@ public class GAController implements Runnable {
     @Override
     public void run() {
         try {
-            while (!(running || runGen || runGame || runRound)) {
-                Thread.sleep(50);// wait to run the GA
-            }
+            control.await(); // wait to run the GA
             initializePopulation(populationSize);
+            startGeneration();
             // output.setText("");
             while (true) {
-                while (!(running || runGen || runGame || runRound)) {
-                    Thread.sleep(50);// wait to run the GA
+                control.await(); // wait to run the GA
+                if (steadyState) {
+                    runSteadyState();
+                    continue;
                 }
-                tournament(tournamentStyle);
-                updatePopulation();
-                generations++;
-                output.append("Finished generation " + generations + "\n");
-                runGen = false;
+                if (packedPopulation != (packed != null))
+                    repackPopulation();
+                long start = System.nanoTime();
+                if (packed != null) {
+                    packedTournament(tournamentStyle);
+                    metrics.record(Latency.TOURNAMENT, System.nanoTime() - start);
+                    journalGeneration();
+                    updatePackedPopulation();
+                } else {
+                    tournament(tournamentStyle);
+                    metrics.record(Latency.TOURNAMENT, System.nanoTime() - start);
+                    journalGeneration();
+                    updatePopulation();
+                }
+                finishGeneration();
+                control.finish(State.STEP_GENERATION);
             }
 
         } catch (InterruptedException e) {
@@ -198,270 +363,1183 @@ public class GAController implements Runnable {
         }
     }
 
-    private void tournament(boolean complex) throws InterruptedException {
+    private void tournament(TournamentStyle style) throws InterruptedException {
         Collections.shuffle(thePopulation, GAFrame.rnd);
-        if (!complex) // O(n) games
-        {
-            playOrdering();
-        } else // O(n^2) games
-        {
+        dealSeeds = duplicateDeals ? drawDeals() : null;
+        switch (style) {
+        case SIMPLE: // O(n) games
+            playOrdering(thePopulation);
+            break;
+        case COMPLEX: // O(n^2) games
             for (int i = 0; i < thePopulation.size(); i++) {
-                playOrdering();
+                playOrdering(thePopulation);
                 thePopulation.add(thePopulation.remove(0)); // puts the first
                                                             // player last,
                                                             // slides everyone
                                                             // down one.
             }
+            break;
+        case RACING: // up to O(n^2) games
+            race();
+            break;
+        case SWISS: // O(n log n) games
+            swiss();
+            break;
+        default:
+            throw new RuntimeException("Nonexistant TournamentStyle");
         }
     }
 
-    private void playOrdering() throws InterruptedException {
-        for (int i = 0; i < thePopulation.size(); i++) {
+    /**
+     * Plays the complex tournament one round at a time, only seating players whose survival is still in question.
+     * @throws InterruptedException if a game is interrupted.
+     */
+    private void race() throws InterruptedException {
+        int rounds = thePopulation.size();
+        int survivors = Math.min(thePopulation.size(), (int) (populationSize * matingPoolSize));
+        race = new Race(thePopulation, survivors, rounds);
+        int games = 0;
+        for (int round = 0; round < rounds; round++) {
+            List<Player> seating = race.seating(gameSize);
+            if (seating.isEmpty())
+                break;
+            Collections.shuffle(seating, GAFrame.rnd);
+            int played = playOrdering(seating);
+            if (played == 0)
+                break;
+            games += played;
+            int decided = race.decide();
+            if (decided > 0) {
+                output.append("Round " + (round + 1) + " of racing decided " + decided
+                        + " players, " + race.undecided() + " remain\n");
+            }
+        }
+        race = null;
+        output.append("Racing played " + games + " games, a complex tournament plays "
+                + rounds * rounds * gamesPerTable() + "\n");
+    }
+
+    /**
+     * Plays a Swiss tournament.  The first round is seated in the population's shuffled order, and each later round sorts the players
+     * by their running fitness and seats them at tables in that order, so players play others with similar fitness.  If the tables do
+     * not divide the population evenly, the last table is filled out with the players just above it.
+     * @throws InterruptedException if a game is interrupted.
+     */
+    private void swiss() throws InterruptedException {
+        int rounds = TournamentStyle.swissRounds(thePopulation.size());
+        ArrayList<Player> standings = new ArrayList<>(thePopulation);
+        int games = 0;
+        int skipped = 0;
+        for (int round = 0; round < rounds; round++) {
+            if (round > 0)
+                rank(standings);
+            int tables = (standings.size() + gameSize - 1) / gameSize;
+            for (int t = 0; t < tables; t++) {
+                int first = Math.max(0, Math.min(t * gameSize, standings.size() - gameSize));
+                List<Player> seats = new ArrayList<>(gameSize);
+                for (int j = 0; j < gameSize; j++) {
+                    seats.add(standings.get((first + j) % standings.size()));
+                }
+                // don't let standings decide who sits where
+                Collections.shuffle(seats, GAFrame.rnd);
+                Player[] players = seats.toArray(new Player[gameSize]);
+                if (fitnessCache != null && fitnessCache.settled(players)) {
+                    skipped++;
+                    continue;
+                }
+                games += playTable(players, t);
+            }
+            playBatch();
+        }
+        if (skipped > 0) {
+            output.append("Skipped " + skipped + " tables of players whose fitness is already known\n");
+        }
+        output.append("Swiss tournament played " + games + " games in " + rounds + " rounds\n");
+    }
+
+    /**
+     * Draws the deals for this generation's tournament, one for each seat at a table.  Since consecutive tables in an ordering are
+     * dealt consecutive deals, each player in a simple tournament plays every deal once, and in every seat.
+     * @return the seeds to deal each table from.
+     */
+    private long[] drawDeals() {
+        long[] seeds = new long[gameSize];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = GAFrame.rnd.nextLong();
+        }
+        output.append("Drew " + seeds.length + " deals this generation, each table plays one of them"
+                + " with its players rotated through every seat\n");
+        return seeds;
+    }
+
+    /**
+     * @return how many games are played each time a table is seated, one per seat if deals are duplicated.
+     */
+    private int gamesPerTable() {
+        return dealSeeds == null ? 1 : gameSize;
+    }
+
+    /**
+     * Seats one table starting at each player in the ordering, with the players following it.  Each table plays one game, or if deals
+     * are duplicated, plays its deal once with the players rotated into every seat.
+     * @param ordering the players in the order to seat them.
+     * @return the number of games played.
+     * @throws InterruptedException if a game is interrupted.
+     */
+    private int playOrdering(List<Player> ordering) throws InterruptedException {
+        int skipped = 0;
+        int played = 0;
+        for (int i = 0; i < ordering.size(); i++) {
             Player[] players = new Player[gameSize];
             for (int j = 0; j < gameSize; j++) {
-                players[j] = thePopulation.get((i + j) % thePopulation.size());
+                players[j] = ordering.get((i + j) % ordering.size());
+            }
+            if (fitnessCache != null && fitnessCache.settled(players)) {
+                skipped++;
+                continue;
+            }
+            played += playTable(players, i);
+        }
+        playBatch();
+        if (skipped > 0) {
+            output.append("Skipped " + skipped + " tables of players whose fitness is already known\n");
+        }
+        return played;
+    }
+
+    /**
+     * @return true if games should start running, rather than paused, as they should when running or stepping through a generation
+     *         or a game.
+     */
+    protected boolean runGames() {
+        State state = control.get();
+        return state == State.RUNNING || state == State.STEP_GENERATION || state == State.STEP_GAME;
+    }
+
+    /**
+     * Plays one table, a single game, or if deals are duplicated the table's deal once with the players rotated into every seat.
+     * @param players the players at the table.
+     * @param table the table's number, which picks its deal.
+     * @return the number of games played.
+     * @throws InterruptedException if a game is interrupted.
+     */
+    private int playTable(Player[] players, int table) throws InterruptedException {
+        if (dealSeeds == null) {
+            if (batching())
+                queueGame(players, GAFrame.rnd.nextLong());
+            else
+                runGame(players, null);
+            return 1;
+        }
+        long seed = dealSeeds[table % dealSeeds.length];
+        for (int seat = 0; seat < gameSize; seat++) {
+            Player[] rotated = new Player[gameSize];
+            for (int j = 0; j < gameSize; j++) {
+                rotated[(j + seat) % gameSize] = players[j];
+            }
+            if (batching())
+                queueGame(rotated, seed);
+            else
+                runGame(rotated, seed);
+        }
+        return gameSize;
+    }
+
+    /**
+     * @return true if tables are played in batches rather than each game by its own controller.
+     */
+    private boolean batching() {
+        return batchGames && batch != null && !dummyGame;
+    }
+
+    /**
+     * Adds a game to the next batch, playing the batch if it is full.  Its players' fitness is only updated once the batch is played.
+     * @param ps the players in the game.
+     * @param seed the seed to deal the game from.
+     * @throws InterruptedException if the GA is interrupted while waiting to play the batch.
+     */
+    private void queueGame(Player[] ps, long seed) throws InterruptedException {
+        if (batchSeeds == null)
+            batchSeeds = new long[batch.capacity()];
+        batchSeeds[batchTables.size()] = seed;
+        batchTables.add(ps);
+        if (batchTables.size() == batchSeeds.length)
+            playBatch();
+    }
+
+    /**
+     * Plays the games waiting in the batch, then updates their players' fitness one game at a time, as if each had been played by its
+     * own controller.  Stepping through a game or round plays the whole batch.
+     * @throws InterruptedException if the GA is interrupted while waiting to play the batch.
+     */
+    private void playBatch() throws InterruptedException {
+        if (batchTables.isEmpty())
+            return;
+        control.await();
+        Player[][] ps = batchTables.toArray(new Player[batchTables.size()][]);
+        long started = System.nanoTime();
+        int[][] scores = batch.play(ps, Arrays.copyOf(batchSeeds, ps.length), roundLimit);
+        long nanos = (System.nanoTime() - started) / ps.length;
+        batchTables.clear();
+        for (int t = 0; t < ps.length; t++) {
+            long[] start = startingFitness(ps[t]);
+            for (int j = 0; j < ps[t].length; j++) {
+                ps[t][j].addToFitness(scores[t][j]);
             }
-            runGame(players);
+            metrics.countGame(nanos);
+            recordGame(ps[t], start);
         }
+        output.append("Played a batch of " + ps.length + " games\n");
+        control.finish(State.STEP_GAME);
+        control.finish(State.STEP_ROUND);
     }
 
-    private void runGame(Player[] ps) throws InterruptedException {
+    /**
+     * Plays one game, waiting until it is over.
+     * @param ps the players in the game.
+     * @param dealSeed the seed to deal the game from, or null to deal it independently.
+     * @throws InterruptedException if the game is interrupted.
+     */
+    private void runGame(Player[] ps, Long dealSeed) throws InterruptedException {
         if (game != null) {
             throw new RuntimeException(
                     "The GAController tried to start a new game while another was running!");
         }
-        if (dummyGame) {
-            game = new DummyGameController(ps, gameOutput, running || runGen
-                    || runGame);
-        } else {
-            Constructor<?>[] constructs = gameClass.getConstructors();
-            Object[] arr = new Object[3];
-            arr[0] = ps;
-            arr[1] = gameOutput;
-            arr[2] = running || runGen || runGame;
-
-            for (Constructor<?> con : constructs) {
-                try {
-                    game = (GameController) con.newInstance(arr);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    throw new GenGameImplementationException("No acceptable constructor found.", e);
-                }
-            }
-        }
-        runGame = false;
-        if(runRound)
+        long[] start = startingFitness(ps);
+        long started = System.nanoTime();
+        game = newGame(ps, runGames(), dealSeed);
+        game.notifyWhenOver(Thread.currentThread());
+        control.finish(State.STEP_GAME);
+        if (control.finish(State.STEP_ROUND))
             game.runRound();
-        runRound = false;
 
         while (!game.gameOver()) {
             if (game.interrupted())
                 throw new InterruptedException("Game Controller Interrupted.");
-            Thread.sleep(50);
+            LockSupport.parkNanos(this, GAME_POLL);
+            if (Thread.interrupted())
+                throw new InterruptedException("GA Controller Interrupted.");
         }
         output.append("Game over.");
         game = null;
+        metrics.countGame(System.nanoTime() - started);
+        recordGame(ps, start);
     }
 
-    private void updatePopulation() {
-        // prune the population and perform mutation/crossover
-        prunePopulation(matingPoolSize);
-
-        output.append("performing crossover with " + crossoverType
-                + " slices\n");
-        crossover(crossoverType);
+    private static long[] startingFitness(Player[] ps) {
+        long[] start = new long[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            start[i] = ps[i].fitness();
+        }
+        return start;
+    }
 
-        refillPopulation();
+    /**
+     * Called once a game is over to record what each player scored in it.
+     * @param ps the players in the game.
+     * @param start each player's fitness before the game started.
+     */
+    private void recordGame(Player[] ps, long[] start) {
+        long[] scores = new long[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            long score = ps[i].fitness() - start[i];
+            scores[i] = score;
+            ps[i].countGame();
+            if (fitnessCache != null)
+                fitnessCache.record(ps[i], score);
+            if (race != null)
+                race.record(ps[i], score);
+        }
+        if (ratings != null) {
+            // seen from the game's own players, so an update costs nothing in the population's size
+            if (ratingLowIsBetter == null)
+                ratingLowIsBetter = AverageFitnessComparator.lowIsBetter(Arrays.asList(ps));
+            // until two players' totals have differed there is no telling who won, so the game is not rated rather than guessed at
+            if (ratingLowIsBetter != null)
+                ratings.record(ps, scores, ratingLowIsBetter);
+        }
+        expression.record(ps);
+    }
 
-        output.append("performing mutation with a rate of " + mutationRate
-                + "\n");
-        mutate(mutationRate);
+    /**
+     * Sorts the players best first.  Players with identical strategies are ranked on the games they played together, and if fitness is
+     * memoized on every game their strategy has played, since not every player plays every generation.
+     * @param players the players to sort.
+     */
+    private void rank(List<Player> players) {
+        Collections.sort(players, averageRanking(players));
+    }
 
-        output.append("The new population is:\n");
-        for (Player p : thePopulation) {
-            output.append(p.toString() + "\n");
+    /**
+     * Constructs a comparator for ranking players who have played different numbers of games, best player first.
+     * @param players the players to be compared.
+     * @return a comparator for the players.
+     */
+    private Comparator<Player> averageRanking(List<Player> players) {
+        if (ratings != null) {
+            return ratings.ranking();
         }
+        if (fitnessCache != null) {
+            return fitnessCache.ranking(players);
+        }
+        return GenomePool.pooledRanking(players);
+    }
 
-        // reset each player's fitness
-        for (Player p : thePopulation) {
-            p.clearFitness();
+    /**
+     * The number of games a player's fitness is based on.
+     * @param p the player.
+     * @return the number of games the player, or its strategy if fitness is memoized, has been scored for.
+     */
+    private int gamesKnown(Player p) {
+        if (fitnessCache != null) {
+            return fitnessCache.games(p);
         }
+        return p.gamesPlayed();
     }
 
-    private void refillPopulation() {
-        // if the population is not full at this point, it will be filled with
-        // replicas of its existing members
-        int index = 0;
-        while (thePopulation.size() < populationSize) {
-            Trait[] randTrait = thePopulation.get(
-                    GAFrame.rnd.nextInt(thePopulation.size())).getStrategy()
-                    .clone();
-            if (dummyPlayer) {
-                thePopulation.add(dummyBuilder.genPlayer(randTrait));
-            } else {
-                thePopulation.add(playerBuilder.genPlayer(randTrait));
-            }
-            index++;
+    /**
+     * Constructs a new game between the passed players, using the (Player[], JTextArea, boolean) constructor described in
+     * {@link gengames.GameController GameController}.
+     * @param ps the players to seat at the game.
+     * @param run if the game should start off running.
+     * @return the new, already started, game.
+     */
+    protected GameController newGame(Player[] ps, boolean run) {
+        return newGame(ps, run, null);
+    }
+
+    /**
+     * Constructs a new game between the passed players.  If a deal seed is passed or games have a round limit the game is started with
+     * the optional (Player[], JTextArea, boolean, GameSettings) constructor described in {@link gengames.GameController GameController},
+     * so every game started with that seed is dealt the same cards.
+     * @param ps the players to seat at the game.
+     * @param run if the game should start off running.
+     * @param dealSeed the seed to deal the game from, or null to deal it independently.
+     * @return the new, already started, game.
+     */
+    protected GameController newGame(Player[] ps, boolean run, Long dealSeed) {
+        if (dealSeed == null && roundLimit == GameSettings.NO_ROUND_LIMIT && !parallelRounds && gameRecords == null) {
+            if (dummyGame)
+                return new DummyGameController(ps, gameOutput, run);
+            return construct(new Class<?>[] { Player[].class, JTextArea.class, boolean.class },
+                    ps, gameOutput, run);
         }
-        if (index > 0) {
-            output.append("refilling the population with " + index
-                    + " individuals\n");
+        GameSettings settings = new GameSettings(dealSeed, roundLimit, parallelRounds, gameRecords);
+        if (dummyGame)
+            return new DummyGameController(ps, gameOutput, run, settings);
+        return construct(new Class<?>[] { Player[].class, JTextArea.class, boolean.class, GameSettings.class },
+                ps, gameOutput, run, settings);
+    }
+
+    private GameController construct(Class<?>[] signature, Object... args) {
+        try {
+            Constructor<? extends GameController> con = gameClass.getConstructor(signature);
+            return con.newInstance(args);
+        } catch (NoSuchMethodException e) {
+            throw new GenGameImplementationException("No acceptable constructor found.", e);
+        } catch (InvocationTargetException e) {
+            throw new GenGameImplementationException("The game could not be started.", e.getCause());
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new GenGameImplementationException("Attempted to run an invalid game.", e);
         }
     }
 
-    private void prunePopulation(double survivors) {
-        ArrayList<Player> newPopulation = new ArrayList<>(populationSize);
-        // sort the population by their fitness
-        Collections.sort(thePopulation);
-        // find the cutoff (survivors from dead)
-        int splitPoint = (int) ((populationSize * survivors));
+    /**
+     * Runs the GA without a generation barrier.  Up to one game per available processor is played at once, and as soon as a game
+     * finishes the worst evaluated player is replaced with a new offspring and another game is seated.  Players are ranked by their
+     * average fitness since, unlike in a tournament, they do not all play the same number of games.  Returns once the GA is switched
+     * back to generational mode and all its games are over.
+     * @throws InterruptedException if the GA or one of its games is interrupted.
+     */
+    private void runSteadyState() throws InterruptedException {
+        int games = 0;
+        output.append("Running in steady state with up to " + workers
+                + " games at a time\n");
+        metrics.setWorkers(workers);
+        while (steadyState || !tables.isEmpty()) {
+            control.await(); // wait to run the GA
+            // keep every table busy, unless we're only stepping through one game
+            while (steadyState && tables.size() < workers) {
+                Player[] seats = seatTable();
+                if (seats == null)
+                    break;
+                State state = control.get();
+                boolean single = state != State.RUNNING && state != State.STEP_GENERATION;
+                Table table = new Table(seats, startingFitness(seats),
+                        newGame(seats, runGames()));
+                table.game.notifyWhenOver(Thread.currentThread());
+                synchronized (tables) {
+                    tables.add(table);
+                }
+                control.finish(State.STEP_GAME);
+                if (control.finish(State.STEP_ROUND))
+                    table.game.runRound();
+                if (single)
+                    break;
+            }
 
-        if (splitPoint == 0) {
-            throw new RuntimeException(
-                    "There was no surviving population! Turn the survival rate up!");
-        }
-        // add the most fit of the population to the newPopulation - checks
-        // against the size of the arrays is for resized populations
-        for (int index = 0; index < splitPoint && index < thePopulation.size(); index++) {
-            newPopulation.add(thePopulation.get(index));
+            boolean finished = false;
+            for (Iterator<Table> it = tables.iterator(); it.hasNext();) {
+                Table table = it.next();
+                if (table.game.interrupted())
+                    throw new InterruptedException("Game Controller Interrupted.");
+                if (!table.game.gameOver())
+                    continue;
+                synchronized (tables) {
+                    it.remove();
+                }
+                finished = true;
+                output.append("Game over.");
+                metrics.countGame(System.nanoTime() - table.started);
+                recordGame(table.players, table.start);
+                replaceWorst();
+                // a generation's worth of games is as many as a simple tournament plays
+                games++;
+                if (games % populationSize == 0) {
+                    journalGeneration();
+                    finishGeneration();
+                    control.finish(State.STEP_GENERATION);
+                }
+            }
+            if (!finished) {
+                LockSupport.parkNanos(this, GAME_POLL);
+                if (Thread.interrupted())
+                    throw new InterruptedException("GA Controller Interrupted.");
+            }
         }
-        thePopulation = newPopulation;
-        output.append("\nAfter pruning, the population now has "
-                + thePopulation.size() + " individuals and they are:\n");
+        // returning to generational mode, start the next generation fresh
+        metrics.setWorkers(1);
         for (Player p : thePopulation) {
-            output.append(p + " with fitness: " + p.fitness() + "\n");
+            p.clearFitness();
         }
     }
 
-    private void crossover(int slices) {
-        Player male = null;
-        Player female = null;
-        Trait[] childDNA = null;
-
-        if (slices == 0)
-            return; // nothing to do, we're not doing crossover.
+    /**
+     * Picks players who are not already in a game to seat at a new table, preferring players who have played the fewest games.
+     * @return the players to seat, or null if there are not enough players free.
+     */
+    private Player[] seatTable() {
+        ArrayList<Player> free = new ArrayList<>(thePopulation);
+        for (Table table : tables) {
+            for (Player p : table.players) {
+                free.remove(p);
+            }
+        }
+        if (free.size() < gameSize)
+            return null;
+        Collections.shuffle(free, GAFrame.rnd);
+        Collections.sort(free, new Comparator<Player>() {
+            @Override
+            public int compare(Player one, Player two) {
+                return gamesKnown(one) - gamesKnown(two);
+            }
+        });
+        return free.subList(0, gameSize).toArray(new Player[gameSize]);
+    }
 
-        if (thePopulation.size() < 2)
+    /**
+     * Replaces the worst player who has finished being evaluated with a new offspring of the mating pool.  A player has been evaluated
+     * once it has played as many games as it would in a simple tournament.
+     */
+    private void replaceWorst() {
+        ArrayList<Player> evaluated = new ArrayList<>();
+        for (Player p : thePopulation) {
+            if (gamesKnown(p) >= gameSize && !seated(p))
+                evaluated.add(p);
+        }
+        if (evaluated.size() < 2)
             return;
+        long start = System.nanoTime();
+        SelectionEvent selection = new SelectionEvent();
+        selection.begin();
+        Collections.sort(evaluated, averageRanking(evaluated));
+        Player worst = evaluated.get(evaluated.size() - 1);
+        int pool = Math.max(2, (int) (evaluated.size() * matingPoolSize));
+        selection.generation = generations + 1;
+        selection.candidates = evaluated.size();
+        selection.commit();
+        metrics.record(Latency.SELECTION, System.nanoTime() - start);
+        start = System.nanoTime();
+
+        CrossoverEvent crossover = new CrossoverEvent();
+        crossover.begin();
+
+        Player male = evaluated.get(GAFrame.rnd.nextInt(pool));
+        Player female = evaluated.get(GAFrame.rnd.nextInt(pool));
+        Trait[] childDNA;
+        boolean cloned = crossoverType == 0 || male == female;
+        if (cloned) {
+            childDNA = male.getStrategy().clone();
+        } else {
+            childDNA = breed(male, female, crossoverType);
+        }
+        thePopulation.remove(worst);
+        genomePool.retain(thePopulation);
+        Player child = newPlayer(childDNA);
+        descend(child, origin(male), cloned ? -1 : origin(female));
+        crossover.generation = generations + 1;
+        crossover.children = 1;
+        crossover.commit();
+        if (mutationRate > GAFrame.rnd.nextDouble()) {
+            MutationEvent mutation = new MutationEvent();
+            mutation.begin();
+            mutatePlayer(child);
+            Player mutated = newPlayer(child.getStrategy());
+            inherit(child, mutated);
+            child = mutated;
+            mutation.generation = generations + 1;
+            mutation.mutated = 1;
+            mutation.commit();
+        }
+        metrics.record(Latency.BREEDING, System.nanoTime() - start);
 
-        while (thePopulation.size() < populationSize) {
-            male = thePopulation.get((GAFrame.rnd.nextInt(thePopulation
-                    .size())));
-            female = thePopulation.get((GAFrame.rnd.nextInt(thePopulation
-                    .size())));
-            if (male == female) // == on purpose since we want to prevent the
-                                // same player breeding, not two identical
-                                // players
-                continue;
-            childDNA = new Trait[male.getStrategy().length];
+        thePopulation.add(child);
+        output.append("Replaced " + worst + " by " + child + "\n");
+        if (fitnessCache != null) {
+            fitnessCache.retain(thePopulation);
+        }
+        if (ratings != null) {
+            ratings.retain(thePopulation);
+        }
+    }
 
-            int crossoverRange = childDNA.length / slices;
-            int[] slicePoints = new int[slices + 1];
-            for (int i = 0; i < slices; i++) {
-                slicePoints[i] = i * crossoverRange
-                        + GAFrame.rnd.nextInt(crossoverRange);
+    private boolean seated(Player p) {
+        for (Table table : tables) {
+            for (Player seated : table.players) {
+                if (seated == p)
+                    return true;
             }
-            slicePoints[slices] = childDNA.length;
-
-            int lastSlot = 0;
-            for (int i = 0; i < slicePoints.length; i++) {
-                Trait[] selected = i % 2 == 0 ? male.getStrategy() : female
-                        .getStrategy();
-                System.arraycopy(selected, lastSlot, childDNA, lastSlot,
-                        slicePoints[i] - lastSlot);
+        }
+        return false;
+    }
 
-                lastSlot = slicePoints[i];
+    /**
+     * Writes the population, with its fitness from this generation's games, to the generation journal if there is one.  A player
+     * population is written in its current order, which later generations' parent indexes refer to.  If the journal cannot be written
+     * to, journaling stops.
+     */
+    private void journalGeneration() {
+        if (journal == null)
+            return;
+        try {
+            if (packed != null) {
+                GenerationJournal.Entry entry = journal.start(generations + 1, packed.size());
+                packed.journal(entry);
+                journal.append(entry);
+                return;
             }
-
-            // System.out.println("Crosover Points: "+Arrays.toString(slicePoints));
-            // System.out.println("Male:   "+Arrays.toString(male.getStrategy()));
-            // System.out.println("Female: "+Arrays.toString(female.getStrategy()));
-            // System.out.println("Child:  "+Arrays.toString(childDNA));
-
-            if (dummyPlayer) {
-                thePopulation.add(dummyBuilder.genPlayer(childDNA));
-            } else {
-                thePopulation.add(playerBuilder.genPlayer(childDNA));
+            GenerationJournal.Entry entry = journal.start(generations + 1, thePopulation.size());
+            Map<Player, Integer> indexes = new IdentityHashMap<>();
+            for (int i = 0; i < thePopulation.size(); i++) {
+                Player p = thePopulation.get(i);
+                int[] parents = parents(p);
+                entry.add(p.getStrategy(), p.fitness(), p.gamesPlayed(), parents[0], parents[1]);
+                indexes.put(p, i);
             }
+            journal.append(entry);
+            journaled = indexes;
+            lineage.clear();
+        } catch (IOException e) {
+            output.append("Stopped journaling generations, generation " + (generations + 1)
+                    + " could not be written: " + e.getMessage() + "\n");
+            closeJournal();
         }
     }
 
-    private void mutate(double rate) {
-        for (Player p : thePopulation) {
-            double rnd = GAFrame.rnd.nextDouble();
-            // if the rate is zero, mutation is effectively off
-            if (rate > rnd) {
-                p.mutate();
-            }
-        }
+    /**
+     * @param p a player.
+     * @return the player's index in the last journaled generation, or if it was added since, its first parent's, or -1 if not known.
+     */
+    private int origin(Player p) {
+        if (journal == null)
+            return -1;
+        Integer index = journaled.get(p);
+        if (index != null)
+            return index;
+        int[] parents = lineage.get(p);
+        return parents == null ? -1 : parents[0];
     }
 
     /**
-     * Called by GAFrame to start running games and generations.
-     * @param running true to set game/GA running, false to stop it
+     * @param p a player.
+     * @return the indexes of the player's parents in the last journaled generation, which for a player in it is itself.
      */
-    // Running status methods
-    public void setRunning(boolean running) {
-        this.running = running;
-        if (game != null)
-            game.setRunning(running);
+    private int[] parents(Player p) {
+        int[] parents = lineage == null ? null : lineage.get(p);
+        if (parents != null)
+            return parents;
+        return new int[] { origin(p), -1 };
     }
 
     /**
-     * Called by GAFrame, instructs GA to run one generation.
-     * @param run boolean flag - no change if false
+     * Records the parents of a player added to the population, if generations are being journaled.
      */
-    public void setRunGeneration(boolean run) {
-        runGen = run;
-        if (game != null)
-            game.setRunning(run);
+    private void descend(Player child, int parent, int otherParent) {
+        if (journal != null)
+            lineage.put(child, new int[] { parent, otherParent });
     }
 
     /**
-     * Called by GAFrame, instructs GA to run one game.
-     * @param run boolean flag - no change if false
+     * Records that a player replaces another with the same parents, as when a player is mutated.
      */
-    public void setRunGame(boolean run) {
-        runGame = run;
-        if (game != null)
-            game.setRunning(run);
+    private void inherit(Player original, Player replacement) {
+        if (journal != null)
+            lineage.put(replacement, parents(original));
+    }
+
+    private void closeJournal() {
+        if (journal == null)
+            return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            output.append("The generation journal could not be closed: " + e.getMessage() + "\n");
+        }
+        journal = null;
+        journaled = null;
+        lineage = null;
     }
 
     /**
-     * Called by GAFrame, instructs GA to run one round.
-     * @param run boolean flag - no change if false
+     * Starts timing a new generation.
      */
-    public void setRunRound(boolean run) {
-        runRound = run;
-        if (game != null)
-            game.runRound();
+    private void startGeneration() {
+        generationStarted = System.nanoTime();
+        gamesBefore = metrics.getGames();
+        generationEvent = new GenerationEvent();
+        generationEvent.begin();
     }
 
     /**
-     * Called by GAFrame, sets the GA's mutation rate.  Can only be called in between generations.
-     * @param mutate a percentage between 0 and 100
-     * @throws InvalidRequestException if the request is made in between generations or is out of the acceptable range
+     * Counts a finished generation, and if phases are being timed, reports the time spent in each phase of play during it.
      */
-    public void setMutationRate(double mutate) throws InvalidRequestException {
-        if (safeToInterrupt()) {
-            if (mutate > 100.0 || mutate < 0.0)
-                throw new InvalidRequestException(
-                        "Mutation requires a percentage between 0.0 and 100.0");
-            mutationRate = mutate / 100;
-        } else
-            throw new InvalidRequestException(
-                    "Cannot change mutation rate inbetween generations.");
+    private void finishGeneration() {
+        metrics.record(Latency.GENERATION, System.nanoTime() - generationStarted);
+        generations++;
+        long[] counts = expression.finishGeneration();
+        if (counts != null)
+            lastExpression = counts;
+        generationEvent.generation = generations;
+        generationEvent.populationSize = packed != null ? packed.size() : thePopulation.size();
+        generationEvent.games = metrics.getGames() - gamesBefore;
+        generationEvent.commit();
+        startGeneration();
+        output.append("Finished generation " + generations + "\n");
+        if (counts != null && packed != null)
+            output.append(expression.report(counts, packed.materialise(0, builder())));
+        else if (counts != null && !thePopulation.isEmpty())
+            output.append(expression.report(counts, thePopulation.get(0)));
+        if (gaLog != null)
+            rotateOutputLogs();
+        if (!PhaseTimer.isEnabled()) {
+            lastPhaseTimes = null;
+            return;
+        }
+        PhaseSnapshot totals = PhaseTimer.snapshot();
+        lastPhaseTimes = phaseTotals == null ? totals : totals.since(phaseTotals);
+        phaseTotals = totals;
+        output.append("Time spent in each phase of play:\n" + lastPhaseTimes);
     }
 
     /**
-     * Called by GAFrame, sets the GA's crossover type.  This can range from no crossover to single point crossover up to crossover at every point.
-     * If the crossover type is zero, no crossover will occur and clones of currently existing 'good' players will be made.
-     * @param cross the number of crossover points to use.
-     * @throws InvalidRequestException if the request is made in between generations or is out of the acceptable range
+     * Moves the population into or out of packed records, as the packed population setting now asks.  This happens at the start of a
+     * generation, when no player has any fitness.
      */
-    public void setCrossoverType(int cross) throws InvalidRequestException {
-        if (safeToInterrupt()) {
-            if (cross > playerBuilder.traitSize() || cross < 0)
+    private void repackPopulation() {
+        if (packedPopulation) {
+            packed = PackedPopulation.pack(thePopulation);
+            if (journal != null) {
+                for (int i = 0; i < packed.size(); i++) {
+                    int[] parents = parents(thePopulation.get(i));
+                    packed.setParents(i, parents[0], parents[1]);
+                }
+                journaled.clear();
+                lineage.clear();
+            }
+            thePopulation = new ArrayList<>();
+            genomePool.retain(thePopulation);
+            output.append("Packed the population off the heap\n");
+            reportPacked();
+        } else {
+            thePopulation = new ArrayList<>(packed.size());
+            for (int i = 0; i < packed.size(); i++) {
+                Player p = newPlayer(packed.genome(i));
+                descend(p, packed.parent(i), packed.otherParent(i));
+                thePopulation.add(p);
+            }
+            packed = null;
+            output.append("Unpacked the population into " + thePopulation.size() + " players\n");
+        }
+    }
+
+    /**
+     * Plays a simple or complex tournament over the packed population.  Each table's players are materialised from their records
+     * just before it is seated, and what they score is added back to the records once it is over, so only the players at the table
+     * exist at any time.
+     * @param style the tournament style, SIMPLE or COMPLEX.
+     * @throws InterruptedException if a game is interrupted.
+     */
+    private void packedTournament(TournamentStyle style) throws InterruptedException {
+        int size = packed.size();
+        int[] ordering = new int[size];
+        for (int i = 0; i < size; i++) {
+            ordering[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = GAFrame.rnd.nextInt(i + 1);
+            int swap = ordering[i];
+            ordering[i] = ordering[j];
+            ordering[j] = swap;
+        }
+        dealSeeds = duplicateDeals ? drawDeals() : null;
+        // a complex tournament seats the same tables as a simple one, once for each player
+        int repeats = style == TournamentStyle.COMPLEX ? size : 1;
+        List<Player[]> seated = new ArrayList<>();
+        List<int[]> seatedAt = new ArrayList<>();
+        for (int r = 0; r < repeats; r++) {
+            for (int i = 0; i < size; i++) {
+                int[] seats = new int[gameSize];
+                Player[] players = new Player[gameSize];
+                for (int j = 0; j < gameSize; j++) {
+                    seats[j] = ordering[(i + r + j) % size];
+                    players[j] = packed.materialise(seats[j], builder());
+                }
+                playTable(players, i);
+                seated.add(players);
+                seatedAt.add(seats);
+                // batched tables have only been scored once their batch is played
+                if (!batching() || seated.size() * gamesPerTable() >= batch.capacity()) {
+                    playBatch();
+                    addPackedScores(seated, seatedAt);
+                }
+            }
+        }
+        playBatch();
+        addPackedScores(seated, seatedAt);
+    }
+
+    /**
+     * Adds what the players at each table scored back to their records.
+     * @param seated the players at each table, which are forgotten once scored.
+     * @param seatedAt the index in the packed population of each table's players.
+     */
+    private void addPackedScores(List<Player[]> seated, List<int[]> seatedAt) {
+        List<Player> scored = new ArrayList<>();
+        for (int t = 0; t < seated.size(); t++) {
+            Player[] players = seated.get(t);
+            int[] seats = seatedAt.get(t);
+            for (int j = 0; j < gameSize; j++) {
+                packed.addScore(seats[j], players[j].fitness(), players[j].gamesPlayed());
+            }
+            if (packedLowIsBetter == null)
+                scored.addAll(Arrays.asList(players));
+        }
+        // any two players whose totals differ tell which way round compareTo ranks, whatever tables they sat at
+        if (packedLowIsBetter == null)
+            packedLowIsBetter = AverageFitnessComparator.lowIsBetter(scored);
+        seated.clear();
+        seatedAt.clear();
+    }
+
+    /**
+     * Prunes, breeds and mutates the packed population, working on its records without materialising any players.
+     */
+    private void updatePackedPopulation() {
+        long start = System.nanoTime();
+        SelectionEvent selection = new SelectionEvent();
+        selection.begin();
+        selection.candidates = packed.size();
+        int splitPoint = (int) ((populationSize * matingPoolSize));
+        if (splitPoint == 0) {
+            throw new RuntimeException(
+                    "There was no surviving population! Turn the survival rate up!");
+        }
+        int[] order;
+        if (packedLowIsBetter == null) {
+            // no two players have scored differently yet, so there is no telling which are better and the population stays in order
+            order = new int[packed.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+        } else {
+            order = packed.ranking(packedLowIsBetter);
+        }
+        packed.retain(order, splitPoint);
+        output.append("\nAfter pruning, the population now has " + packed.size()
+                + " individuals, the best with an average fitness of " + packed.average(0) + "\n");
+        selection.generation = generations + 1;
+        selection.commit();
+        metrics.record(Latency.SELECTION, System.nanoTime() - start);
+        start = System.nanoTime();
+
+        CrossoverEvent crossover = new CrossoverEvent();
+        crossover.begin();
+        int survivors = packed.size();
+        output.append("performing crossover with " + crossoverType
+                + " slices\n");
+        if (crossoverType != 0 && survivors >= 2) {
+            while (packed.size() < populationSize) {
+                int male = GAFrame.rnd.nextInt(packed.size());
+                int female = GAFrame.rnd.nextInt(packed.size());
+                if (male == female)
+                    continue;
+                packed.breed(male, female, crossoverType);
+            }
+        }
+        int refilled = 0;
+        while (packed.size() < populationSize) {
+            packed.copy(GAFrame.rnd.nextInt(packed.size()));
+            refilled++;
+        }
+        if (refilled > 0) {
+            output.append("refilling the population with " + refilled
+                    + " individuals\n");
+        }
+        crossover.generation = generations + 1;
+        crossover.children = packed.size() - survivors;
+        crossover.commit();
+
+        output.append("performing mutation with a rate of " + mutationRate
+                + "\n");
+        MutationEvent mutation = new MutationEvent();
+        mutation.begin();
+        int[] loci = expressedMutation ? expression.expressedLoci() : null;
+        int mutated = 0;
+        for (int i = 0; i < packed.size(); i++) {
+            if (mutationRate > GAFrame.rnd.nextDouble()) {
+                if (loci == null || loci.length == 0)
+                    packed.mutate(i, GAFrame.rnd.nextInt(packed.loci()));
+                else
+                    packed.mutate(i, loci[GAFrame.rnd.nextInt(loci.length)]);
+                mutated++;
+            }
+        }
+        mutation.mutated = mutated;
+        mutation.generation = generations + 1;
+        mutation.commit();
+        metrics.record(Latency.BREEDING, System.nanoTime() - start);
+
+        reportPacked();
+        packed.clearFitness();
+    }
+
+    private void reportPacked() {
+        output.append("The population has " + packed.unique() + " unique strategies out of "
+                + packed.size() + " players, packed into " + packed.allocated() + " bytes off the heap\n");
+    }
+
+    /**
+     * @return the builder for the players in the population.
+     */
+    private PlayerBuilder builder() {
+        return dummyPlayer ? dummyBuilder : playerBuilder;
+    }
+
+    private void updatePopulation() {
+        // prune the population and perform mutation/crossover
+        long start = System.nanoTime();
+        SelectionEvent selection = new SelectionEvent();
+        selection.begin();
+        selection.candidates = thePopulation.size();
+        prunePopulation(matingPoolSize);
+        selection.generation = generations + 1;
+        selection.commit();
+        metrics.record(Latency.SELECTION, System.nanoTime() - start);
+        start = System.nanoTime();
+
+        CrossoverEvent crossover = new CrossoverEvent();
+        crossover.begin();
+        int survivors = thePopulation.size();
+        output.append("performing crossover with " + crossoverType
+                + " slices\n");
+        crossover(crossoverType);
+
+        refillPopulation();
+        crossover.generation = generations + 1;
+        crossover.children = thePopulation.size() - survivors;
+        crossover.commit();
+
+        output.append("performing mutation with a rate of " + mutationRate
+                + "\n");
+        MutationEvent mutation = new MutationEvent();
+        mutation.begin();
+        mutation.mutated = mutate(mutationRate);
+        mutation.generation = generations + 1;
+        mutation.commit();
+        metrics.record(Latency.BREEDING, System.nanoTime() - start);
+
+        output.append("The new population is:\n");
+        for (Player p : thePopulation) {
+            output.append(p.toString() + "\n");
+        }
+        genomePool.retain(thePopulation);
+        reportUnique();
+
+        // reset each player's fitness
+        for (Player p : thePopulation) {
+            p.clearFitness();
+        }
+        if (fitnessCache != null) {
+            fitnessCache.retain(thePopulation);
+            output.append("Remembering the fitness of " + fitnessCache.size()
+                    + " strategies\n");
+        }
+        if (ratings != null) {
+            ratings.retain(thePopulation);
+            output.append("Remembering the ratings of " + ratings.size()
+                    + " strategies\n");
+        }
+    }
+
+    private void refillPopulation() {
+        // if the population is not full at this point, it will be filled with
+        // replicas of its existing members
+        int index = 0;
+        while (thePopulation.size() < populationSize) {
+            Player original = thePopulation.get(GAFrame.rnd.nextInt(thePopulation.size()));
+            Player copy = newPlayer(original.getStrategy().clone());
+            descend(copy, origin(original), -1);
+            thePopulation.add(copy);
+            index++;
+        }
+        if (index > 0) {
+            output.append("refilling the population with " + index
+                    + " individuals\n");
+        }
+    }
+
+    private void prunePopulation(double survivors) {
+        ArrayList<Player> newPopulation = new ArrayList<>(populationSize);
+        // sort the population by their fitness
+        rank(thePopulation);
+        // find the cutoff (survivors from dead)
+        int splitPoint = (int) ((populationSize * survivors));
+
+        if (splitPoint == 0) {
+            throw new RuntimeException(
+                    "There was no surviving population! Turn the survival rate up!");
+        }
+        // add the most fit of the population to the newPopulation - checks
+        // against the size of the arrays is for resized populations
+        for (int index = 0; index < splitPoint && index < thePopulation.size(); index++) {
+            newPopulation.add(thePopulation.get(index));
+        }
+        thePopulation = newPopulation;
+        genomePool.retain(thePopulation);
+        output.append("\nAfter pruning, the population now has "
+                + thePopulation.size() + " individuals and they are:\n");
+        for (Player p : thePopulation) {
+            if (ratings != null)
+                output.append(p + " with rating: " + ratings.describe(p) + "\n");
+            else
+                output.append(p + " with fitness: " + p.fitness() + "\n");
+        }
+    }
+
+    /**
+     * Builds a player for a new strategy, sharing the canonical array if the strategy is already in the population.  If duplicates are
+     * not allowed the strategy is first mutated until it is unique, or until it seems there are no unique strategies left to find.
+     * @param str the new strategy, which must not be shared with another player as it may be changed.
+     * @return the new player.
+     */
+    private Player newPlayer(Trait[] str) {
+        if (!allowDuplicates) {
+            for (int i = 0; i < UNIQUE_ATTEMPTS && genomePool.contains(str); i++) {
+                int index = GAFrame.rnd.nextInt(str.length);
+                str[index] = str[index].mutate();
+            }
+        }
+        str = genomePool.intern(str);
+        if (dummyPlayer) {
+            return dummyBuilder.genPlayer(str);
+        }
+        return playerBuilder.genPlayer(str);
+    }
+
+    private void reportUnique() {
+        output.append("The population has " + GenomePool.unique(thePopulation)
+                + " unique strategies out of " + thePopulation.size() + " players\n");
+    }
+
+    private void crossover(int slices) {
+        Player male = null;
+        Player female = null;
+
+        if (slices == 0)
+            return; // nothing to do, we're not doing crossover.
+
+        if (thePopulation.size() < 2)
+            return;
+
+        while (thePopulation.size() < populationSize) {
+            male = thePopulation.get((GAFrame.rnd.nextInt(thePopulation
+                    .size())));
+            female = thePopulation.get((GAFrame.rnd.nextInt(thePopulation
+                    .size())));
+            if (male == female) // == on purpose since we want to prevent the
+                                // same player breeding, not two identical
+                                // players
+                continue;
+            Player child = newPlayer(breed(male, female, slices));
+            descend(child, origin(male), origin(female));
+            thePopulation.add(child);
+        }
+    }
+
+    /**
+     * Combines the strategies of two players by alternating between them at <tt>slices</tt> random points.
+     * @param male the first parent.
+     * @param female the second parent.
+     * @param slices the number of crossover points.
+     * @return the child's strategy.
+     */
+    private Trait[] breed(Player male, Player female, int slices) {
+        Trait[] childDNA = new Trait[male.getStrategy().length];
+
+        int crossoverRange = childDNA.length / slices;
+        int[] slicePoints = new int[slices + 1];
+        for (int i = 0; i < slices; i++) {
+            slicePoints[i] = i * crossoverRange
+                    + GAFrame.rnd.nextInt(crossoverRange);
+        }
+        slicePoints[slices] = childDNA.length;
+
+        int lastSlot = 0;
+        for (int i = 0; i < slicePoints.length; i++) {
+            Trait[] selected = i % 2 == 0 ? male.getStrategy() : female
+                    .getStrategy();
+            System.arraycopy(selected, lastSlot, childDNA, lastSlot,
+                    slicePoints[i] - lastSlot);
+
+            lastSlot = slicePoints[i];
+        }
+
+        // System.out.println("Crosover Points: "+Arrays.toString(slicePoints));
+        // System.out.println("Male:   "+Arrays.toString(male.getStrategy()));
+        // System.out.println("Female: "+Arrays.toString(female.getStrategy()));
+        // System.out.println("Child:  "+Arrays.toString(childDNA));
+        return childDNA;
+    }
+
+    /**
+     * Mutates one locus of a player's strategy, if mutation is restricted to expressed loci and some have been expressed, one of those.
+     * @param p the player to mutate.
+     */
+    private void mutatePlayer(Player p) {
+        int[] loci = expressedMutation ? expression.expressedLoci() : null;
+        if (loci == null || loci.length == 0)
+            p.mutate();
+        else
+            p.mutate(loci[GAFrame.rnd.nextInt(loci.length)]);
+    }
+
+    /**
+     * Mutates each player with the passed probability.
+     * @param rate the chance of mutating each player.
+     * @return the number of players mutated.
+     */
+    private int mutate(double rate) {
+        int mutated = 0;
+        for (int i = 0; i < thePopulation.size(); i++) {
+            double rnd = GAFrame.rnd.nextDouble();
+            // if the rate is zero, mutation is effectively off
+            if (rate > rnd) {
+                Player p = thePopulation.get(i);
+                mutatePlayer(p);
+                Player replacement = newPlayer(p.getStrategy());
+                inherit(p, replacement);
+                thePopulation.set(i, replacement);
+                mutated++;
+            }
+        }
+        return mutated;
+    }
+
+    /**
+     * Called by GAFrame to start running games and generations.
+     * @param running true to set game/GA running, false to stop it
+     */
+    // Running status methods
+    public void setRunning(boolean running) {
+        control.setRunning(running);
+        if (game != null)
+            game.setRunning(running);
+        synchronized (tables) {
+            for (Table table : tables)
+                table.game.setRunning(running);
+        }
+    }
+
+    /**
+     * Called by GAFrame, instructs GA to run one generation.
+     * @param run boolean flag - no change if false
+     */
+    public void setRunGeneration(boolean run) {
+        if (run)
+            control.step(State.STEP_GENERATION);
+        if (game != null)
+            game.setRunning(run);
+        synchronized (tables) {
+            for (Table table : tables)
+                table.game.setRunning(run);
+        }
+    }
+
+    /**
+     * Called by GAFrame, instructs GA to run one game.
+     * @param run boolean flag - no change if false
+     */
+    public void setRunGame(boolean run) {
+        if (run)
+            control.step(State.STEP_GAME);
+        if (game != null)
+            game.setRunning(run);
+        synchronized (tables) {
+            for (Table table : tables)
+                table.game.setRunning(run);
+        }
+    }
+
+    /**
+     * Called by GAFrame, instructs GA to run one round.
+     * @param run boolean flag - no change if false
+     */
+    public void setRunRound(boolean run) {
+        if (run)
+            control.step(State.STEP_ROUND);
+        if (game != null)
+            game.runRound();
+        synchronized (tables) {
+            for (Table table : tables)
+                table.game.runRound();
+        }
+    }
+
+    /**
+     * Called by GAFrame, sets the GA's mutation rate.  Can only be called in between generations.
+     * @param mutate a percentage between 0 and 100
+     * @throws InvalidRequestException if the request is made in between generations or is out of the acceptable range
+     */
+    public void setMutationRate(double mutate) throws InvalidRequestException {
+        if (safeToInterrupt()) {
+            if (mutate > 100.0 || mutate < 0.0)
+                throw new InvalidRequestException(
+                        "Mutation requires a percentage between 0.0 and 100.0");
+            mutationRate = mutate / 100;
+        } else
+            throw new InvalidRequestException(
+                    "Cannot change mutation rate inbetween generations.");
+    }
+
+    /**
+     * Called by GAFrame, sets the GA's crossover type.  This can range from no crossover to single point crossover up to crossover at every point.
+     * If the crossover type is zero, no crossover will occur and clones of currently existing 'good' players will be made.
+     * @param cross the number of crossover points to use.
+     * @throws InvalidRequestException if the request is made in between generations or is out of the acceptable range
+     */
+    public void setCrossoverType(int cross) throws InvalidRequestException {
+        if (safeToInterrupt()) {
+            if (cross > playerBuilder.traitSize() || cross < 0)
                 throw new InvalidRequestException(
                         "Crossover requires an integer between 0 and "
                                 + playerBuilder.traitSize());
@@ -504,29 +1582,440 @@ public class GAController implements Runnable {
     }
 
     /**
-     * Sets the tournament style, if every player should play at least one game (false), or at least every player (true).
-     * This equates to population size number of games for false, or population size squared number of games for true.  This can be quite
+     * Sets the tournament style, if every player should play at least one game (SIMPLE), or at least every player (COMPLEX).
+     * This equates to population size number of games for SIMPLE, or population size squared number of games for COMPLEX.  This can be quite
      * expensive in terms of time, however is recommended for games where it is likely a good player could be still lose a game (that is to say
-     * games with a fair bit of chance involved).
-     * @param style false play simple round robin tournament, true play complex one.
+     * games with a fair bit of chance involved).  RACING plays the complex tournament, but stops playing players once it is clear whether
+     * they will survive, which usually selects the same survivors with a fraction of the games.
+     * @param style the {@link TournamentStyle} to play.
      * @throws InvalidRequestException if the request is made in between generations or is out of the acceptable range
      */
-    public void setTournamentStyle(boolean style)
+    public void setTournamentStyle(TournamentStyle style)
             throws InvalidRequestException {
         if (safeToInterrupt()) {
+            if (packedPopulation && style != TournamentStyle.SIMPLE && style != TournamentStyle.COMPLEX)
+                throw new InvalidRequestException(
+                        "A packed population can only play simple or complex tournaments.");
             this.tournamentStyle = style;
         } else
             throw new InvalidRequestException(
                     "Cannot change tournament style inbetween generations.");
     }
 
+    /**
+     * Sets the evolution mode.  In generational mode (false) the whole population plays a tournament, and is then pruned and refilled
+     * all at once.  In steady state mode (true) there is no generation barrier; each time a game finishes the worst player is replaced
+     * and a new game is started, so games of varying length don't leave processors idle waiting for the slowest game of the generation.
+     * @param steady false to run generations, true to run in steady state.
+     * @throws InvalidRequestException if the request is made in between generations
+     */
+    public void setSteadyState(boolean steady) throws InvalidRequestException {
+        if (safeToInterrupt()) {
+            if (packedPopulation && steady)
+                throw new InvalidRequestException(
+                        "A packed population cannot evolve in steady state.");
+            this.steadyState = steady;
+        } else
+            throw new InvalidRequestException(
+                    "Cannot change evolution mode inbetween generations.");
+    }
+
+    /**
+     * Enables or disables fitness memoization.  When enabled, the scores earned by each distinct strategy are remembered across
+     * generations, so players which survive or are cloned keep refining the same estimate rather than starting over.  Games where
+     * every player's estimate is already precise are skipped, so once the population converges far fewer games are played.
+     * @param memo true to memoize fitness, false to evaluate every player from scratch each generation.
+     * @throws InvalidRequestException if the request is made in between generations
+     */
+    public void setFitnessMemo(boolean memo) throws InvalidRequestException {
+        if (safeToInterrupt()) {
+            if (packedPopulation && memo)
+                throw new InvalidRequestException(
+                        "A packed population cannot memoize fitness.");
+            if (memo != (fitnessCache != null))
+                fitnessCache = memo ? new FitnessCache(gameSize) : null;
+        } else
+            throw new InvalidRequestException(
+                    "Cannot change fitness memoization inbetween generations.");
+    }
+
+    /**
+     * Sets whether players with exactly the same strategy may be in the population at once.  When duplicates are prevented, new
+     * strategies from crossover, refilling and mutation which are already in the population are mutated until they are unique, so
+     * every game is spent evaluating a distinct candidate.
+     * @param allow true to allow duplicate strategies, false to prevent them.
+     * @throws InvalidRequestException if the request is made in between generations
+     */
+    public void setAllowDuplicates(boolean allow) throws InvalidRequestException {
+        if (safeToInterrupt()) {
+            if (packedPopulation && !allow)
+                throw new InvalidRequestException(
+                        "A packed population always allows duplicate strategies.");
+            allowDuplicates = allow;
+        } else
+            throw new InvalidRequestException(
+                    "Cannot change duplicate strategies inbetween generations.");
+    }
+
+    /**
+     * Sets how the scores players earn are turned into a ranking for selection.  Skill ratings carry over between generations for as
+     * long as a strategy survives, and account for the strength of each player's opponents, so they rank players correctly even from
+     * the simple tournament's few games.
+     * @param model the new fitness model.
+     * @throws InvalidRequestException if the request is made in between generations
+     */
+    public void setFitnessModel(FitnessModel model) throws InvalidRequestException {
+        if (safeToInterrupt()) {
+            if (packedPopulation && model == FitnessModel.RATING)
+                throw new InvalidRequestException(
+                        "A packed population cannot be rated.");
+            if (model != fitnessModel) {
+                ratings = model == FitnessModel.RATING ? new SkillRatings() : null;
+                ratingLowIsBetter = null;
+            }
+            fitnessModel = model;
+        } else
+            throw new InvalidRequestException(
+                    "Cannot change the fitness model inbetween generations.");
+    }
+
+    /**
+     * Sets whether tournaments are played with duplicate deals.  Like duplicate bridge, each generation draws a shared set of deals,
+     * one per seat, and each table plays one of them with its players rotated through every seat, so fitness reflects strategy rather
+     * than the cards a player happened to be dealt.  Each table then plays one game per seat, but far fewer tables are needed to rank players
+     * with the same confidence.  The steady state GA always deals its games independently.
+     * @param duplicate true to play duplicate deals, false to deal every game independently.
+     * @throws InvalidRequestException if the request is made in between generations, or the game cannot be dealt from a seed
+     */
+    public void setDuplicateDeals(boolean duplicate) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change duplicate deals inbetween generations.");
+        if (duplicate && !dummyGame && !acceptsSettings())
+            throw new InvalidRequestException(gameClass.getSimpleName()
+                    + " does not support duplicate deals.");
+        duplicateDeals = duplicate;
+    }
+
+    /**
+     * Sets how many rounds every game is played for.  Games normally end once some condition is reached, such as a player's score,
+     * so how long they take varies a great deal between games.  Limiting every game to the same number of rounds gives each game a
+     * predictable cost, so each generation takes about the same time.
+     * @param limit the number of rounds to play, or 0 to play each game until it would normally end.
+     * @throws InvalidRequestException if the request is made in between generations, the limit is negative, or the game cannot be
+     * limited
+     */
+    public void setRoundLimit(int limit) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change the round limit inbetween generations.");
+        if (limit < 0)
+            throw new InvalidRequestException("The round limit cannot be negative.");
+        if (limit != GameSettings.NO_ROUND_LIMIT && !dummyGame && !acceptsSettings())
+            throw new InvalidRequestException(gameClass.getSimpleName()
+                    + " does not support a round limit.");
+        roundLimit = limit;
+    }
+
+    /**
+     * Sets whether each game plays several of its rounds at once.  This makes one long game finish sooner, at the cost of leaving less
+     * processor time for other games, so it is most useful when few games are played at a time.
+     * @param parallel true to play rounds in parallel, false to play them one at a time.
+     * @throws InvalidRequestException if the request is made in between generations, or the game does not accept settings
+     */
+    public void setParallelRounds(boolean parallel) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change parallel rounds inbetween generations.");
+        if (parallel && !dummyGame && !acceptsSettings())
+            throw new InvalidRequestException(gameClass.getSimpleName()
+                    + " does not support parallel rounds.");
+        parallelRounds = parallel;
+    }
+
+    /**
+     * Sets whether the time spent in each phase of play is measured and reported at the end of every generation.  Unlike the other
+     * settings this can be changed at any time, as it does not change how the GA runs, though the generation in progress when timing
+     * is turned on is only partly timed.
+     * @param timing true to time the phases of play.
+     */
+    public void setPhaseTiming(boolean timing) {
+        if (timing && !PhaseTimer.isEnabled())
+            phaseTotals = PhaseTimer.snapshot();
+        PhaseTimer.setEnabled(timing);
+    }
+
+    /**
+     * Sets whether mutation only changes loci which have been expressed in play.  Loci which are never expressed cannot affect a
+     * player's fitness, so this spends all the mutation on loci that may.  Until players have recorded any expression, and for games
+     * whose players do not record it, mutation may change any locus.
+     * @param expressed true to only mutate expressed loci, false to mutate any locus.
+     * @throws InvalidRequestException if the request is made in between generations
+     */
+    public void setExpressedMutation(boolean expressed) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change mutation loci inbetween generations.");
+        expressedMutation = expressed;
+    }
+
+    /**
+     * Sets whether the population is packed off the heap, so much larger populations fit in memory.  A packed population holds one
+     * byte per locus and its fitness for each individual, and only builds players for the tables being played.  It evolves
+     * generationally with a simple or complex tournament, and allows duplicates without memoizing fitness or rating players, so the
+     * setting cannot be combined with the others.  The population is packed or unpacked at the start of the next generation.
+     * @param pack true to pack the population, false to keep it as players.
+     * @throws InvalidRequestException if the request is made in between generations, or conflicts with another setting
+     */
+    public void setPackedPopulation(boolean pack) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change population packing inbetween generations.");
+        if (pack && (steadyState || fitnessCache != null || ratings != null || !allowDuplicates
+                || (tournamentStyle != TournamentStyle.SIMPLE && tournamentStyle != TournamentStyle.COMPLEX)))
+            throw new InvalidRequestException(
+                    "A packed population needs generational evolution with a simple or complex tournament, duplicates allowed, "
+                            + "and no fitness memoization or ratings.");
+        packedPopulation = pack;
+    }
+
+    /**
+     * Starts or stops journaling every generation to a directory, which {@link gengames.journal.JournalReader JournalReader} can read
+     * any generation back from.  Each generation's population is journaled once its games are over, with each player's genome,
+     * fitness and the indexes of its parents in the previous journaled generation.  An existing journal is appended to.
+     * @param dir the journal's directory, or null to stop journaling.
+     * @throws InvalidRequestException if the request is made in between generations, or the journal cannot be opened.
+     */
+    public void setGenerationJournal(File dir) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change the generation journal inbetween generations.");
+        if (dir != null && journal != null && dir.equals(journal.getDirectory()))
+            return;
+        closeJournal();
+        if (dir == null)
+            return;
+        try {
+            journal = new GenerationJournal(dir, builder().genPlayer().getStrategy());
+        } catch (IOException e) {
+            throw new InvalidRequestException("Cannot journal generations to " + dir + ": " + e.getMessage());
+        }
+        journaled = new IdentityHashMap<>();
+        lineage = new IdentityHashMap<>();
+    }
+
+    /**
+     * Starts or stops recording every game played to a file, which games that support recording append a compact record of
+     * themselves to when they end, such as a {@link gengames.hearts.HeartsGameRecord HeartsGameRecord} which can be replayed exactly.
+     * An existing file is appended to.
+     * @param file the file to record games to, or null to stop recording.
+     * @throws InvalidRequestException if the request is made in between generations, or the file cannot be opened.
+     */
+    public void setGameRecords(File file) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change the game records inbetween generations.");
+        if (file != null && batchGames)
+            throw new InvalidRequestException("Batched games cannot be recorded.");
+        if (file != null && gameRecords != null && file.equals(gameRecords.getFile()))
+            return;
+        if (gameRecords != null) {
+            try {
+                gameRecords.close();
+            } catch (IOException e) {
+                output.append("The game records could not be closed: " + e.getMessage() + "\n");
+            }
+            gameRecords = null;
+        }
+        if (file == null)
+            return;
+        try {
+            gameRecords = new GameRecordLog(file);
+        } catch (IOException e) {
+            throw new InvalidRequestException("Cannot record games to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sets whether a tournament's tables are played in batches, many games at once without a controller for each, for games which
+     * support it, such as hearts.  Batched games score exactly as their controllers do, but write no game output and cannot be
+     * recorded, and stepping through a game or round plays a whole batch.  The steady state GA always plays each game with its own
+     * controller.
+     * @param batched true to play tables in batches.
+     * @throws InvalidRequestException if the request is made in between generations, the game or players cannot be batched, or games
+     *             are being recorded
+     */
+    public void setBatchGames(boolean batched) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change batched games inbetween generations.");
+        if (batched && (batch == null || dummyPlayer) && !dummyGame)
+            throw new InvalidRequestException(gameClass.getSimpleName()
+                    + " cannot play games in batches" + (dummyPlayer ? " between dummy players." : "."));
+        if (batched && gameRecords != null)
+            throw new InvalidRequestException("Batched games cannot be recorded.");
+        batchGames = batched;
+    }
+
+    /**
+     * Sets whether games run on virtual threads, which the JVM schedules onto a carrier thread per core, rather than each on its own
+     * platform thread.  A game sleeping while paused, or waiting for its turn, then gives up its carrier to other games, so many
+     * thousands of games can be in flight at once.  Only games which create their thread with GameController.newGameThread(), such
+     * as hearts, run on virtual threads, games creating their own threads stay on platform threads.  Virtual threads need Java 21 or
+     * later.
+     * @param virtual true to run games on virtual threads.
+     * @throws InvalidRequestException if the request is made in between generations, or this JVM cannot create virtual threads.
+     */
+    public void setVirtualThreads(boolean virtual) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change game threads inbetween generations.");
+        if (virtual && !GameController.virtualThreadsAvailable())
+            throw new InvalidRequestException("Virtual threads need Java 21 or later, this is Java "
+                    + System.getProperty("java.version") + ".");
+        GameController.setVirtualThreads(virtual);
+    }
+
+    /**
+     * Starts or stops logging the GA's output, and every game's, to compressed files in a directory.  Game output is then only
+     * logged, since building it up in the game output area is far slower than playing the games, while GA output is shown as well.
+     * Each log moves to a new file every few generations, as set by setLogRotation, and whenever its file reaches the size set by
+     * setLogSize.  Files already in the directory are kept, the logs are numbered on after them.
+     * @param dir the directory to log to, or null to stop logging.
+     * @throws InvalidRequestException if the request is made in between generations, or the directory cannot be created.
+     */
+    public void setOutputLog(File dir) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change the output log inbetween generations.");
+        if (dir != null && gaLog != null && dir.equals(gaLog.getDirectory()))
+            return;
+        closeOutputLogs();
+        if (dir == null)
+            return;
+        try {
+            gameLog = new CompressedLog(dir, "games", logBytes());
+            gaLog = new CompressedLog(dir, "ga", logBytes());
+        } catch (IOException e) {
+            gameLog = null;
+            throw new InvalidRequestException("Cannot log output to " + dir + ": " + e.getMessage());
+        }
+        gameOutput.setText("Game output is being logged to " + dir + "\n");
+        gameDisplay = gameOutput;
+        gameOutput = new LoggedTextArea(null, gameLog);
+        output = new LoggedTextArea(output, gaLog);
+    }
+
+    /**
+     * Sets how many generations each output log file holds, before the logs move to new files.
+     * @param generations the number of generations.
+     * @throws InvalidRequestException if the request is made in between generations, or the number is not positive.
+     */
+    public void setLogRotation(int generations) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change log rotation inbetween generations.");
+        if (generations < 1)
+            throw new InvalidRequestException("Logs must hold at least one generation per file.");
+        logRotation = generations;
+    }
+
+    /**
+     * Sets the size an output log file may reach before the log moves to a new file, even part way through a generation.
+     * @param megabytes the size of a file, compressed, in megabytes.
+     * @throws InvalidRequestException if the request is made in between generations, or the size is not positive.
+     */
+    public void setLogSize(int megabytes) throws InvalidRequestException {
+        if (!safeToInterrupt())
+            throw new InvalidRequestException(
+                    "Cannot change log size inbetween generations.");
+        if (megabytes < 1)
+            throw new InvalidRequestException("Log files must be allowed at least a megabyte.");
+        logSize = megabytes;
+        if (gaLog != null) {
+            gameLog.setMaxBytes(logBytes());
+            gaLog.setMaxBytes(logBytes());
+        }
+    }
+
+    private long logBytes() {
+        return logSize * (1L << 20);
+    }
+
+    /**
+     * Moves the output logs to new files if this generation ends their rotation, or stops logging if they could not be written.
+     */
+    private void rotateOutputLogs() {
+        IOException failure = gameLog.getFailure() != null ? gameLog.getFailure() : gaLog.getFailure();
+        if (failure != null) {
+            closeOutputLogs();
+            output.append("Stopped logging output, which could not be written: " + failure.getMessage() + "\n");
+        } else if (generations % logRotation == 0) {
+            gameLog.rotate();
+            gaLog.rotate();
+        }
+    }
+
+    private void closeOutputLogs() {
+        if (gaLog == null)
+            return;
+        gameOutput = gameDisplay;
+        output = ((LoggedTextArea) output).getDisplay();
+        for (CompressedLog log : new CompressedLog[] { gameLog, gaLog }) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                output.append("An output log could not be closed: " + e.getMessage() + "\n");
+            }
+        }
+        gameLog = null;
+        gaLog = null;
+        gameDisplay = null;
+    }
+
+    /**
+     * Starts or stops periodically writing the GA's throughput and latency metrics to a file, which works without a display.  Like
+     * phase timing this can be changed at any time.
+     * @param file the file to append metrics to every METRICS_LOG_PERIOD seconds, or null to stop writing them.
+     * @throws InvalidRequestException if the file cannot be written to.
+     */
+    public void setMetricsLog(File file) throws InvalidRequestException {
+        if (metricsLog != null) {
+            metricsLog.stop();
+            metricsLog = null;
+        }
+        if (file == null)
+            return;
+        try {
+            metricsLog = new MetricsSnapshotWriter(file, METRICS_LOG_PERIOD);
+        } catch (IOException e) {
+            throw new InvalidRequestException("Cannot write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return true if the game has the optional constructor taking GameSettings.
+     */
+    private boolean acceptsSettings() {
+        try {
+            gameClass.getConstructor(Player[].class, JTextArea.class, boolean.class, GameSettings.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     /**
      * Instructs the GA controller it should interrupt any running games and terminate its thread.
      */
     public void interrupt() {
-        running = false;
+        control.interrupt();
         if (game != null)
             game.interrupt();
+        synchronized (tables) {
+            for (Table table : tables)
+                table.game.interrupt();
+        }
 
         if (!safeToInterrupt()) {
             output.append("\n\nGA INTERRUPTED!");
@@ -538,7 +2027,14 @@ public class GAController implements Runnable {
      * @return true if the GA controller is in a stable state and can be safely interrupted.
      */
     public boolean safeToInterrupt() {
-        return !(running || runGen) && (game == null || game.gameOver());
+        synchronized (tables) {
+            for (Table table : tables) {
+                if (!table.game.gameOver())
+                    return false;
+            }
+        }
+        State state = control.get();
+        return state != State.RUNNING && state != State.STEP_GENERATION && (game == null || game.gameOver());
     }
 
     /**
@@ -572,7 +2068,163 @@ public class GAController implements Runnable {
     /**
      * @return the current tournament style
      */
-    public boolean getTournamentStyle() {
+    public TournamentStyle getTournamentStyle() {
         return tournamentStyle;
     }
+
+    /**
+     * @return true if the GA runs in steady state, false if it runs generations
+     */
+    public boolean getSteadyState() {
+        return steadyState;
+    }
+
+    /**
+     * @return true if fitness is memoized across generations
+     */
+    public boolean getFitnessMemo() {
+        return fitnessCache != null;
+    }
+
+    /**
+     * @return true if players with identical strategies are allowed in the population
+     */
+    public boolean getAllowDuplicates() {
+        return allowDuplicates;
+    }
+
+    /**
+     * @return the number of rounds every game is played for, or 0 if games are played until they would normally end
+     */
+    public int getRoundLimit() {
+        return roundLimit;
+    }
+
+    /**
+     * @return true if the phases of play are being timed
+     */
+    public boolean getPhaseTiming() {
+        return PhaseTimer.isEnabled();
+    }
+
+    /**
+     * @return true if mutation only changes loci which have been expressed in play
+     */
+    public boolean getExpressedMutation() {
+        return expressedMutation;
+    }
+
+    /**
+     * @return true if the population is, or at the start of the next generation will be, packed off the heap
+     */
+    public boolean getPackedPopulation() {
+        return packedPopulation;
+    }
+
+    /**
+     * @return how often each locus was expressed in play during the last generation, or null if players do not record it
+     */
+    public long[] getLocusExpression() {
+        return lastExpression == null ? null : lastExpression.clone();
+    }
+
+    /**
+     * @return the directory generations are being journaled to, or null if they are not
+     */
+    public File getGenerationJournal() {
+        return journal == null ? null : journal.getDirectory();
+    }
+
+    /**
+     * @return the file games are being recorded to, or null if they are not
+     */
+    public File getGameRecords() {
+        return gameRecords == null ? null : gameRecords.getFile();
+    }
+
+    /**
+     * @return true if tables are played in batches, for games which support it
+     */
+    public boolean getBatchGames() {
+        return batchGames;
+    }
+
+    /**
+     * @return true if games run on virtual threads
+     */
+    public boolean getVirtualThreads() {
+        return GameController.getVirtualThreads();
+    }
+
+    /**
+     * @return the directory output is being logged to, or null if it is not
+     */
+    public File getOutputLog() {
+        return gaLog == null ? null : gaLog.getDirectory();
+    }
+
+    /**
+     * @return how many generations each output log file holds
+     */
+    public int getLogRotation() {
+        return logRotation;
+    }
+
+    /**
+     * @return the size, in megabytes, an output log file may reach
+     */
+    public int getLogSize() {
+        return logSize;
+    }
+
+    /**
+     * @return the file metrics are being written to, or null if they are not
+     */
+    public File getMetricsLog() {
+        return metricsLog == null ? null : metricsLog.getFile();
+    }
+
+    /**
+     * @return the time spent in each phase of play during the last generation, or null if it was not timed
+     */
+    public PhaseSnapshot getLastPhaseTimes() {
+        return lastPhaseTimes;
+    }
+
+    /**
+     * @return true if each game plays several of its rounds at once
+     */
+    public boolean getParallelRounds() {
+        return parallelRounds;
+    }
+
+    /**
+     * @return the current fitness model
+     */
+    public FitnessModel getFitnessModel() {
+        return fitnessModel;
+    }
+
+    /**
+     * @return true if tournaments are played with duplicate deals
+     */
+    public boolean getDuplicateDeals() {
+        return duplicateDeals;
+    }
+
+    /**
+     * A game in progress in steady state mode, and the players seated at it.
+     */
+    private static class Table {
+        private final Player[] players;
+        private final long[] start;
+        private final GameController game;
+        private final long started = System.nanoTime();
+
+        private Table(Player[] ps, long[] s, GameController g) {
+            players = ps;
+            start = s;
+            game = g;
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package gengames.ga;
+
+import java.util.Arrays;
+
+import gengames.Trait;
+
+/**
+ * Identifies a strategy by the Traits it contains, rather than by the Player (or array) holding it, so identical strategies can share
+ * data.  Traits are compared with equals(), which for the suggested enum Traits is identity.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */final class GenomeKey {
+    private final Trait[] genome;
+    private final int hash;
+
+    /**
+     * Constructs a key for the passed strategy.  The array is not copied, which is safe to store as a player's strategy is never
+     * changed in place once it has been built: Player.mutate() copies the strategy before changing it.
+     * @param str the strategy to identify.
+     */
+    GenomeKey(Trait[] str) {
+        genome = str;
+        hash = Arrays.hashCode(str);
+    }
+
+    /**
+     * @return the strategy this key identifies.
+     */
+    Trait[] genome() {
+        return genome;
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GenomeKey))
+            return false;
+        GenomeKey that = (GenomeKey) o;
+        return hash == that.hash && Arrays.equals(genome, that.genome);
+    }
+}
@@ -0,0 +1,103 @@
+package gengames.ga;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import gengames.Player;
+import gengames.Trait;
+
+/**
+ * Interns the strategies in the population, so identical strategies are represented by one canonical array.  Crossover between
+ * similar parents and refilling the population with clones both produce many duplicates; interning them lets duplicates be counted,
+ * detected and evaluated together cheaply.  Canonical arrays must never be changed, which Player.mutate() respects by copying first.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */class GenomePool {
+    private final Map<GenomeKey, Trait[]> canonical = new HashMap<>();
+
+    /**
+     * Returns the canonical array for a strategy, making the passed array canonical if the strategy is new.
+     * @param str the strategy to intern, which must not be changed afterwards.
+     * @return an array identical to <tt>str</tt> shared by every player with this strategy.
+     */
+    Trait[] intern(Trait[] str) {
+        GenomeKey key = new GenomeKey(str);
+        Trait[] ret = canonical.get(key);
+        if (ret == null) {
+            canonical.put(key, str);
+            ret = str;
+        }
+        return ret;
+    }
+
+    /**
+     * @param str a strategy.
+     * @return true if an identical strategy has been interned and not since forgotten.
+     */
+    boolean contains(Trait[] str) {
+        return canonical.containsKey(new GenomeKey(str));
+    }
+
+    /**
+     * Forgets every strategy not present in the population.
+     * @param population the current population.
+     */
+    void retain(List<Player> population) {
+        Set<GenomeKey> keep = new HashSet<>();
+        for (Player p : population) {
+            keep.add(new GenomeKey(p.getStrategy()));
+        }
+        for (GenomeKey key : new ArrayList<>(canonical.keySet())) {
+            if (!keep.contains(key))
+                canonical.remove(key);
+        }
+    }
+
+    /**
+     * Counts the distinct strategies among the players.
+     * @param players the players to count.
+     * @return the number of unique strategies.
+     */
+    static int unique(List<Player> players) {
+        Set<GenomeKey> keys = new HashSet<>();
+        for (Player p : players) {
+            keys.add(new GenomeKey(p.getStrategy()));
+        }
+        return keys.size();
+    }
+
+    /**
+     * Constructs a comparator ranking players by the average score of every player sharing their strategy, best player first, so
+     * duplicates are judged on all their games together.
+     * @param players the players which will be compared.
+     * @return a comparator for the players.
+     */
+    static AverageFitnessComparator pooledRanking(List<Player> players) {
+        final Map<Trait[], long[]> pooled = new IdentityHashMap<>();
+        for (Player p : players) {
+            long[] totals = pooled.get(p.getStrategy());
+            if (totals == null) {
+                totals = new long[2];
+                pooled.put(p.getStrategy(), totals);
+            }
+            totals[0] += p.fitness();
+            totals[1] += p.gamesPlayed();
+        }
+        Boolean low = AverageFitnessComparator.lowIsBetter(players);
+        return new AverageFitnessComparator(low == null || low) {
+            @Override
+            double average(Player p) {
+                long[] totals = pooled.get(p.getStrategy());
+                if (totals == null || totals[1] == 0)
+                    return p.averageFitness();
+                return (double) totals[0] / totals[1];
+            }
+        };
+    }
+}
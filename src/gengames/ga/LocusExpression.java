@@ -0,0 +1,108 @@
+package gengames.ga;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import gengames.Player;
+
+/**
+ * Counts how often each locus of the players' strategies is expressed, that is consulted to make a choice in play, using the counts
+ * players record with {@link gengames.Player#express(int) Player.express()}.  Loci which are never expressed cannot affect fitness, so
+ * mutating them is wasted effort.  Counts are kept for the current generation and in total since the GA started.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */class LocusExpression {
+    /** How many of the most expressed loci are reported. */
+    private static final int HOT_LOCI = 5;
+
+    private long[] generation;
+    private long[] total;
+
+    /**
+     * Collects the expression counted by the players in a finished game.
+     * @param ps the players.
+     */
+    void record(Player[] ps) {
+        for (Player p : ps) {
+            if (generation == null) {
+                generation = new long[p.traitSize()];
+                total = new long[p.traitSize()];
+            }
+            p.drainExpression(generation);
+        }
+    }
+
+    /**
+     * Ends the generation, adding its counts to the total and starting the next generation's counts from zero.
+     * @return the number of times each locus was expressed during the generation, or null if no player recorded any.
+     */
+    long[] finishGeneration() {
+        if (generation == null)
+            return null;
+        long[] counts = generation.clone();
+        for (int i = 0; i < generation.length; i++) {
+            total[i] += generation[i];
+            generation[i] = 0;
+        }
+        return counts;
+    }
+
+    /**
+     * @return the loci expressed at least once since the GA started, or an empty array if none have been counted.
+     */
+    int[] expressedLoci() {
+        if (total == null)
+            return new int[0];
+        int[] loci = new int[total.length];
+        int n = 0;
+        for (int i = 0; i < total.length; i++) {
+            if (total[i] > 0 || generation[i] > 0)
+                loci[n++] = i;
+        }
+        return Arrays.copyOf(loci, n);
+    }
+
+    /**
+     * Describes a generation's counts, the loci never yet expressed and the most expressed loci with their share of all expression.
+     * @param counts the generation's counts, from finishGeneration().
+     * @param sample a player, to name the loci.
+     * @return the report.
+     */
+    String report(long[] counts, Player sample) {
+        long sum = 0;
+        int live = 0;
+        for (long c : counts) {
+            sum += c;
+            if (c > 0)
+                live++;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(live + " of " + counts.length + " loci were expressed this generation\n");
+        List<String> dead = new ArrayList<>();
+        for (int i = 0; i < total.length; i++) {
+            if (total[i] == 0)
+                dead.add(sample.locusName(i));
+        }
+        if (!dead.isEmpty())
+            sb.append("Never expressed: " + dead + "\n");
+        Integer[] order = new Integer[counts.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        final long[] c = counts;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer one, Integer two) {
+                return Long.compare(c[two], c[one]);
+            }
+        });
+        sb.append("Most expressed:");
+        for (int i = 0; i < HOT_LOCI && i < order.length && counts[order[i]] > 0; i++) {
+            sb.append(String.format(" %s %.1f%%", sample.locusName(order[i]), 100.0 * counts[order[i]] / sum));
+        }
+        return sb.append("\n").toString();
+    }
+}
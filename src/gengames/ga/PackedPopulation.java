@@ -0,0 +1,395 @@
+package gengames.ga;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import gengames.GAFrame;
+import gengames.GenGameImplementationException;
+import gengames.Player;
+import gengames.PlayerBuilder;
+import gengames.Trait;
+import gengames.journal.GenerationJournal;
+
+/**
+ * Stores a population off the heap, as packed records in a direct buffer, so a GA of millions of individuals costs a few dozen bytes
+ * each rather than a Player, its strategy array and their headers.  Each record holds one byte per locus, the ordinal of its Trait,
+ * followed by the individual's total fitness, games played, and the indexes of its parents, for the generation journal.  Players are
+ * only materialised from a record while it is seated at a table, and selection, crossover and mutation all work on the records
+ * directly.
+ * <p>A parent index refers to the individual's parent in the population as it was before the last time it was pruned, which is the
+ * order it was last journaled in.  A survivor's first parent is itself, a copy's is what it was copied from, and a child of crossover
+ * has both its parents.  -1 marks no parent.</p>
+ * <p>Packing requires every locus to be an enum Trait with at most 256 constants, as the Traits of the included games are.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */class PackedPopulation {
+    private static final int FITNESS = 0;
+    private static final int GAMES = 8;
+    private static final int PARENT = 12;
+    private static final int OTHER_PARENT = 16;
+    private static final int SCORE_SIZE = 20;
+
+    /** The Traits each locus may hold, indexed by ordinal. */
+    private final Trait[][] alleles;
+    private final int loci;
+    /** The offset of the score within a record, the genome rounded up so the score is aligned. */
+    private final int scoreOffset;
+    private final int recordSize;
+    private ByteBuffer records;
+    private int size;
+
+    /**
+     * Creates an empty population.
+     * @param sample a strategy of the players to store, whose Traits decide what each locus may hold.
+     * @param capacity how many individuals to allocate room for, the store grows as needed.
+     * @throws GenGameImplementationException if the strategy's Traits cannot be packed.
+     */
+    PackedPopulation(Trait[] sample, int capacity) {
+        loci = sample.length;
+        alleles = new Trait[loci][];
+        for (int i = 0; i < loci; i++) {
+            if (!(sample[i] instanceof Enum))
+                throw new GenGameImplementationException("Only enum Traits can be packed, locus " + i + " is a "
+                        + sample[i].getClass().getName() + ".");
+            Trait[] constants = (Trait[]) ((Enum<?>) sample[i]).getDeclaringClass().getEnumConstants();
+            if (constants.length > 256)
+                throw new GenGameImplementationException("Locus " + i + " has more than 256 Traits to pack into a byte.");
+            alleles[i] = constants;
+        }
+        scoreOffset = (loci + 7) & ~7;
+        recordSize = (scoreOffset + SCORE_SIZE + 7) & ~7;
+        records = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE / recordSize * recordSize,
+                (long) Math.max(1, capacity) * recordSize));
+    }
+
+    /**
+     * Packs a population of players, keeping their fitness.
+     * @param population the players, at least one.
+     * @return the packed population.
+     */
+    static PackedPopulation pack(List<Player> population) {
+        PackedPopulation packed = new PackedPopulation(population.get(0).getStrategy(), population.size());
+        for (Player p : population) {
+            int i = packed.add(p.getStrategy());
+            packed.addScore(i, p.fitness(), p.gamesPlayed());
+        }
+        return packed;
+    }
+
+    /**
+     * @return the number of individuals.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes used by each individual.
+     */
+    int recordSize() {
+        return recordSize;
+    }
+
+    /**
+     * @return the number of bytes allocated off the heap.
+     */
+    long allocated() {
+        return records.capacity();
+    }
+
+    /**
+     * Adds an individual with no fitness.
+     * @param genome its strategy.
+     * @return its index.
+     */
+    int add(Trait[] genome) {
+        int i = append();
+        int base = i * recordSize;
+        for (int locus = 0; locus < loci; locus++) {
+            records.put(base + locus, (byte) ordinal(locus, genome[locus]));
+        }
+        setParents(i, -1, -1);
+        return i;
+    }
+
+    /**
+     * Decodes an individual's strategy.
+     * @param i the individual's index.
+     * @return a new array holding its strategy.
+     */
+    Trait[] genome(int i) {
+        Trait[] genome = new Trait[loci];
+        int base = i * recordSize;
+        for (int locus = 0; locus < loci; locus++) {
+            genome[locus] = alleles[locus][records.get(base + locus) & 0xFF];
+        }
+        return genome;
+    }
+
+    /**
+     * Builds a player for an individual, to be seated at a table.  The player starts with no fitness, what it scores should be added
+     * back with {@link #addScore(int, long, int)} once it is done playing.
+     * @param i the individual's index.
+     * @param builder builds the player.
+     * @return a new player with the individual's strategy.
+     */
+    Player materialise(int i, PlayerBuilder builder) {
+        return builder.genPlayer(genome(i));
+    }
+
+    /**
+     * Adds to an individual's fitness.
+     * @param i the individual's index.
+     * @param fitness the fitness to add.
+     * @param games the number of games it was earned in.
+     */
+    void addScore(int i, long fitness, int games) {
+        int score = i * recordSize + scoreOffset;
+        records.putLong(score + FITNESS, records.getLong(score + FITNESS) + fitness);
+        records.putInt(score + GAMES, records.getInt(score + GAMES) + games);
+    }
+
+    /**
+     * @param i the individual's index.
+     * @return its total fitness.
+     */
+    long fitness(int i) {
+        return records.getLong(i * recordSize + scoreOffset + FITNESS);
+    }
+
+    /**
+     * @param i the individual's index.
+     * @return the number of games it has played.
+     */
+    int games(int i) {
+        return records.getInt(i * recordSize + scoreOffset + GAMES);
+    }
+
+    /**
+     * @param i the individual's index.
+     * @return its average fitness, 0 if it has not played.
+     */
+    double average(int i) {
+        int games = games(i);
+        return games == 0 ? 0 : (double) fitness(i) / games;
+    }
+
+    /**
+     * Sets the indexes of an individual's parents.
+     * @param i the individual's index.
+     * @param parent its first parent, or -1.
+     * @param otherParent its second parent, or -1.
+     */
+    void setParents(int i, int parent, int otherParent) {
+        int score = i * recordSize + scoreOffset;
+        records.putInt(score + PARENT, parent);
+        records.putInt(score + OTHER_PARENT, otherParent);
+    }
+
+    /**
+     * @param i the individual's index.
+     * @return its first parent, or -1.
+     */
+    int parent(int i) {
+        return records.getInt(i * recordSize + scoreOffset + PARENT);
+    }
+
+    /**
+     * @param i the individual's index.
+     * @return its second parent, or -1.
+     */
+    int otherParent(int i) {
+        return records.getInt(i * recordSize + scoreOffset + OTHER_PARENT);
+    }
+
+    /**
+     * Writes the population to the generation journal, in its current order.
+     * @param entry the journal's entry for this generation.
+     */
+    void journal(GenerationJournal.Entry entry) {
+        for (int i = 0; i < size; i++) {
+            entry.add(records, i * recordSize, fitness(i), games(i), parent(i), otherParent(i));
+        }
+    }
+
+    /**
+     * Resets every individual's fitness.
+     */
+    void clearFitness() {
+        for (int i = 0; i < size; i++) {
+            int score = i * recordSize + scoreOffset;
+            records.putLong(score + FITNESS, 0);
+            records.putInt(score + GAMES, 0);
+        }
+    }
+
+    /**
+     * Ranks the individuals by their average fitness without boxing them, by sorting each average, truncated to a float, together with
+     * its index in one long.  Ties, including averages too close for a float to tell apart, go to the lower index.
+     * @param lowIsBetter true if lower fitness is better.
+     * @return every index, best individual first.
+     */
+    int[] ranking(boolean lowIsBetter) {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            float average = (float) average(i);
+            if (!lowIsBetter)
+                average = -average;
+            int bits = Float.floatToIntBits(average + 0.0f);
+            // flip negative floats so their bits sort in the same order as their values
+            bits ^= (bits >> 31) & 0x7FFFFFFF;
+            keys[i] = (long) bits << 32 | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * Keeps only the individuals at the front of an ordering, moving them to the front of the store in that order.  Each survivor's
+     * parent becomes its own index before pruning.
+     * @param order indexes of the individuals, best first.
+     * @param count how many to keep.
+     */
+    void retain(int[] order, int count) {
+        count = Math.min(count, size);
+        ByteBuffer kept = ByteBuffer.allocateDirect(records.capacity());
+        for (int i = 0; i < count; i++) {
+            copyRecord(records, order[i], kept, i);
+        }
+        records = kept;
+        size = count;
+        for (int i = 0; i < count; i++) {
+            setParents(i, order[i], -1);
+        }
+    }
+
+    /**
+     * Adds a copy of an individual, with no fitness.
+     * @param i the individual to copy.
+     * @return the copy's index.
+     */
+    int copy(int i) {
+        int child = append();
+        copyGenome(i, child, 0, loci);
+        setParents(child, parent(i), -1);
+        return child;
+    }
+
+    /**
+     * Adds the child of two individuals, alternating between their genomes at <tt>slices</tt> random points, as GAController's
+     * crossover does.
+     * @param male the first parent.
+     * @param female the second parent.
+     * @param slices the number of crossover points.
+     * @return the child's index.
+     */
+    int breed(int male, int female, int slices) {
+        int child = append();
+        int crossoverRange = loci / slices;
+        int lastSlot = 0;
+        for (int i = 0; i <= slices; i++) {
+            int point = i < slices ? i * crossoverRange + GAFrame.rnd.nextInt(crossoverRange) : loci;
+            copyGenome(i % 2 == 0 ? male : female, child, lastSlot, point - lastSlot);
+            lastSlot = point;
+        }
+        setParents(child, parent(male), parent(female));
+        return child;
+    }
+
+    /**
+     * Mutates the Trait at one locus of an individual.
+     * @param i the individual.
+     * @param locus the locus to mutate.
+     */
+    void mutate(int i, int locus) {
+        int at = i * recordSize + locus;
+        Trait mutated = alleles[locus][records.get(at) & 0xFF].mutate();
+        records.put(at, (byte) ordinal(locus, mutated));
+    }
+
+    /**
+     * @return the number of loci in each genome.
+     */
+    int loci() {
+        return loci;
+    }
+
+    /**
+     * Counts the distinct genomes in the population by sorting a 64 bit hash of each, which costs 8 bytes per individual rather than a
+     * copy of every genome.  Two genomes whose hashes collide are counted as one, which at a population of millions is still unlikely.
+     * @return the number of unique strategies.
+     */
+    int unique() {
+        long[] hashes = new long[size];
+        for (int i = 0; i < size; i++) {
+            long hash = 0xcbf29ce484222325L;
+            int base = i * recordSize;
+            for (int locus = 0; locus < loci; locus++) {
+                hash = (hash ^ (records.get(base + locus) & 0xFF)) * 0x100000001b3L;
+            }
+            hashes[i] = hash;
+        }
+        Arrays.sort(hashes);
+        int unique = size == 0 ? 0 : 1;
+        for (int i = 1; i < size; i++) {
+            if (hashes[i] != hashes[i - 1])
+                unique++;
+        }
+        return unique;
+    }
+
+    private int ordinal(int locus, Trait trait) {
+        int ordinal = ((Enum<?>) trait).ordinal();
+        if (ordinal >= alleles[locus].length || alleles[locus][ordinal] != trait)
+            throw new GenGameImplementationException("Locus " + locus + " holds " + trait + ", which is not one of "
+                    + Arrays.toString(alleles[locus]) + ".");
+        return ordinal;
+    }
+
+    /**
+     * Makes room for one more record, zeroed, growing the buffer if it is full.
+     * @return the new record's index.
+     */
+    private int append() {
+        long needed = (long) (size + 1) * recordSize;
+        if (needed > records.capacity()) {
+            if (needed > Integer.MAX_VALUE)
+                throw new RuntimeException("A packed population can hold at most " + Integer.MAX_VALUE / recordSize
+                        + " individuals.");
+            long doubled = Math.min(Integer.MAX_VALUE / recordSize * recordSize, 2L * records.capacity());
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.max(doubled, needed));
+            for (int i = 0; i < size; i++) {
+                copyRecord(records, i, grown, i);
+            }
+            records = grown;
+        }
+        int i = size++;
+        int base = i * recordSize;
+        for (int b = 0; b < recordSize; b += 8) {
+            records.putLong(base + b, 0);
+        }
+        return i;
+    }
+
+    private void copyGenome(int from, int to, int start, int length) {
+        int source = from * recordSize + start;
+        int target = to * recordSize + start;
+        for (int b = 0; b < length; b++) {
+            records.put(target + b, records.get(source + b));
+        }
+    }
+
+    private void copyRecord(ByteBuffer from, int i, ByteBuffer to, int j) {
+        int source = i * recordSize;
+        int target = j * recordSize;
+        for (int b = 0; b < recordSize; b += 8) {
+            to.putLong(target + b, from.getLong(source + b));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package gengames.ga;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import gengames.Player;
+
+/**
+ * Tracks a racing tournament, which plays games in rounds and after each round decides which players are statistically certain to be
+ * above or below the mating pool cutoff, using Hoeffding style bounds on each player's average score.  Decided players stop playing, so
+ * the remaining games are concentrated on the players whose survival is still in question.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ * @see TournamentStyle#RACING
+ */
+/* package */class Race {
+    /** The chance that any decision made during the race is wrong. */
+    private static final double CONFIDENCE = .05;
+
+    private final List<Player> players;
+    private final List<Player> undecided;
+    private final Map<Player, FitnessStats> stats = new IdentityHashMap<>();
+    private final int survivors;
+    private final int maxRounds;
+    private boolean lowIsBetter = true;
+
+    /**
+     * Starts a race.
+     * @param population the players racing.
+     * @param surviving how many players will survive pruning.
+     * @param rounds the most rounds the race will be run for.
+     */
+    Race(List<Player> population, int surviving, int rounds) {
+        players = new ArrayList<>(population);
+        undecided = new ArrayList<>();
+        if (surviving < players.size())
+            undecided.addAll(players);
+        survivors = surviving;
+        maxRounds = rounds;
+        for (Player p : players) {
+            stats.put(p, new FitnessStats());
+        }
+    }
+
+    /**
+     * Records the score a player earned in one game.
+     * @param p the player.
+     * @param score the score it earned.
+     */
+    void record(Player p, long score) {
+        FitnessStats s = stats.get(p);
+        if (s == null)
+            return;
+        s.add(score);
+    }
+
+    /**
+     * @return the number of players whose survival is still in question.
+     */
+    int undecided() {
+        return undecided.size();
+    }
+
+    /**
+     * Picks the players to play the next round.  This is every undecided player, and if there are not enough of them to fill a game,
+     * the decided players closest to the cutoff.
+     * @param gameSize the number of players in a game.
+     * @return the players to seat, or an empty list if the race is over.
+     */
+    List<Player> seating(int gameSize) {
+        ArrayList<Player> seats = new ArrayList<>(undecided);
+        if (seats.isEmpty() || seats.size() >= gameSize)
+            return seats;
+        ArrayList<Player> ranked = new ArrayList<>(players);
+        Collections.sort(ranked, new AverageFitnessComparator(lowIsBetter) {
+            @Override
+            double average(Player p) {
+                return stats.get(p).mean();
+            }
+        });
+        // walk outwards from the cutoff
+        for (int i = 0; seats.size() < gameSize && i < ranked.size(); i++) {
+            int index = survivors + (i % 2 == 0 ? i / 2 : -(i / 2 + 1));
+            if (index < 0 || index >= ranked.size())
+                continue;
+            Player p = ranked.get(index);
+            if (!seats.contains(p))
+                seats.add(p);
+        }
+        return seats;
+    }
+
+    /**
+     * Decides every player which is certain to survive, because fewer than the number of survivors could possibly be better, or certain
+     * to be pruned, because at least the number of survivors are certainly better.
+     * @return the number of players decided.
+     */
+    int decide() {
+        Boolean low = AverageFitnessComparator.lowIsBetter(players);
+        if (low != null)
+            lowIsBetter = low;
+        int decided = 0;
+        for (int i = undecided.size() - 1; i >= 0; i--) {
+            Player p = undecided.get(i);
+            double best = good(p) + radius(p);
+            double worst = good(p) - radius(p);
+            int surelyBetter = 0;
+            int possiblyBetter = 0;
+            for (Player q : players) {
+                if (q == p)
+                    continue;
+                if (good(q) - radius(q) > best)
+                    surelyBetter++;
+                if (good(q) + radius(q) > worst)
+                    possiblyBetter++;
+            }
+            if (surelyBetter >= survivors || possiblyBetter < survivors) {
+                undecided.remove(i);
+                decided++;
+            }
+        }
+        return decided;
+    }
+
+    /**
+     * @return the player's average score, oriented so bigger is better.
+     */
+    private double good(Player p) {
+        double mean = stats.get(p).mean();
+        return lowIsBetter ? -mean : mean;
+    }
+
+    /**
+     * @return the bound on how far the player's average may be from its true average, made to hold for every player in every round at
+     * once.  Scores are treated as sub-Gaussian with the player's sample deviation, since the range of possible scores (which a true
+     * Hoeffding bound uses) is usually far wider than the scores actually seen, and would decide almost nothing.
+     */
+    private double radius(Player p) {
+        FitnessStats s = stats.get(p);
+        if (s.games() < 2)
+            return Double.POSITIVE_INFINITY;
+        return Math.sqrt(2 * s.variance() * Math.log(2.0 * players.size() * maxRounds / CONFIDENCE) / s.games());
+    }
+}
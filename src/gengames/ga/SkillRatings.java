@@ -0,0 +1,152 @@
+package gengames.ga;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import gengames.Player;
+
+/**
+ * Keeps a Bayesian skill rating, a mean and an uncertainty, for each strategy, in the style of TrueSkill.  After each game the ratings
+ * of its players are updated from the order they finished in, comparing each player only to those who finished just above and below
+ * it, so an update costs time proportional to the number of players.  Beating a strong player raises a rating more than beating a weak
+ * one, and uncertain ratings move more than settled ones, so players are ranked fairly however unbalanced the schedule was.
+ * <p>Players are ranked by their conservative rating, the mean less three times the uncertainty, so a strategy which got lucky in a
+ * game or two is not preferred over one which has proven itself.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ * @see <a href="http://jmlr.org/papers/v12/weng11a.html">Weng and Lin, A Bayesian Approximation Method for Online Ranking</a>
+ */
+/* package */class SkillRatings {
+    /** The rating every new strategy starts with. */
+    private static final double INITIAL_MEAN = 25;
+    /** The uncertainty of every new strategy's rating. */
+    private static final double INITIAL_DEVIATION = INITIAL_MEAN / 3;
+    /** How much a player's performance varies from game to game. */
+    private static final double PERFORMANCE_DEVIATION = INITIAL_DEVIATION / 2;
+    /** The smallest factor an uncertainty can shrink by in one game, so it never reaches zero. */
+    private static final double MIN_SHRINK = .0001;
+
+    private final Map<GenomeKey, Rating> ratings = new HashMap<>();
+
+    /**
+     * A strategy's rating.
+     */
+    private static class Rating {
+        double mean = INITIAL_MEAN;
+        double variance = INITIAL_DEVIATION * INITIAL_DEVIATION;
+
+        double conservative() {
+            return mean - 3 * Math.sqrt(variance);
+        }
+    }
+
+    /**
+     * Updates the ratings of the players in a game.
+     * @param ps the players in the game.
+     * @param scores the score each player earned in the game.
+     * @param lowWins true if low scores are better.
+     */
+    void record(Player[] ps, long[] scores, boolean lowWins) {
+        Rating[] rs = new Rating[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            rs[i] = rating(ps[i]);
+        }
+        // order the seats by their finish, best first
+        Integer[] order = new Integer[ps.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        final long[] s = scores;
+        final int sign = lowWins ? 1 : -1;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer one, Integer two) {
+                return sign * Long.compare(s[one], s[two]);
+            }
+        });
+
+        double[] meanChange = new double[ps.length];
+        double[] shrink = new double[ps.length];
+        for (int place = 0; place < order.length; place++) {
+            int i = order[place];
+            for (int neighbor = place - 1; neighbor <= place + 1; neighbor += 2) {
+                if (neighbor < 0 || neighbor >= order.length)
+                    continue;
+                int q = order[neighbor];
+                double c = Math.sqrt(rs[i].variance + rs[q].variance + 2 * PERFORMANCE_DEVIATION
+                        * PERFORMANCE_DEVIATION);
+                double expected = 1 / (1 + Math.exp((rs[q].mean - rs[i].mean) / c));
+                double actual = scores[i] == scores[q] ? .5 : neighbor > place ? 1 : 0;
+                meanChange[i] += rs[i].variance / c * (actual - expected);
+                shrink[i] += Math.sqrt(rs[i].variance) / c * rs[i].variance / (c * c) * expected
+                        * (1 - expected);
+            }
+        }
+        // apply every update at once, so each was computed from the ratings before the game
+        for (int i = 0; i < rs.length; i++) {
+            rs[i].mean += meanChange[i];
+            rs[i].variance *= Math.max(1 - shrink[i], MIN_SHRINK);
+        }
+    }
+
+    private Rating rating(Player p) {
+        GenomeKey key = new GenomeKey(p.getStrategy());
+        Rating r = ratings.get(key);
+        if (r == null) {
+            r = new Rating();
+            ratings.put(key, r);
+        }
+        return r;
+    }
+
+    /**
+     * Describes the player's rating.
+     * @param p the player to look up.
+     * @return the rating's mean and uncertainty.
+     */
+    String describe(Player p) {
+        Rating r = rating(p);
+        return String.format("%.1f +/- %.1f", r.mean, 3 * Math.sqrt(r.variance));
+    }
+
+    /**
+     * Constructs a comparator ranking players by their strategy's conservative rating, best player first.
+     * @return a comparator for the players.
+     */
+    Comparator<Player> ranking() {
+        return new AverageFitnessComparator(false) {
+            @Override
+            double average(Player p) {
+                return rating(p).conservative();
+            }
+        };
+    }
+
+    /**
+     * Forgets every strategy not present in the population.
+     * @param population the current population.
+     */
+    void retain(List<Player> population) {
+        Set<GenomeKey> keep = new HashSet<>();
+        for (Player p : population) {
+            keep.add(new GenomeKey(p.getStrategy()));
+        }
+        for (GenomeKey key : new ArrayList<>(ratings.keySet())) {
+            if (!keep.contains(key))
+                ratings.remove(key);
+        }
+    }
+
+    /**
+     * @return the number of strategies rated.
+     */
+    int size() {
+        return ratings.size();
+    }
+}
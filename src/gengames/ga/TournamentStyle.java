@@ -0,0 +1,56 @@
+package gengames.ga;
+
+/**
+ * The ways the GAController can schedule the games each generation plays to determine every player's fitness.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public enum TournamentStyle {
+    /** Every player plays as many games as there are players in a game, population size games in total. */
+    SIMPLE,
+    /** Every player plays with every other player, population size squared games in total. */
+    COMPLEX,
+    /**
+     * Plays the complex tournament in rounds, and after each round stops playing players who are statistically certain to survive or
+     * to be pruned, so the remaining games are spent on players near the cutoff.
+     */
+    RACING,
+    /**
+     * Plays rounds in which players are seated with others whose running fitness is similar, so each game separates players near each
+     * other in the standings.  Only log2 of the population size rounds are played, each player playing one game a round.
+     */
+    SWISS;
+
+    /**
+     * Describes this style for display in the GAFrame.
+     * @param populationSize the size of the population.
+     * @return a short description of the style, including how many games it plays.
+     */
+    public String description(int populationSize) {
+        switch (this) {
+        case SIMPLE:
+            return populationSize + " Games";
+        case COMPLEX:
+            return populationSize * populationSize + " Games";
+        case RACING:
+            return "Racing, Up To " + populationSize * populationSize + " Games";
+        case SWISS:
+            return "Swiss, " + swissRounds(populationSize) + " Rounds";
+        default:
+            throw new RuntimeException(
+                    "Switched Over All TournamentStyles, None Matched.  Critical Error.");
+        }
+    }
+
+    /**
+     * The number of rounds a Swiss tournament plays, enough to separate the whole population by halving it each round.
+     * @param populationSize the size of the population.
+     * @return log2 of the population size, rounded up, and at least one.
+     */
+    static int swissRounds(int populationSize) {
+        int rounds = 1;
+        while (1 << rounds < populationSize)
+            rounds++;
+        return rounds;
+    }
+}
@@ -0,0 +1,102 @@
+package gengames.hearts;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.swing.JTextArea;
+
+import gengames.GameSettings;
+import gengames.Trait;
+import gengames.hearts.traits.NormalTrait;
+import gengames.hearts.traits.PassingQueen;
+
+/**
+ * This class is a test which plays the same seeded games with the {@link BatchHeartsEngine} and with HeartsGameController, and checks
+ * every player's score, and the loci its strategy expressed, are the same from both, then times the batch engine on a larger batch.  Strategies only use traits without random
+ * choices, so the games can be compared exactly.  It should not need to be run by third party developers but is here if they want it.
+ * There should never be any uncaught exceptions or print outs to stderr when running this class.
+ */
+public class BatchEngineTest {
+    private static final int COMPARED_TABLES = 64;
+    private static final int TIMED_TABLES = 4096;
+    private static final NormalTrait[] DETERMINISTIC = { NormalTrait.HIGHEST, NormalTrait.LOWEST,
+            NormalTrait.SMALLESTSUITHIGH, NormalTrait.LARGESTSUITHIGH, NormalTrait.SMALLESTSUITLOW,
+            NormalTrait.LARGESTSUITLOW };
+
+    /**
+     * The BatchEngineTest main method.
+     * @param args the input from the JVM
+     * @throws InterruptedException if interrupted waiting for a game.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Random rnd = new Random(1);
+        for (int limit : new int[] { GameSettings.NO_ROUND_LIMIT, 3 }) {
+            System.out.println("****** Comparing " + COMPARED_TABLES + " games with round limit " + limit + ".");
+            Trait[][] strategies = strategies(rnd, COMPARED_TABLES);
+            long[] seeds = seeds(rnd, COMPARED_TABLES);
+            HeartsPlayer[][] batched = new HeartsPlayer[COMPARED_TABLES][4];
+            for (int t = 0; t < COMPARED_TABLES; t++) {
+                for (int s = 0; s < batched[t].length; s++) {
+                    batched[t][s] = new HeartsPlayer(strategies[t * 4 + s]);
+                }
+            }
+            int[][] batch = new BatchHeartsEngine(COMPARED_TABLES).play(batched, seeds, limit);
+            int differences = 0;
+            int expressionDifferences = 0;
+            for (int t = 0; t < COMPARED_TABLES; t++) {
+                HeartsPlayer[] players = new HeartsPlayer[4];
+                for (int s = 0; s < players.length; s++) {
+                    players[s] = new HeartsPlayer(strategies[t * 4 + s]);
+                }
+                HeartsGameController game = new HeartsGameController(players, new JTextArea(), true,
+                        new GameSettings(seeds[t], limit, false));
+                while (!game.gameOver())
+                    Thread.sleep(1);
+                for (int s = 0; s < players.length; s++) {
+                    if (players[s].fitness() != batch[t][s])
+                        differences++;
+                    long[] played = new long[HeartsPlayer.TRAIT_SIZE];
+                    long[] batchedExpression = new long[HeartsPlayer.TRAIT_SIZE];
+                    players[s].drainExpression(played);
+                    batched[t][s].drainExpression(batchedExpression);
+                    if (!Arrays.equals(played, batchedExpression))
+                        expressionDifferences++;
+                }
+            }
+            if (differences > 0)
+                System.err.println(differences + " scores differed!");
+            if (expressionDifferences > 0)
+                System.err.println(expressionDifferences + " players' expression differed!");
+        }
+
+        System.out.println("****** Timing " + TIMED_TABLES + " games at once.");
+        BatchHeartsEngine engine = new BatchHeartsEngine(TIMED_TABLES);
+        Trait[][] strategies = strategies(rnd, TIMED_TABLES);
+        for (int pass = 0; pass < 5; pass++) {
+            long[] seeds = seeds(rnd, TIMED_TABLES);
+            long start = System.nanoTime();
+            engine.play(strategies, seeds, GameSettings.NO_ROUND_LIMIT);
+            long nanos = System.nanoTime() - start;
+            System.out.printf("Pass %d: %.1f ms, %.1f us per game%n", pass, nanos / 1e6, nanos / 1e3 / TIMED_TABLES);
+        }
+    }
+
+    private static Trait[][] strategies(Random rnd, int tables) {
+        Trait[][] strategies = new Trait[tables * 4][HeartsPlayer.TRAIT_SIZE];
+        for (Trait[] strategy : strategies) {
+            strategy[0] = PassingQueen.values()[rnd.nextInt(PassingQueen.values().length)];
+            for (int i = 1; i < strategy.length; i++) {
+                strategy[i] = DETERMINISTIC[rnd.nextInt(DETERMINISTIC.length)];
+            }
+        }
+        return strategies;
+    }
+
+    private static long[] seeds(Random rnd, int tables) {
+        long[] seeds = new long[tables];
+        for (int t = 0; t < tables; t++) {
+            seeds[t] = rnd.nextLong();
+        }
+        return seeds;
+    }
+}
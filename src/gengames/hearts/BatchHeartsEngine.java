@@ -0,0 +1,408 @@
+package gengames.hearts;
+
+import gengames.GameBatch;
+import gengames.GameSettings;
+import gengames.Player;
+import gengames.Trait;
+import gengames.deck.Card;
+import gengames.deck.CardMask;
+import gengames.deck.Deal;
+import gengames.deck.Suit;
+import gengames.deck.Value;
+import gengames.hearts.HeartsGameController.PassType;
+import gengames.hearts.traits.NormalTrait;
+import gengames.hearts.traits.PassingQueen;
+import gengames.metrics.MetricsRegistry;
+
+/**
+ * Plays many games of hearts at once, in lockstep, without HeartsPlayer or HeartsGameController objects.  All the state of every
+ * table is kept in primitive arrays, one element per table or per seat (struct of arrays rather than an object per game): hands,
+ * tricks and the cards taken are card masks, the traits are ordinals, and each step of play, such as the second card of the fifth
+ * trick, is taken at every table before the next.  This keeps each step's loop small and its data contiguous, which suits evaluating
+ * very large populations.
+ * <p>Games are played exactly as a HeartsGameController started with a deal seed plays them, the same deals, passes, legal moves,
+ * choices, scores and ending, so a strategy's score is the same from either.  Choices between cards are made by
+ * HeartsPlayer.pickCard and the trait to follow by HeartsPlayer.identifyCase, so the two cannot drift apart.  Random choices draw from
+ * GAFrame.rnd as players do, though in a different order, so only games without random choices can be compared exactly.</p>
+ * <p>Each time a trait decides a choice it is counted, as HeartsPlayer.express counts it, and when playing Players each is credited
+ * with the counts from its seats, so the GA sees which loci batched games express.  Every round played is counted in the
+ * {@link gengames.metrics.MetricsRegistry MetricsRegistry}, as HeartsGameController counts them.</p>
+ * <p>An engine can be reused for any number of batches of up to the number of tables it was built with, and is not thread safe.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public class BatchHeartsEngine implements GameBatch {
+    private static final int SEATS = HeartsGameController.NUM_PLAYERS;
+    private static final int LOCI = HeartsPlayer.TRAIT_SIZE;
+    private static final int TRICKS = Card.DECK_SIZE / SEATS;
+    private static final NormalTrait[] TRAITS = NormalTrait.values();
+    private static final long HEARTS = CardMask.suit(Suit.HEARTS);
+    private static final Card QUEEN_OF_SPADES_CARD = Card.of(Suit.SPADES, Value.QUEEN);
+    private static final long QUEEN_OF_SPADES = QUEEN_OF_SPADES_CARD.mask();
+    private static final long TWO_OF_CLUBS = Card.of(Suit.CLUBS, Value.TWO).mask();
+    private static final long QUEEN_OF_CLUBS = Card.of(Suit.CLUBS, Value.QUEEN).mask();
+    /** Whether players recognise the queen of spades, as HeartsPlayer does, when it is held, passed or played. */
+    private static final boolean QUEEN_RECOGNISED = HeartsGameController.isQueenOfSpades(QUEEN_OF_SPADES_CARD);
+    /** The locus followed in each situation. */
+    private static final byte[] LOCUS = new byte[HeartsPlayer.SITUATIONS];
+    static {
+        for (int s = 0; s < LOCUS.length; s++) {
+            LOCUS[s] = (byte) HeartsPlayer.identifyCase(s);
+        }
+    }
+    /** The mask of each suit, by ordinal. */
+    private static final long[] SUIT_MASKS = new long[Suit.values().length];
+    static {
+        for (Suit s : Suit.values()) {
+            SUIT_MASKS[s.ordinal()] = CardMask.suit(s);
+        }
+    }
+
+    private final int capacity;
+
+    // per seat, indexed table * SEATS + seat
+    private final byte[] traits;
+    /** The number of times each trait decided a choice, indexed like traits. */
+    private final int[] expressed;
+    private final long[] hand;
+    private final boolean[] hadQueen;
+    private final int[] roundScore;
+    private final int[] gameScore;
+
+    // per table
+    private final long[] seed;
+    private final boolean[] playing;
+    private final int[] leader;
+    private final long[] trick;
+    private final int[] leadSuit;
+    private final int[] bestCard;
+    private final int[] bestSeat;
+    private final boolean[] roundBroken;
+    // what every player at the table has seen this round
+    private final boolean[] heartsBroken;
+    private final boolean[] queenPlayed;
+    private final boolean[] multipleHearts;
+    private final int[] tookQueen;
+    private final int[] tookFirstHeart;
+
+    /**
+     * Constructs an engine.
+     * @param tables the most tables it can play at once.
+     */
+    public BatchHeartsEngine(int tables) {
+        capacity = tables;
+        traits = new byte[tables * SEATS * LOCI];
+        expressed = new int[tables * SEATS * LOCI];
+        hand = new long[tables * SEATS];
+        hadQueen = new boolean[tables * SEATS];
+        roundScore = new int[tables * SEATS];
+        gameScore = new int[tables * SEATS];
+        seed = new long[tables];
+        playing = new boolean[tables];
+        leader = new int[tables];
+        trick = new long[tables];
+        leadSuit = new int[tables];
+        bestCard = new int[tables];
+        bestSeat = new int[tables];
+        roundBroken = new boolean[tables];
+        heartsBroken = new boolean[tables];
+        queenPlayed = new boolean[tables];
+        multipleHearts = new boolean[tables];
+        tookQueen = new int[tables];
+        tookFirstHeart = new int[tables];
+    }
+
+    /**
+     * @see gengames.GameBatch#capacity()
+     */
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Plays one game at each table between the players' strategies, and credits each player with the loci its strategy expressed.
+     * Only plain HeartsPlayers can be batched, as the engine plays their strategies itself, and would skip any moves a subclass
+     * makes its own way.
+     * @see gengames.GameBatch#play(gengames.Player[][], long[], int)
+     */
+    @Override
+    public int[][] play(Player[][] tables, long[] dealSeeds, int roundLimit) {
+        Trait[][] strategies = new Trait[tables.length * SEATS][];
+        for (int t = 0; t < tables.length; t++) {
+            if (tables[t].length != SEATS)
+                throw new RuntimeException("Expected " + SEATS + " players.  Received " + tables[t].length + ".");
+            for (int s = 0; s < SEATS; s++) {
+                if (tables[t][s].getClass() != HeartsPlayer.class)
+                    throw new RuntimeException("Only HeartsPlayers can be played in batches.  Received a "
+                            + tables[t][s].getClass().getSimpleName() + ".");
+                strategies[t * SEATS + s] = tables[t][s].getStrategy();
+            }
+        }
+        int[] scores = play(strategies, dealSeeds, roundLimit);
+        int[][] byTable = new int[tables.length][SEATS];
+        for (int t = 0; t < tables.length; t++) {
+            System.arraycopy(scores, t * SEATS, byTable[t], 0, SEATS);
+            for (int s = 0; s < SEATS; s++) {
+                ((HeartsPlayer) tables[t][s]).addExpression(expressed, (t * SEATS + s) * LOCI);
+            }
+        }
+        return byTable;
+    }
+
+    /**
+     * Plays one game at each table.
+     * @param strategies the strategy in each seat, table by table, so table t's players are at t * 4 to t * 4 + 3.
+     * @param dealSeeds the deal seed of each table, as in {@link gengames.GameSettings GameSettings}.
+     * @param roundLimit how many rounds each game lasts, or GameSettings.NO_ROUND_LIMIT to play until a player reaches 100 points.
+     * @return each player's final score, in the same order as the strategies.
+     */
+    public int[] play(Trait[][] strategies, long[] dealSeeds, int roundLimit) {
+        int tables = dealSeeds.length;
+        if (tables > capacity)
+            throw new RuntimeException("This engine plays at most " + capacity + " tables, not " + tables + ".");
+        if (strategies.length != tables * SEATS)
+            throw new RuntimeException("Expected " + tables * SEATS + " strategies.  Received " + strategies.length + ".");
+        for (int p = 0; p < strategies.length; p++) {
+            if (strategies[p].length != LOCI)
+                throw new RuntimeException("Expected strategies of " + LOCI + " traits.  Received " + strategies[p].length + ".");
+            traits[p * LOCI] = (byte) ((PassingQueen) strategies[p][0]).ordinal();
+            for (int l = 1; l < LOCI; l++) {
+                traits[p * LOCI + l] = (byte) ((NormalTrait) strategies[p][l]).ordinal();
+            }
+            for (int l = 0; l < LOCI; l++) {
+                expressed[p * LOCI + l] = 0;
+            }
+            gameScore[p] = 0;
+        }
+        for (int t = 0; t < tables; t++) {
+            seed[t] = dealSeeds[t];
+            playing[t] = true;
+        }
+
+        PassType passType = PassType.LEFT;
+        int remaining = tables;
+        for (int round = 1; remaining > 0; round++) {
+            deal(tables, round - 1);
+            if (passType != PassType.NONE)
+                pass(tables, passType);
+            for (int t = 0; t < tables; t++) {
+                if (!playing[t])
+                    continue;
+                for (int s = 0; s < SEATS; s++) {
+                    if ((hand[t * SEATS + s] & TWO_OF_CLUBS) != 0)
+                        leader[t] = s;
+                }
+            }
+            for (int number = 1; number <= TRICKS; number++) {
+                for (int position = 0; position < SEATS; position++) {
+                    playCard(tables, number, position);
+                }
+                endTrick(tables);
+            }
+            remaining -= score(tables, round, roundLimit);
+            passType = passType.next();
+        }
+        int[] scores = new int[tables * SEATS];
+        System.arraycopy(gameScore, 0, scores, 0, scores.length);
+        return scores;
+    }
+
+    /**
+     * Deals every table in play its next round, and resets what its players have seen.
+     */
+    private void deal(int tables, long round) {
+        for (int t = 0; t < tables; t++) {
+            if (!playing[t])
+                continue;
+            Deal deal = Deal.at(seed[t], round, SEATS);
+            for (int s = 0; s < SEATS; s++) {
+                int p = t * SEATS + s;
+                hand[p] = deal.hand(s);
+                hadQueen[p] = false;
+                roundScore[p] = 0;
+            }
+            roundBroken[t] = false;
+            heartsBroken[t] = false;
+            queenPlayed[t] = false;
+            multipleHearts[t] = false;
+            tookQueen[t] = -1;
+            tookFirstHeart[t] = -1;
+        }
+    }
+
+    /**
+     * Passes cards at every table in play, as HeartsPlayer.passTo chooses them.
+     */
+    private void pass(int tables, PassType passType) {
+        int offset = passType == PassType.LEFT ? 1 : passType == PassType.ACCROSS ? 2 : 3;
+        long[] passed = new long[SEATS];
+        for (int t = 0; t < tables; t++) {
+            if (!playing[t])
+                continue;
+            for (int s = 0; s < SEATS; s++) {
+                int p = t * SEATS + s;
+                long possible = hand[p];
+                long pass = 0;
+                int toPass = 3;
+                boolean queen = QUEEN_RECOGNISED && (possible & QUEEN_OF_SPADES) != 0;
+                if (queen) {
+                    hadQueen[p] = true;
+                    expressed[p * LOCI]++;
+                    possible &= ~QUEEN_OF_SPADES;
+                    if (traits[p * LOCI] == PassingQueen.LOSEQUEEN.ordinal()) {
+                        toPass--;
+                        pass |= QUEEN_OF_SPADES;
+                    }
+                }
+                NormalTrait passing = TRAITS[traits[p * LOCI + 1]];
+                expressed[p * LOCI + 1]++;
+                for (int i = 0; i < toPass; i++) {
+                    long pick = HeartsPlayer.pickCard(passing, possible).mask();
+                    pass |= pick;
+                    possible &= ~pick;
+                }
+                hand[p] &= ~pass;
+                passed[(s + offset) % SEATS] = pass;
+            }
+            for (int s = 0; s < SEATS; s++) {
+                hand[t * SEATS + s] |= passed[s];
+            }
+        }
+    }
+
+    /**
+     * Has the player at the given position in the trick play a card, at every table in play.
+     */
+    private void playCard(int tables, int number, int position) {
+        for (int t = 0; t < tables; t++) {
+            if (!playing[t])
+                continue;
+            int s = (leader[t] + position) % SEATS;
+            int p = t * SEATS + s;
+            long playable = legalMoves(t, number, position, hand[p]);
+
+            int situation = position == 0 ? HeartsPlayer.LEADING : 0;
+            if (heartsBroken[t])
+                situation |= HeartsPlayer.HEARTS_BROKEN;
+            if (queenPlayed[t])
+                situation |= HeartsPlayer.QUEEN_PLAYED;
+            if (multipleHearts[t])
+                situation |= HeartsPlayer.MULTIPLE_HEARTS;
+            if (tookQueen[t] == s)
+                situation |= HeartsPlayer.TOOK_QUEEN;
+            if (hadQueen[p])
+                situation |= HeartsPlayer.HAD_QUEEN;
+            if (QUEEN_RECOGNISED && (hand[p] & QUEEN_OF_SPADES) != 0)
+                situation |= HeartsPlayer.HOLDING_QUEEN;
+            if (tookQueen[t] == tookFirstHeart[t])
+                situation |= HeartsPlayer.MOON_RISK;
+            int locus = p * LOCI + LOCUS[situation];
+            expressed[locus]++;
+            Card card = HeartsPlayer.pickCard(TRAITS[traits[locus]], playable);
+
+            long mask = card.mask();
+            hand[p] &= ~mask;
+            trick[t] |= mask;
+            int index = card.index();
+            if (position == 0) {
+                leadSuit[t] = card.getSuit().ordinal();
+                bestCard[t] = index;
+                bestSeat[t] = s;
+            } else if (card.getSuit().ordinal() == leadSuit[t] && index > bestCard[t]) {
+                // within a suit, higher values have higher indexes
+                bestCard[t] = index;
+                bestSeat[t] = s;
+            }
+            if ((mask & HEARTS) != 0)
+                roundBroken[t] = true;
+        }
+    }
+
+    /**
+     * The cards a player may play, exactly as HeartsRound.legalMoves decides.
+     */
+    private long legalMoves(int t, int number, int position, long held) {
+        if (position > 0) {
+            long follow = held & SUIT_MASKS[leadSuit[t]];
+            if (follow != 0)
+                return follow;
+            long playable = held;
+            if (!roundBroken[t])
+                playable &= ~HEARTS;
+            if (number == 1)
+                playable &= ~QUEEN_OF_CLUBS;
+            return playable != 0 ? playable : held;
+        }
+        if (number == 1) {
+            if ((held & TWO_OF_CLUBS) != 0)
+                return TWO_OF_CLUBS;
+            throw new RuntimeException("Player was expected to have the two of clubs.");
+        }
+        long playable = held;
+        if (!roundBroken[t])
+            playable &= ~HEARTS;
+        return playable != 0 ? playable : held;
+    }
+
+    /**
+     * Gives each trick in play to its winner, and tells the players, as HeartsPlayer.trickOver does.
+     */
+    private void endTrick(int tables) {
+        for (int t = 0; t < tables; t++) {
+            if (!playing[t])
+                continue;
+            int winner = bestSeat[t];
+            long taken = trick[t];
+            roundScore[t * SEATS + winner] += Long.bitCount(taken & HEARTS) + ((taken & QUEEN_OF_SPADES) != 0 ? 13 : 0);
+            if (QUEEN_RECOGNISED && (taken & QUEEN_OF_SPADES) != 0) {
+                queenPlayed[t] = true;
+                tookQueen[t] = winner;
+            }
+            if ((taken & HEARTS) != 0) {
+                if (!heartsBroken[t]) {
+                    heartsBroken[t] = true;
+                    tookFirstHeart[t] = winner;
+                } else if (winner != tookFirstHeart[t]) {
+                    multipleHearts[t] = true;
+                }
+            }
+            trick[t] = 0;
+            leader[t] = winner;
+        }
+    }
+
+    /**
+     * Adds each round's scores to the game, as HeartsGameController.updateScores does, counts the round, and ends the games which are
+     * over.
+     * @return the number of games which ended.
+     */
+    private int score(int tables, int round, int roundLimit) {
+        int ended = 0;
+        MetricsRegistry metrics = MetricsRegistry.get();
+        for (int t = 0; t < tables; t++) {
+            if (!playing[t])
+                continue;
+            metrics.countRound(TRICKS);
+            boolean moonShot = true;
+            for (int s = 0; s < SEATS; s++) {
+                int score = roundScore[t * SEATS + s];
+                if (score > 0 && score < 26)
+                    moonShot = false;
+            }
+            int max = 0;
+            for (int s = 0; s < SEATS; s++) {
+                int p = t * SEATS + s;
+                gameScore[p] += moonShot ? 26 - roundScore[p] : roundScore[p];
+                max = Math.max(max, gameScore[p]);
+            }
+            boolean over = roundLimit == GameSettings.NO_ROUND_LIMIT ? max >= HeartsGameController.GAME_OVER_SCORE
+                    : round >= roundLimit;
+            if (over) {
+                playing[t] = false;
+                ended++;
+            }
+        }
+        return ended;
+    }
+}
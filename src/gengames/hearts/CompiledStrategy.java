@@ -0,0 +1,38 @@
+package gengames.hearts;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+import gengames.deck.Card;
+
+/**
+ * The template of a compiled strategy.  The {@link StrategyCompiler} defines a hidden copy of this class for each strategy it compiles,
+ * with the strategy's decision handle as the copy's class data.  Since each copy holds its handle in a static final field, the JIT
+ * treats the handle, and so every trait in the strategy, as a constant and can inline the exact card picking code for each locus.
+ * This class itself is never used, it has no class data.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */final class CompiledStrategy implements StrategyCompiler.Decisions {
+    private static final MethodHandle DECISIONS = classData();
+
+    private static MethodHandle classData() {
+        try {
+            return MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Could not read the compiled strategy.", e);
+        }
+    }
+
+    @Override
+    public Card decide(int locus, long possible) {
+        try {
+            return (Card) DECISIONS.invokeExact(locus, possible);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException("The compiled strategy failed.", t);
+        }
+    }
+}
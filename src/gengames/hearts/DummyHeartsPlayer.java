@@ -5,6 +5,7 @@ import java.util.Collections;
 import gengames.GAFrame;
 import gengames.Trait;
 import gengames.deck.Card;
+import gengames.deck.CardMask;
 import gengames.deck.Cards;
 import gengames.deck.ValueComparator;
 import gengames.hearts.traits.*;
@@ -29,34 +30,40 @@ public class DummyHeartsPlayer extends HeartsPlayer {
         strategy = str;
     }
 
+    /**
+     * @see gengames.hearts.HeartsPlayer#copy()
+     */
+    @Override
+    /* package */HeartsPlayer copy() {
+        return new DummyHeartsPlayer(strategy);
+    }
+
     // Game Methods
     /**
      * @see gengames.hearts.HeartsPlayer#passTo(int)
      */
     @Override
     public Cards passTo(int player) {
-        Collections.sort(myHand, new ValueComparator());
         Cards passedCards = new Cards();
-        if (strategy[0] == PlayLoHiRndMid.LOW) { // get rid of least desirable
-                                                    // cards
-            passedCards.add(myHand.remove(myHand.size() - 1));
-            passedCards.add(myHand.remove(myHand.size() - 1));
-            passedCards.add(myHand.remove(myHand.size() - 1));
-        } else if (strategy[0] == PlayLoHiRndMid.HIGH) {
-            passedCards.add(myHand.remove(0));
-            passedCards.add(myHand.remove(0));
-            passedCards.add(myHand.remove(0));
-        } else if (strategy[0] == PlayLoHiRndMid.RANDOM) {
-            passedCards.add(myHand.remove((int) (myHand.size() * GAFrame.rnd
-                    .nextDouble())));
-            passedCards.add(myHand.remove((int) (myHand.size() * GAFrame.rnd
-                    .nextDouble())));
-            passedCards.add(myHand.remove((int) (myHand.size() * GAFrame.rnd
-                    .nextDouble())));
-        } else if (strategy[0] == PlayLoHiRndMid.MIDDLE) {
-            passedCards.add(myHand.remove(myHand.size() / 2));
-            passedCards.add(myHand.remove(myHand.size() / 2));
-            passedCards.add(myHand.remove(myHand.size() / 2));
+        for (int i = 0; i < 3; i++) {
+            long hand = getHandMask();
+            int size = CardMask.size(hand);
+            int pick; // position in the hand, lowest card first
+            if (strategy[0] == PlayLoHiRndMid.LOW) { // get rid of least desirable
+                                                        // cards
+                pick = size - 1;
+            } else if (strategy[0] == PlayLoHiRndMid.HIGH) {
+                pick = 0;
+            } else if (strategy[0] == PlayLoHiRndMid.RANDOM) {
+                pick = (int) (size * GAFrame.rnd.nextDouble());
+            } else if (strategy[0] == PlayLoHiRndMid.MIDDLE) {
+                pick = size / 2;
+            } else {
+                break;
+            }
+            Card c = CardMask.get(hand, pick);
+            removeFromHand(c);
+            passedCards.add(c);
         }
         return passedCards;
     }
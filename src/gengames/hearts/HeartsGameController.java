@@ -1,15 +1,39 @@
 package gengames.hearts;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
 import javax.swing.JTextArea;
 
+import gengames.GAFrame;
+import gengames.GameBatch;
 import gengames.GameController;
+import gengames.GameRecordLog;
+import gengames.GameSettings;
 import gengames.Player;
 import gengames.PlayerBuilder;
+import gengames.RunControl;
 import gengames.deck.Card;
+import gengames.deck.CardMask;
 import gengames.deck.Cards;
-import gengames.deck.Deck;
+import gengames.deck.Deal;
+import gengames.deck.DealGenerator;
 import gengames.deck.Suit;
 import gengames.deck.Value;
+import gengames.metrics.GameEvent;
+import gengames.metrics.MetricsRegistry;
+import gengames.metrics.Phase;
+import gengames.metrics.PhaseTimer;
 
 /**
  * Hearts implementation of the GameController, plays a game of hearts with four HeartsPlayers
@@ -26,26 +50,82 @@ public class HeartsGameController extends GameController {
     protected static final int GAME_OVER_SCORE = 100;
     /** The number of players in this game */
     protected static final int NUM_PLAYERS = 4;
+    /** The number of rounds played at once when rounds are played in parallel */
+    protected static final int ROUND_WORKERS = Runtime.getRuntime().availableProcessors();
+
+    /** The number of deals kept ready for unseeded games */
+    protected static final int DEAL_BUFFER = 256;
+    /** The most tables a batch of games plays at once */
+    protected static final int BATCH_TABLES = 1024;
+
+    /**
+     * Holds the deal generator shared by every unseeded game, so its thread is only started once a game is played.
+     */
+    private static class Deals {
+        static final DealGenerator GENERATOR = new DealGenerator(GAFrame.seedRnd.nextLong(), NUM_PLAYERS,
+                DEAL_BUFFER);
+    }
+
+    private static final ExecutorService ROUND_POOL = Executors.newFixedThreadPool(ROUND_WORKERS,
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "Hearts Round");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    /** Whether a class of controller overrides possibleCards, and so decides the legal moves in its rounds. */
+    private static final ClassValue<Boolean> OWN_RULES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != HeartsGameController.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("possibleCards", Cards.class, Cards.class);
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // not overridden here, try the superclass
+                }
+            }
+            return false;
+        }
+    };
+
+    /** Numbers every game played, to identify them in Flight Recorder events */
+    private static final AtomicLong GAME_IDS = new AtomicLong();
 
     /** The group of players in this game */
     protected HeartsPlayer[] player = new HeartsPlayer[4];
     private int[] gameScore = new int[4];
-    private int[] tempScore = new int[4];
-    private Deck theDeck;
+    private final long gameId = GAME_IDS.incrementAndGet();
+    private Long dealSeed;
+    private long dealt;
+    private int roundLimit = GameSettings.NO_ROUND_LIMIT;
+    private boolean parallelRounds;
+    /** Rounds already dealt and being played ahead of the game, when rounds are played in parallel. */
+    private final LinkedList<Future<HeartsRound>> roundsAhead = new LinkedList<>();
+    /** Where a record of the game is written when it ends, or null if it is not recorded. */
+    private GameRecordLog records;
+    private final List<long[]> recordedDeals = new ArrayList<>();
+    private final List<byte[]> recordedDecisions = new ArrayList<>();
+    /** The game being replayed, or null if this game is played for real. */
+    private HeartsGameRecord replaying;
     private PassType passType;
     private int round;
-    private int trick;
-    private boolean running;
-    private boolean runRound;
-    private boolean heartsBroken;
-    /** Tracks when the game is over. */
+    /** The round being played, or with parallel rounds the round last reported, for possibleCards. */
+    private volatile HeartsRound current;
+    private final RunControl control = new RunControl(false);
+    /** Tracks when the last round has been played. */
     protected boolean gameOver;
+    /** Set once the game is over and the players' fitness has been updated. */
+    private volatile boolean over;
 
     private Thread gameThread;
 
     private JTextArea output;
 
-    private boolean interrupted = false;
+    private volatile boolean interrupted = false;
 
     /**
      * Do-nothing constructor for DummyGameController to extend.
@@ -61,6 +141,39 @@ public class HeartsGameController extends GameController {
      * @param run starts the game playing or paused
      */
     public HeartsGameController(Player[] ps, JTextArea gameOutput, boolean run) {
+        this(ps, gameOutput, run, new GameSettings(null, GameSettings.NO_ROUND_LIMIT, false));
+    }
+
+    /**
+     * Constructs a new HeartsGameController, starting a game with the passed players.  If the settings have a deal seed every shuffle
+     * is determined by it, so games started with the same seed are dealt the same hands, and if they have a round limit the game ends
+     * after that many rounds, rather than when a player reaches GAME_OVER_SCORE.  If they ask for parallel rounds, upcoming rounds are
+     * dealt ahead of time and played at once by copies of the players, then scored in order; rounds are played one at a time anyway
+     * if this class overrides possibleCards, or a player's copies would not be of the player's own class.  If they have a game record log, a
+     * {@link HeartsGameRecord} of the game is written to it when the game ends.
+     * @param ps set of players to participate in this game
+     * @param gameOutput the JTextArea to report output to
+     * @param run starts the game playing or paused
+     * @param settings the deal seed and round limit for this game
+     */
+    public HeartsGameController(Player[] ps, JTextArea gameOutput, boolean run, GameSettings settings) {
+        this(ps, gameOutput, run, settings, null);
+    }
+
+    /**
+     * Constructs a new HeartsGameController replaying a recorded game.
+     * @param record the game to replay.
+     * @param gameOutput the JTextArea to report output to
+     * @param run starts the game playing or paused
+     * @see HeartsGameRecord#replay(JTextArea, boolean)
+     */
+    /* package */HeartsGameController(HeartsGameRecord record, JTextArea gameOutput, boolean run) {
+        this(ReplayPlayer.of(record), gameOutput, run,
+                new GameSettings(record.hasDealSeed() ? record.dealSeed() : null, record.rounds(), false), record);
+    }
+
+    private HeartsGameController(Player[] ps, JTextArea gameOutput, boolean run, GameSettings settings,
+            HeartsGameRecord replay) {
         // playing the game should be in its own thread
         if (ps.length != NUM_PLAYERS)
             throw new RuntimeException("Expected " + NUM_PLAYERS + " players.");
@@ -68,12 +181,17 @@ public class HeartsGameController extends GameController {
         for (int i = 0; i < ps.length; i++) {
             player[i] = (HeartsPlayer) ps[i];
         }
-        running = run;
+        control.setRunning(run);
         output = gameOutput;
+        if (settings.hasDealSeed())
+            dealSeed = settings.getDealSeed();
+        roundLimit = settings.getRoundLimit();
+        parallelRounds = settings.getParallelRounds() && !OWN_RULES.get(getClass()) && copiesPlayAlike();
+        records = settings.getGameRecords();
+        replaying = replay;
         gameOver = false;
 
-        gameThread = new Thread(this);
-        gameThread.setDaemon(true);
+        gameThread = newGameThread(this);
         gameThread.setPriority(Thread.MAX_PRIORITY);
         gameThread.start();
     }
@@ -85,6 +203,7 @@ public class HeartsGameController extends GameController {
     public void interrupt() {
         if (!gameOver()) {
             output.append("\n\nGame interrupted!");
+            control.interrupt();
             gameThread.interrupt();
         }
     }
@@ -94,7 +213,7 @@ public class HeartsGameController extends GameController {
      */
     @Override
     public boolean gameOver() {
-        return gameOver;
+        return over;
     }
 
     /**
@@ -110,230 +229,176 @@ public class HeartsGameController extends GameController {
      */
     @Override
     public void run() {
+        GameEvent event = new GameEvent();
         try {
 
-            while (!(running || runRound))
-                // wait to start game
-                Thread.sleep(50);
+            control.await(); // wait to start game
 
+            event.begin();
             round = 1;
             output.setText("New Game Starting Between:\n");
             for (int i = 0; i < player.length; i++) {
                 output.append(player[i] + "\n");
                 player[i].startGame(i);
             }
-            theDeck = new Deck();
             passType = PassType.LEFT;
-            while (!gameOver()) {
-                while (!(running || runRound))
-                    Thread.sleep(50);
+            while (!gameOver) {
+                control.await();
                 playRound();
-                runRound = false;
+                control.finish(RunControl.State.STEP_ROUND);
             }
             for (int i = 0; i < gameScore.length; i++) {
                 player[i].addToFitness(gameScore[i]);
             }
+            if (records != null)
+                writeRecord();
+            if (replaying != null && !Arrays.equals(gameScore, replaying.scores()))
+                output.append("\nThe replay's scores differ from the recorded " + Arrays.toString(replaying.scores()) + ".");
+            over = true;
         } catch (InterruptedException e) {
             output.append("\nERROR.  GAME INTERRUPTED BEFORE GAME OVER.");
             output.append("\n\nGame interrupted before game over.  Data may be damaged.");
             interrupted = true;
         }
+        // rounds dealt past the end of the game are never scored
+        for (Future<HeartsRound> ahead : roundsAhead) {
+            ahead.cancel(true);
+        }
+        event.gameId = gameId;
+        event.rounds = round - 1;
+        event.interrupted = interrupted;
+        event.commit();
+        gameEnded();
     }
 
-    private void playRound() {
-        output.append("Starting round: " + round++ + "\n");
-        tempScore = new int[4];
-        theDeck.shuffle();
-        Cards[] hands = new Cards[4];
-        for (int i = 0; i < hands.length; i++) {
-            hands[i] = new Cards();
+    private void playRound() throws InterruptedException {
+        HeartsRound played;
+        if (parallelRounds) {
+            played = nextRoundAhead();
+        } else {
+            current = new HeartsRound(gameId, round, player, deal(), passType, OWN_RULES.get(getClass()) ? this : null);
+            played = current.play();
         }
-        while (theDeck.hasCards()) {
-            for (int i = 0; i < hands.length; i++) {
-                hands[i].add(theDeck.deal());
-            }
-        }
-
-        for (int i = 0; i < hands.length; i++) {
-            output.append("Dealing Player " + i + ": " + hands[i] + "\n");
-            player[i].startRound(hands[i]);
-        }
-
-        passPhase();
-
-        int startTrick = 0;
-        for (int i = 0; i < player.length; i++) {
-            if (hasTwoOfClubs(player[i].getHand()))
-                startTrick = i;
+        if (records != null) {
+            if (dealSeed == null)
+                recordedDeals.add(played.dealt());
+            recordedDecisions.add(played.decisions());
         }
+        long start = PhaseTimer.start();
+        output.append("Starting round: " + round++ + "\n");
+        output.append(played.log());
+        PhaseTimer.stop(Phase.OUTPUT, start);
+        passType = passType.next();
+        start = PhaseTimer.start();
+        updateScores(played.scores());
+        PhaseTimer.stop(Phase.SCORE, start);
+        MetricsRegistry.get().countRound(played.tricks());
+    }
 
-        int totalTricks = hands[0].size();
-        heartsBroken = false;
-        for (trick = 1; trick <= totalTricks; trick++) {
-            startTrick = playTrick(startTrick);
+    /**
+     * Writes a record of the finished game.  Failing to write it does not stop the game, which says so in its output instead.
+     */
+    private void writeRecord() {
+        HeartsGameRecord record = new HeartsGameRecord(gameId, dealSeed, player,
+                dealSeed == null ? recordedDeals : null, recordedDecisions, gameScore.clone());
+        try {
+            records.write(record.encode());
+        } catch (IOException e) {
+            output.append("\nCould not record the game: " + e.getMessage());
         }
-
-        updateScores();
     }
 
-    private void passPhase() {
-        // pass left
-        Cards[] pass = new Cards[4];
-        if (passType == PassType.LEFT) {
-            for (int i = 0; i < 4; i++) {
-                int passTo = (i + 1) % 4;
-                pass[passTo] = player[i].passTo(passTo);
-                output.append("Player " + i + " passes Player " + passTo + " "
-                        + pass[passTo] + ".\n");
-            }
-        }
-        // pass across
-        else if (passType == PassType.ACCROSS) {
-            for (int i = 0; i < 4; i++) {
-                int passTo = (i + 2) % 4;
-                pass[passTo] = player[i].passTo(passTo);
-                output.append("Player " + i + " passes Player " + passTo + " "
-                        + pass[passTo] + ".\n");
-            }
-        }
-        // pass right
-        else if (passType == PassType.RIGHT) {
-            for (int i = 0; i < 4; i++) {
-                int passTo = (i + 3) % 4;
-                pass[passTo] = player[i].passTo(passTo);
-                output.append("Player " + i + " passes Player " + passTo + " "
-                        + pass[passTo] + ".\n");
-            }
-        } else // if(passType == PassType.NONE
-        {
-            output.append("No one passes this round.\n");
+    /**
+     * Deals the next round, from the shared generator, or if the game has a deal seed, from the seed's own stream so every game with
+     * that seed is dealt the same rounds.  A replay of a game which was not dealt from a seed is dealt the recorded hands.
+     * @return each player's hand.
+     */
+    private Cards[] deal() {
+        long start = PhaseTimer.start();
+        if (replaying != null && dealSeed == null) {
+            Cards[] hands = replaying.deal((int) dealt++);
+            PhaseTimer.stop(Phase.DEAL, start);
+            return hands;
         }
-
-        if (passType != PassType.NONE) {
-            for (int i = 0; i < pass.length; i++) {
-                player[i].receive(pass[i]);
-            }
+        Deal deal = dealSeed == null ? Deals.GENERATOR.next() : Deal.at(dealSeed, dealt, NUM_PLAYERS);
+        dealt++;
+        Cards[] hands = new Cards[NUM_PLAYERS];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = deal.cards(i);
         }
-
-        passType = passType.next();
+        PhaseTimer.stop(Phase.DEAL, start);
+        return hands;
     }
 
-    private int playTrick(int start) {
-        Cards localTrick = new Cards();
-
-        // Gather cards from players
-        for (int i = 0; i < 4; i++) {
-            Cards playableCards = possibleCards(localTrick, player[(start + i) % 4]
-                    .getHand());
-            localTrick.add(player[(start + i) % 4].nextMove(localTrick, playableCards));
-            output.append("Player " + ((start + i) % 4) + " played "
-                    + localTrick.get(localTrick.size() - 1) + "\n");
-            if (!heartsBroken && localTrick.get(i).getSuit().equals(Suit.HEARTS)) {
-                output.append("HEARTS BROKE!\n");
-                heartsBroken = true;
-            }
-        }
-
-        // Determine player who wins
-        Card bestCard = localTrick.get(0);
-        int winningPos = 0;
-        for (int i = 0; i < localTrick.size(); i++) {
-            if (bestCard.getSuit().equals(localTrick.get(i).getSuit())
-                    && bestCard.getValue().compareTo(localTrick.get(i).getValue()) < 0) {
-                bestCard = localTrick.get(i);
-                winningPos = i;
+    /**
+     * Returns the next round when rounds are played in parallel.  If no rounds are ahead of the game, the next ROUND_WORKERS rounds
+     * (or as many as are left, if the game has a round limit) are dealt, in order so a seeded game deals exactly what it would have
+     * otherwise, and each is played by its own copies of the players.
+     * @return the next round, once it has been played.
+     * @throws InterruptedException if the game is interrupted while waiting for the round.
+     */
+    private HeartsRound nextRoundAhead() throws InterruptedException {
+        if (roundsAhead.isEmpty()) {
+            int batch = ROUND_WORKERS;
+            if (roundLimit != GameSettings.NO_ROUND_LIMIT)
+                batch = Math.min(batch, roundLimit - round + 1);
+            PassType pass = passType;
+            for (int k = 0; k < batch; k++) {
+                HeartsPlayer[] copies = new HeartsPlayer[NUM_PLAYERS];
+                for (int i = 0; i < copies.length; i++) {
+                    copies[i] = player[i].copy();
+                    copies[i].startGame(i);
+                }
+                final HeartsRound ahead = new HeartsRound(gameId, round + k, copies, deal(), pass, null);
+                pass = pass.next();
+                roundsAhead.add(ROUND_POOL.submit(new Callable<HeartsRound>() {
+                    @Override
+                    public HeartsRound call() {
+                        return ahead.play();
+                    }
+                }));
             }
         }
-        winningPos = (start + winningPos) % 4; // move winning pos from position
-                                                // in trick to player who played
-                                                // it
-        output.append("Player " + winningPos + " wins the trick, taking "); // no
-                                                                            // \n
-                                                                            // on
-                                                                            // purpose
-        // Update score, clear cards
-        int origScore = tempScore[winningPos];
-        for (int i = 0; i < localTrick.size(); i++) {
-            Card card = localTrick.get(i);
-            if (card.getSuit().equals(Suit.HEARTS))
-                tempScore[winningPos] += 1;
-            else if (card.getSuit().equals(Suit.SPADES)
-                    && card.getValue().equals(Value.QUEEN))
-                tempScore[winningPos] += 13;
+        try {
+            HeartsRound played = roundsAhead.removeFirst().get();
+            played.creditExpression(player);
+            current = played;
+            return played;
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A round played in parallel failed.", e.getCause());
         }
-        output.append(tempScore[winningPos] - origScore + " points.\n");
+    }
 
-        // Inform players
+    /**
+     * @return true if a copy of each player is of the player's own class, so plays its rounds the same way.
+     */
+    private boolean copiesPlayAlike() {
         for (HeartsPlayer p : player) {
-            p.trickOver(winningPos, localTrick);
+            if (p.copy().getClass() != p.getClass())
+                return false;
         }
-        return winningPos;
+        return true;
     }
 
     /**
-     * Determines which cards can be played at this time
+     * Determines which cards can be played at this time, by the rules as they stand in the round being played.  Rounds use the
+     * CardMask rules directly, unless a subclass overrides this method, in which case its rounds ask it for every move instead, and
+     * are played one at a time, and not in batches.
      * @param trickCards the cards played so far this trick
      * @param hand the cards in the player's hand
-     * @return the set of cards available to be played
+     * @return the set of cards available to be played, lowest first
      */
     protected Cards possibleCards(Cards trickCards, Cards hand) {
-        if (trickCards.size() > 0) // respond to start of trick
-        {
-            Cards playableCards = new Cards();
-            for (Card c : hand) {
-                if (c.getSuit().equals(trickCards.get(0).getSuit()))
-                    playableCards.add(c);
-            }
-            if (playableCards.size() > 0)
-                return playableCards;
-
-            for (Card c : hand) {
-                if ((c.getSuit().equals(Suit.HEARTS) && !heartsBroken)
-                        || (c.getSuit().equals(Suit.CLUBS)
-                                && c.getValue().equals(Value.QUEEN) && trick == 1))
-                    continue; // if hearts isn't broken, no hearts. If first
-                                // trick, no Queen Clubs.
-
-                playableCards.add(c);
-            }
-
-            if (playableCards.size() > 0)
-                return playableCards;
-
-            // still can't play anything, means we get to break hearts or queen
-            // despite
-            return (Cards) hand.clone();
-        } else // starting the trick
-        {
-            Cards playableCards = new Cards();
-            if (trick == 1) {
-                for (Card c : hand) {
-                    if (c.getSuit().equals(Suit.CLUBS)
-                            && c.getValue().equals(Value.TWO)) {
-                        playableCards.add(c);
-                        return playableCards;
-                    }
-                }
-                // didn't find the two of clubs.......
-                throw new RuntimeException(
-                        "Player was expected to have the two of clubs.");
-            }
-
-            for (Card c : hand) {
-                if ((c.getSuit().equals(Suit.HEARTS) && !heartsBroken)
-                        || (isQueenOfSpades(c) && trick == 1))
-                    continue; // if hearts isn't broken, no hearts. If first
-                                // trick, no Queen Spades.
-
-                playableCards.add(c);
-            }
-
-            if (playableCards.size() > 0)
-                return playableCards;
+        HeartsRound r = current;
+        long held = CardMask.of(hand);
+        return CardMask.toCards(r == null ? HeartsRound.legalMoves(trickCards, held, 0, false) : r.legalMoves(trickCards, held));
+    }
 
-            // if can't play anything, can play anything.
-            return (Cards) hand.clone();
-        }
+    /**
+     * @return each player's score so far.
+     */
+    public int[] getGameScore() {
+        return gameScore.clone();
     }
 
     // Run Control methods
@@ -342,7 +407,7 @@ public class HeartsGameController extends GameController {
      */
     @Override
     public void runRound() {
-        runRound = true;
+        control.step(RunControl.State.STEP_ROUND);
     }
 
     /**
@@ -350,10 +415,10 @@ public class HeartsGameController extends GameController {
      */
     @Override
     public void setRunning(boolean run) {
-        running = run;
+        control.setRunning(run);
     }
 
-    private void updateScores() {
+    private void updateScores(int[] tempScore) {
         boolean moonShot = true;
         for (int i = 0; i < tempScore.length; i++) {
             if (tempScore[i] > 0 && tempScore[i] < 26) // if anyone's score is
@@ -374,11 +439,34 @@ public class HeartsGameController extends GameController {
         for (int i = 0; i < tempScore.length; i++) {
             gameScore[i] += moonShot ? 26 - tempScore[i] : tempScore[i];
             output.append("Player " + i + " score: " + gameScore[i] + "\n");
-            if (gameScore[i] >= GAME_OVER_SCORE) {
-                gameOver = true;
-                output.append("Well that's game.\n");
-            }
         }
+        // round has already been incremented past the round just played
+        boolean over = roundLimit == GameSettings.NO_ROUND_LIMIT ? maxScore() >= GAME_OVER_SCORE
+                : round > roundLimit;
+        if (over) {
+            output.append("Well that's game.\n");
+        }
+        gameOver = over;
+    }
+
+    private int maxScore() {
+        int max = 0;
+        for (int score : gameScore) {
+            max = Math.max(max, score);
+        }
+        return max;
+    }
+
+    /**
+     * Plays hearts in batches with a {@link gengames.hearts.BatchHeartsEngine BatchHeartsEngine}, unless this class overrides
+     * possibleCards, as the engine only plays by the standard rules.
+     * @see gengames.GameController#newBatch()
+     */
+    @Override
+    public GameBatch newBatch() {
+        if (OWN_RULES.get(getClass()))
+            return null;
+        return new BatchHeartsEngine(BATCH_TABLES);
     }
 
     /**
@@ -405,7 +493,7 @@ public class HeartsGameController extends GameController {
         return DUMMY_BUILDER;
     }
 
-    private enum PassType {
+    /* package */enum PassType {
         LEFT, RIGHT, ACCROSS, NONE;
         public PassType next() {
             switch (this) {
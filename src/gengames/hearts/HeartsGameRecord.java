@@ -0,0 +1,318 @@
+package gengames.hearts;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.JTextArea;
+
+import gengames.GameRecordLog;
+import gengames.PlayerBuilder;
+import gengames.Trait;
+import gengames.deck.Card;
+import gengames.deck.Cards;
+
+/**
+ * A compact record of one game of hearts, holding everything needed to replay it exactly: the kind of each player and its strategy,
+ * the deal seed or else every round's deal, and every card passed and played.  Cards are recorded as a byte each, so beyond its
+ * players' strategies a game costs a little over five bytes a trick, or six if it was not dealt from a seed.  Since the players'
+ * decisions are recorded rather than recomputed, a replay reproduces the game even if a player chose a card at random.
+ * <p>Records are written by the HeartsGameController when the GA asks for games to be recorded, and are read back with
+ * {@link #read(File)}.  {@link #replay(JTextArea, boolean)} plays a record through the HeartsGameController again, producing the
+ * same output and scores, and can be run through at full speed or a round at a time.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public final class HeartsGameRecord {
+    private static final int MAGIC = 0x47474852; // GGHR
+    private static final int VERSION = 2;
+    private static final int SEATS = HeartsGameController.NUM_PLAYERS;
+    /** Each card's owner takes two bits, four cards to a byte. */
+    private static final int DEAL_BYTES = Card.DECK_SIZE / 4;
+
+    private final long gameId;
+    private final Long dealSeed;
+    private final Kind[] kinds;
+    private final Trait[][] strategies;
+    private final List<long[]> deals;
+    private final List<byte[]> decisions;
+    private final int[] scores;
+
+    /**
+     * The kind of player in a seat, recorded so a record's strategies are read, and its players() built, by the right builder.  Any
+     * other HeartsPlayer is recorded as a HEARTS player.
+     */
+    private enum Kind {
+        HEARTS(new HeartsPlayerBuilder()), DUMMY(new DummyHeartsPlayerBuilder());
+
+        private final PlayerBuilder builder;
+
+        private Kind(PlayerBuilder b) {
+            builder = b;
+        }
+
+        private static Kind of(HeartsPlayer p) {
+            return p instanceof DummyHeartsPlayer ? DUMMY : HEARTS;
+        }
+    }
+
+    /**
+     * @param game the game's id, as given in its Flight Recorder events.
+     * @param seed the deal seed, or null if each round's deal is recorded.
+     * @param players the player in each seat.
+     * @param dealt the cards dealt to each seat in each round, as CardMasks, or null if the game was dealt from a seed.
+     * @param decided the cards passed and played in each round, as recorded by the round.
+     * @param score each seat's final score.
+     */
+    HeartsGameRecord(long game, Long seed, HeartsPlayer[] players, List<long[]> dealt, List<byte[]> decided, int[] score) {
+        this(game, seed, new Kind[SEATS], new Trait[SEATS][], dealt, decided, score);
+        for (int seat = 0; seat < SEATS; seat++) {
+            kinds[seat] = Kind.of(players[seat]);
+            strategies[seat] = players[seat].getStrategy();
+        }
+    }
+
+    private HeartsGameRecord(long game, Long seed, Kind[] kind, Trait[][] strategy, List<long[]> dealt, List<byte[]> decided,
+            int[] score) {
+        gameId = game;
+        dealSeed = seed;
+        kinds = kind;
+        strategies = strategy;
+        deals = dealt;
+        decisions = decided;
+        scores = score;
+    }
+
+    /**
+     * Reads every game recorded in a file.
+     * @param file a file games were recorded to.
+     * @return the games, in the order they finished.
+     * @throws IOException if the file cannot be read, or holds something other than records of hearts games.
+     */
+    public static List<HeartsGameRecord> read(File file) throws IOException {
+        List<HeartsGameRecord> games = new ArrayList<>();
+        for (byte[] record : GameRecordLog.read(file)) {
+            games.add(decode(record));
+        }
+        return games;
+    }
+
+    /**
+     * Decodes one record.
+     * @param record the record, as written by {@link #encode()}.
+     * @return the game.
+     * @throws IOException if the record is not of a hearts game.
+     */
+    public static HeartsGameRecord decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a record of a hearts game.");
+        int version = in.readByte();
+        if (version != VERSION)
+            throw new IOException("Cannot read version " + version + " hearts game records.");
+        long game = in.readLong();
+        Long seed = in.readBoolean() ? in.readLong() : null;
+        Kind[] kind = new Kind[SEATS];
+        Trait[][] strategy = new Trait[SEATS][];
+        for (int seat = 0; seat < SEATS; seat++) {
+            int k = in.readUnsignedByte();
+            if (k >= Kind.values().length)
+                throw new IOException("Unknown kind of hearts player " + k + ".");
+            kind[seat] = Kind.values()[k];
+            int loci = in.readUnsignedByte();
+            Trait[] sample = kind[seat].builder.genPlayer().getStrategy();
+            if (sample.length != loci)
+                throw new IOException(kind[seat] + " hearts players do not have " + loci + " loci.");
+            strategy[seat] = new Trait[loci];
+            for (int locus = 0; locus < loci; locus++) {
+                Object[] alleles = ((Enum<?>) sample[locus]).getDeclaringClass().getEnumConstants();
+                strategy[seat][locus] = (Trait) alleles[in.readUnsignedByte()];
+            }
+        }
+        int rounds = in.readUnsignedShort();
+        List<long[]> dealt = seed == null ? new ArrayList<long[]>(rounds) : null;
+        List<byte[]> decided = new ArrayList<>(rounds);
+        for (int round = 0; round < rounds; round++) {
+            if (seed == null) {
+                long[] hands = new long[SEATS];
+                for (int b = 0; b < DEAL_BYTES; b++) {
+                    int owners = in.readUnsignedByte();
+                    for (int k = 0; k < 4; k++) {
+                        hands[(owners >>> (2 * k)) & 3] |= 1L << (b * 4 + k);
+                    }
+                }
+                dealt.add(hands);
+            }
+            byte[] cards = new byte[in.readUnsignedByte()];
+            in.readFully(cards);
+            decided.add(cards);
+        }
+        int[] score = new int[SEATS];
+        for (int seat = 0; seat < SEATS; seat++) {
+            score[seat] = in.readShort();
+        }
+        return new HeartsGameRecord(game, seed, kind, strategy, dealt, decided, score);
+    }
+
+    /**
+     * Encodes the record.
+     * @return the record's bytes.
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + rounds() * (DEAL_BYTES + 72));
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(gameId);
+            out.writeBoolean(dealSeed != null);
+            if (dealSeed != null)
+                out.writeLong(dealSeed);
+            for (int seat = 0; seat < SEATS; seat++) {
+                out.writeByte(kinds[seat].ordinal());
+                out.writeByte(strategies[seat].length);
+                for (Trait t : strategies[seat]) {
+                    out.writeByte(((Enum<?>) t).ordinal());
+                }
+            }
+            out.writeShort(rounds());
+            for (int round = 0; round < rounds(); round++) {
+                if (dealSeed == null) {
+                    long[] hands = deals.get(round);
+                    for (int b = 0; b < DEAL_BYTES; b++) {
+                        int owners = 0;
+                        for (int k = 0; k < 4; k++) {
+                            owners |= owner(hands, b * 4 + k) << (2 * k);
+                        }
+                        out.writeByte(owners);
+                    }
+                }
+                byte[] cards = decisions.get(round);
+                out.writeByte(cards.length);
+                out.write(cards);
+            }
+            for (int score : scores) {
+                out.writeShort(score);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Writing to memory failed.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Replays the game through a new HeartsGameController, which plays exactly as the recorded game did and writes the same output.
+     * The replay is controlled like any game, so it can be run through at full speed or stepped a round at a time with runRound().
+     * If the replay's final scores differ from the record's, which means the rules changed since the game was recorded, it says so
+     * in its output.
+     * @param gameOutput the JTextArea to write the replay's output to.
+     * @param run true to start the replay running, false to start it paused.
+     * @return the replaying game.
+     */
+    public HeartsGameController replay(JTextArea gameOutput, boolean run) {
+        return new HeartsGameController(this, gameOutput, run);
+    }
+
+    /**
+     * Builds players with the recorded strategies, which decide for themselves how to play, rather than following the record.
+     * @return a new player for each seat.
+     */
+    public HeartsPlayer[] players() {
+        HeartsPlayer[] players = new HeartsPlayer[SEATS];
+        for (int seat = 0; seat < SEATS; seat++) {
+            players[seat] = (HeartsPlayer) kinds[seat].builder.genPlayer(strategies[seat].clone());
+        }
+        return players;
+    }
+
+    /**
+     * @return the id of the recorded game, as given in its Flight Recorder events.
+     */
+    public long gameId() {
+        return gameId;
+    }
+
+    /**
+     * @return true if the game was dealt from a seed.
+     */
+    public boolean hasDealSeed() {
+        return dealSeed != null;
+    }
+
+    /**
+     * @return the seed the game was dealt from.
+     * @throws RuntimeException if it was not dealt from a seed.
+     */
+    public long dealSeed() {
+        if (dealSeed == null)
+            throw new RuntimeException("This game was not dealt from a seed.");
+        return dealSeed;
+    }
+
+    /**
+     * @param seat a seat.
+     * @return the strategy of the player in that seat.
+     */
+    public Trait[] strategy(int seat) {
+        return strategies[seat].clone();
+    }
+
+    /**
+     * @return the number of rounds played.
+     */
+    public int rounds() {
+        return decisions.size();
+    }
+
+    /**
+     * @return each seat's final score.
+     */
+    public int[] scores() {
+        return scores.clone();
+    }
+
+    /**
+     * @return the size of the encoded record, in bytes.
+     */
+    public int size() {
+        return encode().length;
+    }
+
+    /**
+     * The cards dealt in a round of a game not dealt from a seed.
+     * @param round the round, counting from 0.
+     * @return each seat's hand, in index order as the deal would have given it.
+     */
+    Cards[] deal(int round) {
+        long[] hands = deals.get(round);
+        Cards[] cards = new Cards[SEATS];
+        for (int seat = 0; seat < SEATS; seat++) {
+            cards[seat] = new Cards();
+            for (long hand = hands[seat]; hand != 0; hand &= hand - 1) {
+                cards[seat].add(Card.of(Long.numberOfTrailingZeros(hand)));
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * @return every card passed and played in the game, in the order they were, which the players of a replay follow.
+     */
+    List<byte[]> decisions() {
+        return Collections.unmodifiableList(decisions);
+    }
+
+    private static int owner(long[] hands, int card) {
+        for (int seat = 0; seat < hands.length; seat++) {
+            if ((hands[seat] & (1L << card)) != 0)
+                return seat;
+        }
+        throw new RuntimeException("Card " + Card.of(card) + " was not dealt.");
+    }
+}
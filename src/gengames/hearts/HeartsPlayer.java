@@ -1,15 +1,13 @@
 package gengames.hearts;
 
-import java.util.ArrayList;
-import java.util.Collections;
-
 import gengames.GAFrame;
 import gengames.Player;
 import gengames.Trait;
 import gengames.deck.Card;
+import gengames.deck.CardMask;
 import gengames.deck.Cards;
 import gengames.deck.Suit;
-import gengames.deck.ValueComparator;
+import gengames.deck.Value;
 import gengames.hearts.traits.*;
 
 /**
@@ -20,10 +18,19 @@ import gengames.hearts.traits.*;
  */
 public class HeartsPlayer extends Player {
     /**
-     * The cards in the player's hand
+     * The cards in the player's hand.  Subclasses may change it like any list, the player keeps a {@link gengames.deck.CardMask
+     * CardMask} of it, for legal moves and picking cards, which follows every change
      */
     protected Cards myHand;
 
+    private static final Suit[] SUITS = Suit.values();
+    private static final Card QUEEN_OF_SPADES = Card.of(Suit.SPADES, Value.QUEEN);
+
+    /** The compiled strategy, if it has been compiled, see StrategyCompiler */
+    private StrategyCompiler.Decisions decisions;
+    /** The strategy array decisions was compiled from, so a mutated strategy falls back to being interpreted */
+    private Trait[] compiledStrategy;
+
     // Tracking variables
     private int myIndex;
     @SuppressWarnings("unused")
@@ -74,7 +81,39 @@ public class HeartsPlayer extends Player {
     private static final int PBNHMN = 32;
     private static final int PBNEMN = 33;
 
-    private static final int TRAIT_SIZE = 34;
+    /* package */static final int TRAIT_SIZE = 34;
+
+    /** Whether a class of player overrides nextMove(Cards, Cards), and so is asked for its moves through it. */
+    private static final ClassValue<Boolean> MOVES_BY_LIST = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("nextMove", Cards.class, Cards.class).getDeclaringClass() != HeartsPlayer.class;
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException("HeartsPlayer has no nextMove(Cards, Cards).", e);
+            }
+        }
+    };
+
+    // Situation flags, which decide the trait followed for each move
+    /** The player is leading the trick */
+    /* package */static final int LEADING = 1;
+    /** The player has seen a heart taken this round */
+    /* package */static final int HEARTS_BROKEN = 1 << 1;
+    /** The player has seen the queen of spades taken this round */
+    /* package */static final int QUEEN_PLAYED = 1 << 2;
+    /** More than one player has taken hearts this round */
+    /* package */static final int MULTIPLE_HEARTS = 1 << 3;
+    /** The player took the queen of spades */
+    /* package */static final int TOOK_QUEEN = 1 << 4;
+    /** The player held the queen of spades before passing */
+    /* package */static final int HAD_QUEEN = 1 << 5;
+    /** The player holds the queen of spades */
+    /* package */static final int HOLDING_QUEEN = 1 << 6;
+    /** The player who took the queen also took the first heart */
+    /* package */static final int MOON_RISK = 1 << 7;
+    /** The number of distinct situations */
+    /* package */static final int SITUATIONS = 1 << 8;
 
     /**
      * Do-nothing constructor for DummyPlayer to extend.
@@ -94,6 +133,47 @@ public class HeartsPlayer extends Player {
         strategy = str;
     }
 
+    /**
+     * Constructs a new player with the same strategy, but none of this player's game state or fitness, to play a round of this
+     * player's game in parallel with the others.
+     * @return a copy of this player.
+     */
+    /* package */HeartsPlayer copy() {
+        HeartsPlayer copy = new HeartsPlayer(strategy);
+        copy.decisions = decisions;
+        copy.compiledStrategy = compiledStrategy;
+        return copy;
+    }
+
+    /**
+     * Compiles the player's strategy, so its decisions are made by code specialised to its traits rather than by interpreting them.
+     * The player plays exactly as it would otherwise.
+     */
+    /* package */void compile() {
+        compiledStrategy = strategy;
+        decisions = StrategyCompiler.compile(strategy);
+    }
+
+    /**
+     * Adds the expression a {@link BatchHeartsEngine} counted while following this player's strategy.
+     * @param counts the number of times each locus was expressed, TRAIT_SIZE of them starting at from.
+     * @param from the index of the player's first locus in counts.
+     */
+    /* package */void addExpression(int[] counts, int from) {
+        for (int l = 0; l < TRAIT_SIZE; l++) {
+            if (counts[from + l] != 0)
+                express(l, counts[from + l]);
+        }
+    }
+
+    /**
+     * Takes over the expression counted by a copy of this player, once the copy's round has been scored.
+     * @param copy a player returned by copy().
+     */
+    /* package */void absorb(HeartsPlayer copy) {
+        addExpression(copy);
+    }
+
     /**
      * Indicates to the player a game is starting, and defines its numerical position at the table.
      * @param index the player's position in the game.
@@ -108,7 +188,7 @@ public class HeartsPlayer extends Player {
      * @param hand the cards in the player's hand.
      */
     public void startRound(Cards hand) {
-        myHand = hand;
+        myHand = new Hand(hand);
         passedTo = -1;
         passedQueen = false;
         queenPlayed = false;
@@ -127,12 +207,14 @@ public class HeartsPlayer extends Player {
     public Cards passTo(int player) {
         passedTo = player;
         Cards pass = new Cards();
-        Cards possible = (Cards) myHand.clone();
+        long possible = getHandMask();
         int toPass = 3;
         Card queen = queenOfSpades();
         if (queen != null) {
             hadQueen = true;
         }
+        if (queen != null)
+            express(PassWithQueen);
         if (queen != null
                 && (PassingQueen) strategy[PassWithQueen] == PassingQueen.LOSEQUEEN) {
             toPass--;
@@ -140,16 +222,18 @@ public class HeartsPlayer extends Player {
             passedQueen = true;
         }
         if (queen != null)
-            possible.remove(queen);
+            possible &= ~queen.mask();
 
+        express(Passing);
         for (int i = 0; i < toPass; i++) {
-            Card pick = pickCard((NormalTrait) strategy[Passing], possible);
+            Card pick = pick(Passing, possible);
             pass.add(pick);
-            possible.remove(pick);
+            possible &= ~pick.mask();
         }
 
-        for (Card c : pass)
-            myHand.remove(c);
+        for (Card c : pass) {
+            removeFromHand(c);
+        }
 
         return pass;
     }
@@ -162,179 +246,258 @@ public class HeartsPlayer extends Player {
         myHand.addAll(cards);
     }
 
-    private static Card pickCard(NormalTrait trait, Cards possible) {
-        Collections.sort(possible, new ValueComparator());
+    /**
+     * Picks a card as the trait at a locus directs, by the compiled strategy if there is one for the current strategy.
+     */
+    /* package */Card pick(int locus, long possible) {
+        if (decisions != null && compiledStrategy == strategy) {
+            return decisions.decide(locus, possible);
+        }
+        return pickCard((NormalTrait) strategy[locus], possible);
+    }
+
+    /**
+     * Picks a card as the trait directs.  The possible cards are a mask, so the lowest and highest cards overall or within a suit, and
+     * the size of each suit, are found with bit operations rather than by sorting and splitting lists.  Choices between cards are
+     * made exactly as if the possible cards were sorted by the {@link gengames.deck.ValueComparator ValueComparator}.
+     */
+    /* package */static Card pickCard(NormalTrait trait, long possible) {
         switch (trait) {
         case HIGHEST:
-            return possible.get(possible.size() - 1);
+            return CardMask.highest(possible);
         case LOWEST:
-            return possible.get(0);
+            return CardMask.lowest(possible);
         case SMALLESTSUITLOW:
-            return smallestSuit(possible).get(0);
+            return CardMask.lowest(smallestSuit(possible));
         case LARGESTSUITLOW:
-            return largestSuit(possible).get(0);
+            return CardMask.lowest(largestSuit(possible));
         case SMALLESTSUITHIGH:
-            Cards cards = smallestSuit(possible);
-            return cards.get(cards.size() - 1);
+            return CardMask.highest(smallestSuit(possible));
         case LARGESTSUITHIGH:
-            cards = largestSuit(possible);
-            return cards.get(cards.size() - 1);
+            return CardMask.highest(largestSuit(possible));
         case LOWHEARTS:
-            Cards ret = getSuit(possible, Suit.HEARTS);
-            if (ret.size() == 0)
-                return possible.get(GAFrame.rnd.nextInt(possible.size()));
-            return ret.get(0);
+            return lowestOf(possible, Suit.HEARTS);
         case LOWSPADES:
-            ret = getSuit(possible, Suit.SPADES);
-            if (ret.size() == 0)
-                return possible.get(GAFrame.rnd.nextInt(possible.size()));
-            return ret.get(0);
+            return lowestOf(possible, Suit.SPADES);
         case HIGHHEARTS:
-            ret = getSuit(possible, Suit.HEARTS);
-            if (ret.size() == 0)
-                return possible.get(GAFrame.rnd.nextInt(possible.size()));
-            return ret.get(ret.size() - 1);
+            return highestOf(possible, Suit.HEARTS);
         case HIGHSPADES:
-            ret = getSuit(possible, Suit.SPADES);
-            if (ret.size() == 0)
-                return possible.get(GAFrame.rnd.nextInt(possible.size()));
-            return ret.get(ret.size() - 1);
+            return highestOf(possible, Suit.SPADES);
         case RANDOM:
-            return possible.get(GAFrame.rnd.nextInt(possible.size()));
+            return randomCard(possible);
         default:
             throw new RuntimeException("Unexpected trait.");
         }
     }
 
     /**
-     * Given the trick, and the set of cards known to be playable, determines the appropriate card to play.
+     * @return the lowest possible card of the suit, or if there are none a random possible card.
+     */
+    /* package */static Card lowestOf(long possible, Suit suit) {
+        long ret = CardMask.ofSuit(possible, suit);
+        if (ret == 0)
+            return randomCard(possible);
+        return CardMask.lowest(ret);
+    }
+
+    /**
+     * @return the highest possible card of the suit, or if there are none a random possible card.
+     */
+    /* package */static Card highestOf(long possible, Suit suit) {
+        long ret = CardMask.ofSuit(possible, suit);
+        if (ret == 0)
+            return randomCard(possible);
+        return CardMask.highest(ret);
+    }
+
+    /* package */static Card randomCard(long possible) {
+        return CardMask.get(possible, GAFrame.rnd.nextInt(CardMask.size(possible)));
+    }
+
+    /**
+     * Given the trick, and the set of cards known to be playable, determines the appropriate card to play.  Rounds ask players for
+     * their moves through nextMove(Cards, long), which calls this method instead for a subclass which overrides it.
      * @param trick the cards played thus far in the trick.
      * @param playableCards the cards the player can play.
      * @return the card the player choses to play.
      */
     public Card nextMove(Cards trick, Cards playableCards) {
-        NormalTrait tr = identifyCase(trick);
-        Card ret = pickCard(tr, playableCards);
-        int size = myHand.size();
-        myHand.remove(ret);
-        if (size == myHand.size())
-            System.err.println("If trait is " + tr + " trick is " + trick
-                    + " and choices are " + playableCards
+        return decide(trick, CardMask.of(playableCards));
+    }
+
+    /**
+     * Given the trick, and the set of cards known to be playable, determines the appropriate card to play.  If the player's class
+     * overrides nextMove(Cards, Cards) the move is left to it, so subclasses written against that method still play their own moves.
+     * @param trick the cards played thus far in the trick.
+     * @param playable the cards the player can play, as a {@link gengames.deck.CardMask CardMask}.
+     * @return the card the player choses to play.
+     */
+    public Card nextMove(Cards trick, long playable) {
+        if (MOVES_BY_LIST.get(getClass()))
+            return nextMove(trick, CardMask.toCards(playable));
+        return decide(trick, playable);
+    }
+
+    /**
+     * Plays the card the player's strategy picks.
+     * @param trick the cards played thus far in the trick.
+     * @param playable the cards the player can play, as a CardMask.
+     * @return the card played.
+     */
+    private Card decide(Cards trick, long playable) {
+        int locus = identifyCase(situation(trick));
+        express(locus);
+        Card ret = pick(locus, playable);
+        if (!removeFromHand(ret))
+            System.err.println("If trait is " + strategy[locus] + " trick is " + trick
+                    + " and choices are " + CardMask.toCards(playable)
                     + " we failed to remove anything.");
         return ret;
     }
 
-    private NormalTrait identifyCase(Cards trick) {
-        if (trick.size() == 0)// Starting Trick
+    /**
+     * Describes the player's situation for identifyCase, as a set of the situation flags.
+     * @param trick the cards played thus far in the trick.
+     * @return the flags which hold.
+     */
+    private int situation(Cards trick) {
+        int situation = 0;
+        if (trick.size() == 0)
+            situation |= LEADING;
+        if (heartsBroken)
+            situation |= HEARTS_BROKEN;
+        if (queenPlayed)
+            situation |= QUEEN_PLAYED;
+        if (multipleHearts)
+            situation |= MULTIPLE_HEARTS;
+        if (tookQueen == myIndex)
+            situation |= TOOK_QUEEN;
+        if (hadQueen)
+            situation |= HAD_QUEEN;
+        if (queenOfSpades() != null)
+            situation |= HOLDING_QUEEN;
+        if (tookQueen == tookFirstHeart)
+            situation |= MOON_RISK;
+        return situation;
+    }
+
+    /**
+     * Finds the locus of the trait which decides the next move.  This depends only on the situation, so it can be shared with
+     * other ways of playing, like the {@link BatchHeartsEngine}.
+     * @param situation the flags describing the player's situation, see situation().
+     * @return the index of the trait to follow.
+     */
+    /* package */static int identifyCase(int situation) {
+        if ((situation & LEADING) != 0)// Starting Trick
         {
-            if (heartsBroken)// Hearts Broken
+            if ((situation & HEARTS_BROKEN) != 0)// Hearts Broken
             {
-                if (queenPlayed)// Queen has been played
+                if ((situation & QUEEN_PLAYED) != 0)// Queen has been played
                 {
                     // queen cannot be in hand at this point (disregard H/E
                     // cases)
 
-                    if (multipleHearts)// multiple players have hearts
+                    if ((situation & MULTIPLE_HEARTS) != 0)// multiple players have hearts
                     {
-                        if (tookQueen == myIndex)// I took the queen already
+                        if ((situation & TOOK_QUEEN) != 0)// I took the queen already
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[SBPHSQ];
+                                return SBPHSQ;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[SBPESQ];
+                                return SBPESQ;
                             }
 
                         } else// someone else took the queen already
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[SBPHSN];
+                                return SBPHSN;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[SBPESN];
+                                return SBPESN;
                             }
                         }
                     } else// one player has hearts
                     {
-                        if (tookQueen == myIndex)// I took the queen already
+                        if ((situation & TOOK_QUEEN) != 0)// I took the queen already
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[SBPHSQ];
+                                return SBPHSQ;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[SBPESQ];
+                                return SBPESQ;
                             }
                         } else// someone else took the queen already
                         {
-                            if (tookQueen == tookFirstHeart)// this player could
+                            if ((situation & MOON_RISK) != 0)// this player could
                                                             // shoot the moon
                             {
-                                if (hadQueen)// I had the queen to start
+                                if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                                 {
-                                    return (NormalTrait) strategy[SBPHMN];
+                                    return SBPHMN;
                                 } else// another player had the queen to start
                                 {
-                                    return (NormalTrait) strategy[SBPEMN];
+                                    return SBPEMN;
                                 }
                             } else// one has the queen, another took hearts, no
                                     // moon risk
                             {
-                                if (hadQueen)// I had the queen to start
+                                if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                                 {
-                                    return (NormalTrait) strategy[SBPHSN];
+                                    return SBPHSN;
                                 } else// another player had the queen to start
                                 {
-                                    return (NormalTrait) strategy[SBPESN];
+                                    return SBPESN;
                                 }
                             }
                         }
                     }
                 } else// Queen has not been played
                 {
-                    if (queenOfSpades() != null)// queen is in hand
+                    if ((situation & HOLDING_QUEEN) != 0)// queen is in hand
                     {
-                        if (multipleHearts)// multiple players have hearts
+                        if ((situation & MULTIPLE_HEARTS) != 0)// multiple players have hearts
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[SBNHSN];
+                                return SBNHSN;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[SBNESN];
+                                return SBNESN;
                             }
                         } else// one player has hearts
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[SBNHMN];
+                                return SBNHMN;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[SBNEMN];
+                                return SBNEMN;
                             }
                         }
                     } else// queen is not in hand
                     {
-                        if (multipleHearts)// multiple players have hearts
+                        if ((situation & MULTIPLE_HEARTS) != 0)// multiple players have hearts
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[SBNHSN];
+                                return SBNHSN;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[SBNESN];
+                                return SBNESN;
                             }
 
                         } else// one player has hearts
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[SBNHMN];
+                                return SBNHMN;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[SBNEMN];
+                                return SBNEMN;
                             }
                         }
                     }
@@ -343,50 +506,50 @@ public class HeartsPlayer extends Player {
             {
                 // nobody can have hearts at this point
 
-                if (queenPlayed)// Queen has been played
+                if ((situation & QUEEN_PLAYED) != 0)// Queen has been played
                 {
                     // queen cannot be in hand at this point
-                    if (tookQueen == myIndex)// I took the queen already
+                    if ((situation & TOOK_QUEEN) != 0)// I took the queen already
                     {
-                        if (hadQueen)// I had the queen to start
+                        if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                         {
-                            return (NormalTrait) strategy[SNPHSQ];
+                            return SNPHSQ;
                         } else// another player had the queen to start
                         {
-                            return (NormalTrait) strategy[SNPESQ];
+                            return SNPESQ;
                         }
                     } else// someone else took the queen already
                     {
-                        if (hadQueen)// I had the queen to start
+                        if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                         {
-                            return (NormalTrait) strategy[SNPHMN];
+                            return SNPHMN;
                         } else// another player had the queen to start
                         {
-                            return (NormalTrait) strategy[SNPEMN];
+                            return SNPEMN;
                         }
 
                     }
 
                 } else// Queen has not been played
                 {
-                    if (queenOfSpades() != null)// queen is in hand
+                    if ((situation & HOLDING_QUEEN) != 0)// queen is in hand
                     {
-                        if (hadQueen)// I had the queen to start
+                        if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                         {
-                            return (NormalTrait) strategy[SNNHMN];
+                            return SNNHMN;
                         } else// another player had the queen to start
                         {
-                            return (NormalTrait) strategy[SNNEMN];
+                            return SNNEMN;
                         }
 
                     } else// queen is not in hand
                     {
-                        if (hadQueen)// I had the queen to start
+                        if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                         {
-                            return (NormalTrait) strategy[SNNHMN];
+                            return SNNHMN;
                         } else// another player had the queen to start
                         {
-                            return (NormalTrait) strategy[SNNEMN];
+                            return SNNEMN;
                         }
 
                     }
@@ -394,70 +557,70 @@ public class HeartsPlayer extends Player {
             }
         } else// In Play
         {
-            if (heartsBroken)// Hearts Broken
+            if ((situation & HEARTS_BROKEN) != 0)// Hearts Broken
             {
-                if (queenPlayed)// Queen has been played
+                if ((situation & QUEEN_PLAYED) != 0)// Queen has been played
                 {
                     // queen cannot be in hand at this point (disregard H/E
                     // cases)
 
-                    if (multipleHearts)// multiple players have hearts
+                    if ((situation & MULTIPLE_HEARTS) != 0)// multiple players have hearts
                     {
-                        if (tookQueen == myIndex)// I took the queen already
+                        if ((situation & TOOK_QUEEN) != 0)// I took the queen already
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[PBPHSQ];
+                                return PBPHSQ;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[PBPESQ];
+                                return PBPESQ;
                             }
 
                         } else// someone else took the queen already
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[PBPHSN];
+                                return PBPHSN;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[PBPESN];
+                                return PBPESN;
                             }
 
                         }
                     } else// one player has hearts
                     {
-                        if (tookQueen == myIndex)// I took the queen already
+                        if ((situation & TOOK_QUEEN) != 0)// I took the queen already
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[PBPHSQ];
+                                return PBPHSQ;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[PBPESQ];
+                                return PBPESQ;
                             }
 
                         } else// someone else took the queen already
                         {
-                            if (tookQueen == tookFirstHeart)// this player could
+                            if ((situation & MOON_RISK) != 0)// this player could
                                                             // shoot the moon
                             {
-                                if (hadQueen)// I had the queen to start
+                                if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                                 {
-                                    return (NormalTrait) strategy[PBPHMN];
+                                    return PBPHMN;
                                 } else// another player had the queen to start
                                 {
-                                    return (NormalTrait) strategy[PBPEMN];
+                                    return PBPEMN;
                                 }
 
                             } else// one has the queen, another took hearts, no
                                     // moon risk
                             {
-                                if (hadQueen)// I had the queen to start
+                                if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                                 {
-                                    return (NormalTrait) strategy[PBPHSN];
+                                    return PBPHSN;
                                 } else// another player had the queen to start
                                 {
-                                    return (NormalTrait) strategy[PBPESN];
+                                    return PBPESN;
                                 }
 
                             }
@@ -465,47 +628,47 @@ public class HeartsPlayer extends Player {
                     }
                 } else// Queen has not been played
                 {
-                    if (queenOfSpades() != null)// queen is in hand
+                    if ((situation & HOLDING_QUEEN) != 0)// queen is in hand
                     {
-                        if (multipleHearts)// multiple players have hearts
+                        if ((situation & MULTIPLE_HEARTS) != 0)// multiple players have hearts
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[PBNHSN];
+                                return PBNHSN;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[PBNESN];
+                                return PBNESN;
                             }
                         } else// one player has hearts
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[PBNHMN];
+                                return PBNHMN;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[PBNEMN];
+                                return PBNEMN;
                             }
                         }
                     } else// queen is not in hand
                     {
-                        if (multipleHearts)// multiple players have hearts
+                        if ((situation & MULTIPLE_HEARTS) != 0)// multiple players have hearts
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[PBNHSN];
+                                return PBNHSN;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[PBNESN];
+                                return PBNESN;
                             }
 
                         } else// one player has hearts
                         {
-                            if (hadQueen)// I had the queen to start
+                            if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                             {
-                                return (NormalTrait) strategy[PBNHMN];
+                                return PBNHMN;
                             } else// another player had the queen to start
                             {
-                                return (NormalTrait) strategy[PBNEMN];
+                                return PBNEMN;
                             }
                         }
                     }
@@ -514,51 +677,51 @@ public class HeartsPlayer extends Player {
             {
                 // nobody can have hearts at this point
 
-                if (queenPlayed)// Queen has been played
+                if ((situation & QUEEN_PLAYED) != 0)// Queen has been played
                 {
                     // queen cannot be in hand at this point
-                    if (tookQueen == myIndex)// I took the queen already
+                    if ((situation & TOOK_QUEEN) != 0)// I took the queen already
                     {
-                        if (hadQueen)// I had the queen to start
+                        if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                         {
-                            return (NormalTrait) strategy[PNPHSQ];
+                            return PNPHSQ;
                         } else// another player had the queen to start
                         {
-                            return (NormalTrait) strategy[PNPESQ];
+                            return PNPESQ;
                         }
 
                     } else// someone else took the queen already
                     {
-                        if (hadQueen)// I had the queen to start
+                        if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                         {
-                            return (NormalTrait) strategy[PNPHMN];
+                            return PNPHMN;
                         } else// another player had the queen to start
                         {
-                            return (NormalTrait) strategy[PNPEMN];
+                            return PNPEMN;
                         }
 
                     }
 
                 } else// Queen has not been played
                 {
-                    if (queenOfSpades() != null)// queen is in hand
+                    if ((situation & HOLDING_QUEEN) != 0)// queen is in hand
                     {
-                        if (hadQueen)// I had the queen to start
+                        if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                         {
-                            return (NormalTrait) strategy[PNNHMN];
+                            return PNNHMN;
                         } else// another player had the queen to start
                         {
-                            return (NormalTrait) strategy[PNNEMN];
+                            return PNNEMN;
                         }
 
                     } else// queen is not in hand
                     {
-                        if (hadQueen)// I had the queen to start
+                        if ((situation & HAD_QUEEN) != 0)// I had the queen to start
                         {
-                            return (NormalTrait) strategy[PNNHMN];
+                            return PNNHMN;
                         } else// another player had the queen to start
                         {
-                            return (NormalTrait) strategy[PNNEMN];
+                            return PNNEMN;
                         }
                     }
                 }
@@ -596,61 +759,27 @@ public class HeartsPlayer extends Player {
         }
     }
 
-    private static Cards getSuit(Cards set, Suit suit) {
-        Cards cards = new Cards();
-        for (Card c : set) {
-            if (c.getSuit().equals(suit))
-                cards.add(c);
-        }
-        return cards;
-    }
-
-    private static Cards selectSuit(Cards possible, boolean smallest) {
-
-        ArrayList<Cards> suits = new ArrayList<>();
-        ArrayList<Cards> nonEmptySuits = new ArrayList<>();
-
-        suits.add(new Cards()); // clubs
-        suits.add(new Cards()); // diamonds
-        suits.add(new Cards()); // spades
-        suits.add(new Cards()); // hearts
-        for (Card c : possible) {
-            switch (c.getSuit()) {
-            case CLUBS:
-                suits.get(0).add(c);
-                break;
-            case DIAMONDS:
-                suits.get(1).add(c);
-                break;
-            case SPADES:
-                suits.get(2).add(c);
-                break;
-            case HEARTS:
-                suits.get(3).add(c);
-                break;
-            }
-        }
-
-        for (Cards suit : suits) {
-            if (suit.size() > 0)
-                nonEmptySuits.add(suit);
-        }
-
-        int selected = 0;
-        for (int i = 0; i < nonEmptySuits.size(); i++) {
-            boolean smaller = nonEmptySuits.get(i).size() < nonEmptySuits.get(
-                    selected).size();
-            if (smallest && smaller || !smallest && !smallest)
-                selected = i;
+    /**
+     * Selects the cards of one suit.  As it always has, asking for the largest suit selects the last suit (in Suit order) with any
+     * possible cards.
+     */
+    private static long selectSuit(long possible, boolean smallest) {
+        long selected = 0;
+        for (Suit s : SUITS) {
+            long suit = CardMask.ofSuit(possible, s);
+            if (suit == 0)
+                continue;
+            if (selected == 0 || !smallest || Long.bitCount(suit) < Long.bitCount(selected))
+                selected = suit;
         }
-        return nonEmptySuits.get(selected);
+        return selected;
     }
 
-    private static Cards largestSuit(Cards possible) {
+    /* package */static long largestSuit(long possible) {
         return selectSuit(possible, false);
     }
 
-    private static Cards smallestSuit(Cards possible) {
+    /* package */static long smallestSuit(long possible) {
         return selectSuit(possible, true);
     }
 
@@ -662,6 +791,69 @@ public class HeartsPlayer extends Player {
         return myHand;
     }
 
+    /**
+     * Returns the contents of the player's hand as a {@link gengames.deck.CardMask CardMask}.
+     * @return the player's hand.
+     */
+    public long getHandMask() {
+        Cards h = myHand;
+        return h instanceof Hand ? ((Hand) h).mask() : CardMask.of(h);
+    }
+
+    /**
+     * Removes a card from the player's hand.
+     * @param c the card.
+     * @return true if the card was in the hand.
+     */
+    protected boolean removeFromHand(Card c) {
+        Cards h = myHand;
+        return h instanceof Hand ? ((Hand) h).removeCard(c) : h.remove(c);
+    }
+
+    /**
+     * A hand which keeps a CardMask of its cards.  The mask is updated as the player removes cards, and otherwise worked out again
+     * the next time it is needed after the list has changed, however a subclass changed it.
+     */
+    private static final class Hand extends Cards {
+        private static final long serialVersionUID = 1L;
+        private long mask;
+        /** The modCount the mask is up to date with. */
+        private int masked = -1;
+
+        Hand(Cards cards) {
+            addAll(cards);
+        }
+
+        long mask() {
+            if (masked != modCount) {
+                mask = CardMask.of(this);
+                masked = modCount;
+            }
+            return mask;
+        }
+
+        boolean removeCard(Card c) {
+            long before = mask();
+            if ((before & c.mask()) == 0)
+                return false;
+            remove(c);
+            mask = before & ~c.mask();
+            masked = modCount;
+            return true;
+        }
+
+        /**
+         * Replacing a card does not change modCount, so is counted as a change here.
+         * @see java.util.ArrayList#set(int, java.lang.Object)
+         */
+        @Override
+        public Card set(int index, Card element) {
+            Card old = super.set(index, element);
+            modCount++;
+            return old;
+        }
+    }
+
     /**
      * Compares this player with another player to determine genetic superiority.
      * @param other the player to compare with.
@@ -712,10 +904,8 @@ public class HeartsPlayer extends Player {
      */
     // tests if has card, returns it if it does
     public Card queenOfSpades() {
-        for (Card c : myHand) {
-            if (HeartsGameController.isQueenOfSpades(c))
-                return c;
-        }
+        if ((getHandMask() & QUEEN_OF_SPADES.mask()) != 0 && HeartsGameController.isQueenOfSpades(QUEEN_OF_SPADES))
+            return QUEEN_OF_SPADES;
         return null;
     }
 
@@ -799,6 +989,14 @@ public class HeartsPlayer extends Player {
         }
     }
 
+    /**
+     * @see gengames.Player#locusName(int) Player
+     */
+    @Override
+    public String locusName(int locus) {
+        return getCase(locus);
+    }
+
     /**
      * Indicates the expected size of the trait array.
      * @see gengames.Player#traitSize() Player
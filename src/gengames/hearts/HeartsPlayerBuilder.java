@@ -12,6 +12,32 @@ import gengames.hearts.traits.PassingQueen;
  * @see gengames.PlayerBuilder PlayerBuilder
  */
 public class HeartsPlayerBuilder extends PlayerBuilder {
+    private final boolean compileStrategies;
+
+    /**
+     * Constructs a builder of players which interpret their strategies.
+     */
+    public HeartsPlayerBuilder() {
+        this(false);
+    }
+
+    /**
+     * Constructs a builder which may compile its players' strategies into decision code specialised to their traits, rather than
+     * having them interpret their traits for every decision.  Compiling costs some time per distinct strategy, so it is best suited to
+     * long evaluations of a fixed set of strategies, such as an elite.  Players play exactly the same either way.
+     * @param compile true to compile the strategies of the players built.
+     */
+    public HeartsPlayerBuilder(boolean compile) {
+        compileStrategies = compile;
+    }
+
+    /**
+     * @see gengames.PlayerBuilder#compiling()
+     */
+    @Override
+    public HeartsPlayerBuilder compiling() {
+        return compileStrategies ? this : new HeartsPlayerBuilder(true);
+    }
 
     /**
      * @see gengames.PlayerBuilder#genPlayer()
@@ -24,7 +50,7 @@ public class HeartsPlayerBuilder extends PlayerBuilder {
             arr[i] = NormalTrait.HIGHEST.pickOne();
         }
 
-        return new HeartsPlayer(arr);
+        return genPlayer(arr);
     }
 
     /**
@@ -32,7 +58,10 @@ public class HeartsPlayerBuilder extends PlayerBuilder {
      */
     @Override
     public HeartsPlayer genPlayer(Trait[] str) {
-        return new HeartsPlayer(str);
+        HeartsPlayer player = new HeartsPlayer(str);
+        if (compileStrategies)
+            player.compile();
+        return player;
     }
 
 }
@@ -0,0 +1,323 @@
+package gengames.hearts;
+
+import java.util.Arrays;
+
+import gengames.deck.Card;
+import gengames.deck.CardMask;
+import gengames.deck.Cards;
+import gengames.deck.Suit;
+import gengames.deck.Value;
+import gengames.hearts.HeartsGameController.PassType;
+import gengames.metrics.Phase;
+import gengames.metrics.PhaseTimer;
+import gengames.metrics.RoundEvent;
+import gengames.metrics.TrickEvent;
+
+/**
+ * One round of hearts, from passing through the last trick.  Rounds depend on each other only through the game score and the pass
+ * type, and each player's state is reset by startRound, so a round can be played on its own, even concurrently with other rounds of
+ * the same game as long as each round has its own player instances.  The round's output is kept in a log, rather than written to the
+ * game output directly, so concurrent rounds can be reported in order.  Every card passed and played is also recorded, a byte each, so
+ * the round can be kept in a {@link gengames.hearts.HeartsGameRecord HeartsGameRecord} and replayed exactly.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ * @see gengames.hearts.HeartsGameController HeartsGameController
+ */
+/* package */class HeartsRound {
+    private static final long HEARTS = CardMask.suit(Suit.HEARTS);
+    private static final long TWO_OF_CLUBS = Card.of(Suit.CLUBS, Value.TWO).mask();
+    private static final long QUEEN_OF_CLUBS = Card.of(Suit.CLUBS, Value.QUEEN).mask();
+
+    private final long gameId;
+    private final int number;
+    private final HeartsPlayer[] player;
+    private final Cards[] hands;
+    private final PassType passType;
+    /** The controller deciding the legal moves, or null if legalMoves does. */
+    private final HeartsGameController rules;
+    private final int[] tempScore = new int[4];
+    private final StringBuilder log = new StringBuilder();
+    /** Each seat's pass, as a count and then the cards passed, followed by every card played in order, as card indexes. */
+    private final byte[] decisions = new byte[4 + 2 * Card.DECK_SIZE];
+    private int decided;
+    private int trick;
+    private boolean heartsBroken;
+
+    /**
+     * Sets up a round to be played.
+     * @param game identifies the game the round is part of, for Flight Recorder events.
+     * @param round the number of the round within the game.
+     * @param players the players, already told their positions by startGame.
+     * @param dealt the hand dealt to each player.
+     * @param pass which way cards are passed this round.
+     * @param rules the controller whose possibleCards decides the legal moves, for a controller which overrides it, or null to use
+     *        legalMoves.
+     */
+    HeartsRound(long game, int round, HeartsPlayer[] players, Cards[] dealt, PassType pass, HeartsGameController rules) {
+        gameId = game;
+        number = round;
+        player = players;
+        hands = dealt;
+        passType = pass;
+        this.rules = rules;
+    }
+
+    /**
+     * Plays the round.
+     * @return this round, for convenience.
+     */
+    HeartsRound play() {
+        RoundEvent event = new RoundEvent();
+        event.begin();
+        for (int i = 0; i < hands.length; i++) {
+            log.append("Dealing Player " + i + ": " + hands[i] + "\n");
+            player[i].startRound(hands[i]);
+        }
+
+        long start = PhaseTimer.start();
+        passPhase();
+        PhaseTimer.stop(Phase.PASS, start);
+
+        int startTrick = 0;
+        for (int i = 0; i < player.length; i++) {
+            if ((player[i].getHandMask() & TWO_OF_CLUBS) != 0)
+                startTrick = i;
+        }
+
+        int totalTricks = hands[0].size();
+        heartsBroken = false;
+        for (trick = 1; trick <= totalTricks; trick++) {
+            TrickEvent trickEvent = new TrickEvent();
+            trickEvent.begin();
+            start = PhaseTimer.start();
+            startTrick = playTrick(startTrick);
+            PhaseTimer.stop(Phase.TRICK, start);
+            if (trickEvent.shouldCommit()) {
+                trickEvent.gameId = gameId;
+                trickEvent.round = number;
+                trickEvent.trick = trick;
+                trickEvent.commit();
+            }
+        }
+        event.gameId = gameId;
+        event.round = number;
+        event.commit();
+        return this;
+    }
+
+    /**
+     * @return the points each player took this round, before accounting for shooting the moon.
+     */
+    int[] scores() {
+        return tempScore;
+    }
+
+    /**
+     * Credits the players a round was played for with the loci their copies expressed in it.
+     * @param originals the players, in the same seats as this round's copies of them.
+     */
+    void creditExpression(HeartsPlayer[] originals) {
+        for (int i = 0; i < originals.length; i++) {
+            originals[i].absorb(player[i]);
+        }
+    }
+
+    /**
+     * @return the cards dealt to each player, as {@link gengames.deck.CardMask CardMasks}.
+     */
+    long[] dealt() {
+        long[] dealt = new long[hands.length];
+        for (int i = 0; i < hands.length; i++) {
+            dealt[i] = CardMask.of(hands[i]);
+        }
+        return dealt;
+    }
+
+    /**
+     * @return the cards passed and played this round, in the order they were, as recorded for a {@link HeartsGameRecord}.
+     */
+    byte[] decisions() {
+        return Arrays.copyOf(decisions, decided);
+    }
+
+    /**
+     * @return the number of tricks played.
+     */
+    int tricks() {
+        return trick - 1;
+    }
+
+    /**
+     * @return the output of the round.
+     */
+    String log() {
+        return log.toString();
+    }
+
+    private void passPhase() {
+        // pass left
+        Cards[] pass = new Cards[4];
+        if (passType == PassType.LEFT) {
+            for (int i = 0; i < 4; i++) {
+                int passTo = (i + 1) % 4;
+                pass[passTo] = player[i].passTo(passTo);
+                recordPass(pass[passTo]);
+                log.append("Player " + i + " passes Player " + passTo + " "
+                        + pass[passTo] + ".\n");
+            }
+        }
+        // pass across
+        else if (passType == PassType.ACCROSS) {
+            for (int i = 0; i < 4; i++) {
+                int passTo = (i + 2) % 4;
+                pass[passTo] = player[i].passTo(passTo);
+                recordPass(pass[passTo]);
+                log.append("Player " + i + " passes Player " + passTo + " "
+                        + pass[passTo] + ".\n");
+            }
+        }
+        // pass right
+        else if (passType == PassType.RIGHT) {
+            for (int i = 0; i < 4; i++) {
+                int passTo = (i + 3) % 4;
+                pass[passTo] = player[i].passTo(passTo);
+                recordPass(pass[passTo]);
+                log.append("Player " + i + " passes Player " + passTo + " "
+                        + pass[passTo] + ".\n");
+            }
+        } else // if(passType == PassType.NONE
+        {
+            log.append("No one passes this round.\n");
+        }
+
+        if (passType != PassType.NONE) {
+            for (int i = 0; i < pass.length; i++) {
+                player[i].receive(pass[i]);
+            }
+        }
+
+    }
+
+    private void recordPass(Cards passed) {
+        decisions[decided++] = (byte) passed.size();
+        for (Card c : passed) {
+            decisions[decided++] = (byte) c.index();
+        }
+    }
+
+    private int playTrick(int start) {
+        Cards localTrick = new Cards();
+
+        // Gather cards from players
+        for (int i = 0; i < 4; i++) {
+            long phaseStart = PhaseTimer.start();
+            long hand = player[(start + i) % 4].getHandMask();
+            long playable = rules == null ? legalMoves(localTrick, hand)
+                    : CardMask.of(rules.possibleCards(localTrick, CardMask.toCards(hand)));
+            PhaseTimer.stop(Phase.LEGAL_MOVES, phaseStart);
+            phaseStart = PhaseTimer.start();
+            localTrick.add(player[(start + i) % 4].nextMove(localTrick, playable));
+            PhaseTimer.stop(Phase.PLAYER_MOVE, phaseStart);
+            decisions[decided++] = (byte) localTrick.get(i).index();
+            log.append("Player " + ((start + i) % 4) + " played "
+                    + localTrick.get(localTrick.size() - 1) + "\n");
+            if (!heartsBroken && localTrick.get(i).getSuit().equals(Suit.HEARTS)) {
+                log.append("HEARTS BROKE!\n");
+                heartsBroken = true;
+            }
+        }
+
+        // Determine player who wins
+        Card bestCard = localTrick.get(0);
+        int winningPos = 0;
+        for (int i = 0; i < localTrick.size(); i++) {
+            if (bestCard.getSuit().equals(localTrick.get(i).getSuit())
+                    && bestCard.getValue().compareTo(localTrick.get(i).getValue()) < 0) {
+                bestCard = localTrick.get(i);
+                winningPos = i;
+            }
+        }
+        winningPos = (start + winningPos) % 4; // move winning pos from position
+                                                // in trick to player who played
+                                                // it
+        log.append("Player " + winningPos + " wins the trick, taking "); // no
+                                                                            // \n
+                                                                            // on
+                                                                            // purpose
+        // Update score, clear cards
+        int origScore = tempScore[winningPos];
+        for (int i = 0; i < localTrick.size(); i++) {
+            Card card = localTrick.get(i);
+            if (card.getSuit().equals(Suit.HEARTS))
+                tempScore[winningPos] += 1;
+            else if (card.getSuit().equals(Suit.SPADES)
+                    && card.getValue().equals(Value.QUEEN))
+                tempScore[winningPos] += 13;
+        }
+        log.append(tempScore[winningPos] - origScore + " points.\n");
+
+        // Inform players
+        for (HeartsPlayer p : player) {
+            p.trickOver(winningPos, localTrick);
+        }
+        return winningPos;
+    }
+
+    /**
+     * Determines which cards can be played at this time, in constant time and without allocating.
+     * @param trickCards the cards played so far this trick
+     * @param hand the cards in the player's hand, as a {@link gengames.deck.CardMask CardMask}
+     * @return the cards available to be played, as a CardMask
+     */
+    /* package */long legalMoves(Cards trickCards, long hand) {
+        return legalMoves(trickCards, hand, trick, heartsBroken);
+    }
+
+    /**
+     * Determines which cards can be played at a given point in a round.
+     * @param trickCards the cards played so far this trick
+     * @param hand the cards in the player's hand, as a CardMask
+     * @param trick the number of the trick, starting from 1
+     * @param heartsBroken whether hearts have been played this round
+     * @return the cards available to be played, as a CardMask
+     */
+    /* package */static long legalMoves(Cards trickCards, long hand, int trick, boolean heartsBroken) {
+        if (trickCards.size() > 0) // respond to start of trick
+        {
+            long follow = CardMask.ofSuit(hand, trickCards.get(0).getSuit());
+            if (follow != 0)
+                return follow;
+
+            long playable = hand;
+            if (!heartsBroken) // if hearts isn't broken, no hearts.
+                playable &= ~HEARTS;
+            if (trick == 1) // If first trick, no Queen Clubs.
+                playable &= ~QUEEN_OF_CLUBS;
+            if (playable != 0)
+                return playable;
+
+            // still can't play anything, means we get to break hearts or queen
+            // despite
+            return hand;
+        } else // starting the trick
+        {
+            if (trick == 1) {
+                if ((hand & TWO_OF_CLUBS) != 0)
+                    return TWO_OF_CLUBS;
+                // didn't find the two of clubs.......
+                throw new RuntimeException(
+                        "Player was expected to have the two of clubs.");
+            }
+
+            // the first trick, which can't lead the Queen of Spades, returned above
+            long playable = hand;
+            if (!heartsBroken) // if hearts isn't broken, no hearts.
+                playable &= ~HEARTS;
+            if (playable != 0)
+                return playable;
+
+            // if can't play anything, can play anything.
+            return hand;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package gengames.hearts;
+
+import java.util.List;
+
+import gengames.deck.Card;
+import gengames.deck.CardMask;
+import gengames.deck.Cards;
+
+/**
+ * A player which passes and plays exactly the cards recorded in a {@link HeartsGameRecord}, rather than deciding for itself, so a
+ * replay reproduces the recorded game even where the recorded players chose at random.  The four players of a replay follow one
+ * shared script, since the round asks them for their decisions in the order they were recorded.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */class ReplayPlayer extends HeartsPlayer {
+    private final Script script;
+    private final HeartsPlayer recorded;
+    private int seat;
+
+    /**
+     * @param player a player with the recorded strategy, which this player describes itself as.
+     * @param recording the script the replay's players share.
+     */
+    ReplayPlayer(HeartsPlayer player, Script recording) {
+        strategy = player.getStrategy();
+        recorded = player;
+        script = recording;
+    }
+
+    /**
+     * Builds the four players of a replay.
+     * @param record the game to replay.
+     * @return a player for each seat, sharing one script.
+     */
+    static HeartsPlayer[] of(HeartsGameRecord record) {
+        Script script = new Script(record.decisions());
+        HeartsPlayer[] recorded = record.players();
+        HeartsPlayer[] players = new HeartsPlayer[recorded.length];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new ReplayPlayer(recorded[i], script);
+        }
+        return players;
+    }
+
+    /**
+     * Replaying players cannot be copied, since every round of a replay follows the same script.
+     */
+    @Override
+    /* package */HeartsPlayer copy() {
+        throw new RuntimeException("Replays cannot play rounds in parallel.");
+    }
+
+    /**
+     * @see gengames.hearts.HeartsPlayer#startGame(int)
+     */
+    @Override
+    public void startGame(int index) {
+        super.startGame(index);
+        seat = index;
+    }
+
+    /**
+     * @see gengames.hearts.HeartsPlayer#passTo(int)
+     */
+    @Override
+    public Cards passTo(int player) {
+        Cards pass = new Cards();
+        for (int count = script.next(); count > 0; count--) {
+            pass.add(take(~0L));
+        }
+        return pass;
+    }
+
+    /**
+     * @see gengames.hearts.HeartsPlayer#nextMove(gengames.deck.Cards, long)
+     */
+    @Override
+    public Card nextMove(Cards trick, long playable) {
+        return take(playable);
+    }
+
+    /**
+     * @see gengames.hearts.HeartsPlayer#toString()
+     */
+    @Override
+    public String toString() {
+        return recorded.toString();
+    }
+
+    /**
+     * Takes the next recorded card from the hand.
+     * @param allowed the cards the player may choose from.
+     * @return the card.
+     * @throws RuntimeException if the recorded card could not have been chosen, which means the record does not match the game.
+     */
+    private Card take(long allowed) {
+        Card c = Card.of(script.next());
+        long hand = getHandMask();
+        if ((hand & allowed & c.mask()) == 0)
+            throw new RuntimeException("Player " + seat + " could not have chosen the recorded " + c + " from "
+                    + CardMask.toCards(hand & allowed) + ".");
+        removeFromHand(c);
+        return c;
+    }
+
+    /**
+     * Reads through the cards recorded in each round of a game in turn.
+     */
+    /* package */static class Script {
+        private final List<byte[]> rounds;
+        private int round;
+        private int at;
+
+        Script(List<byte[]> decisions) {
+            rounds = decisions;
+        }
+
+        int next() {
+            while (at == rounds.get(round).length) {
+                round++;
+                at = 0;
+            }
+            return rounds.get(round)[at++];
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package gengames.hearts;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import gengames.Trait;
+import gengames.deck.Card;
+import gengames.deck.CardMask;
+import gengames.deck.Suit;
+import gengames.hearts.traits.NormalTrait;
+
+/**
+ * This class is a benchmark which compares the time players take to make decisions by interpreting their strategies with the time
+ * they take once their strategies are compiled (see {@link HeartsPlayerBuilder#HeartsPlayerBuilder(boolean)}).  It first checks the
+ * two make the same decisions, then times both over the same decisions, alternating between them so neither gains from warming up
+ * first.  Decisions which pick a random card are left out, as drawing from GAFrame.rnd would swamp the difference being measured.
+ * It should not need to be run by third party developers but is here if they want it.  There should never be any uncaught exceptions
+ * or print outs to stderr when running this class.
+ */
+public class StrategyBenchmark {
+    private static final int GENOMES = 16;
+    private static final int DECISIONS = 1 << 16;
+    private static final int PASSES = 20;
+    /** Passes before this are warm up, and not counted, since the compiled strategies take longer to be optimised. */
+    private static final int WARM_UP = 10;
+
+    /**
+     * The StrategyBenchmark main method.
+     * @param args the input from the JVM
+     */
+    public static void main(String[] args) {
+        Random rnd = new Random(1);
+        HeartsPlayerBuilder builder = new HeartsPlayerBuilder();
+        HeartsPlayer[] interpreted = new HeartsPlayer[GENOMES];
+        HeartsPlayer[] compiled = new HeartsPlayer[GENOMES];
+        for (int i = 0; i < GENOMES; i++) {
+            Trait[] strategy = builder.genPlayer().getStrategy();
+            interpreted[i] = new HeartsPlayer(strategy);
+            compiled[i] = new HeartsPlayer(strategy);
+            compiled[i].compile();
+        }
+        int[] loci = new int[DECISIONS];
+        long[] possible = new long[DECISIONS];
+        for (int i = 0; i < DECISIONS; i++) {
+            loci[i] = 1 + rnd.nextInt(interpreted[0].traitSize() - 1);
+            do {
+                possible[i] = rnd.nextLong() & rnd.nextLong() & CardMask.ALL;
+            } while (possible[i] == 0);
+        }
+
+        System.out.println("****** Checking compiled strategies decide as interpreted ones do.");
+        int differences = 0;
+        int[][] genomeLoci = new int[GENOMES][];
+        long[][] genomePossible = new long[GENOMES][];
+        for (int g = 0; g < GENOMES; g++) {
+            int n = 0;
+            genomeLoci[g] = new int[DECISIONS];
+            genomePossible[g] = new long[DECISIONS];
+            for (int i = 0; i < DECISIONS; i++) {
+                if (random((NormalTrait) interpreted[g].getStrategy()[loci[i]], possible[i]))
+                    continue;
+                if (interpreted[g].pick(loci[i], possible[i]) != compiled[g].pick(loci[i], possible[i]))
+                    differences++;
+                genomeLoci[g][n] = loci[i];
+                genomePossible[g][n++] = possible[i];
+            }
+            genomeLoci[g] = Arrays.copyOf(genomeLoci[g], n);
+            genomePossible[g] = Arrays.copyOf(genomePossible[g], n);
+        }
+        if (differences > 0)
+            System.err.println(differences + " decisions differed!");
+        long decisions = 0;
+        for (int[] l : genomeLoci) {
+            decisions += l.length;
+        }
+
+        System.out.println("****** Timing " + decisions + " decisions per pass.");
+        long interpretedNanos = 0;
+        long compiledNanos = 0;
+        int checksum = 0;
+        for (int pass = 0; pass < PASSES; pass++) {
+            long start = System.nanoTime();
+            checksum += decide(interpreted, genomeLoci, genomePossible);
+            long middle = System.nanoTime();
+            checksum += decide(compiled, genomeLoci, genomePossible);
+            long end = System.nanoTime();
+            if (pass >= WARM_UP) {
+                interpretedNanos += middle - start;
+                compiledNanos += end - middle;
+            }
+            System.out.printf("Pass %d: interpreted %.1f ms, compiled %.1f ms%n", pass,
+                    (middle - start) / 1e6, (end - middle) / 1e6);
+        }
+        decisions *= PASSES - WARM_UP;
+        System.out.printf("****** Interpreted %.1f ns per decision, compiled %.1f ns per decision, speedup %.2fx (checksum %d)%n",
+                (double) interpretedNanos / decisions, (double) compiledNanos / decisions,
+                (double) interpretedNanos / compiledNanos, checksum);
+    }
+
+    /**
+     * @return true if the trait picks a random card from these possible cards, so decisions cannot be compared.
+     */
+    private static boolean random(NormalTrait trait, long possible) {
+        switch (trait) {
+        case RANDOM:
+            return true;
+        case LOWHEARTS:
+        case HIGHHEARTS:
+            return CardMask.ofSuit(possible, Suit.HEARTS) == 0;
+        case LOWSPADES:
+        case HIGHSPADES:
+            return CardMask.ofSuit(possible, Suit.SPADES) == 0;
+        default:
+            return false;
+        }
+    }
+
+    private static int decide(HeartsPlayer[] players, int[][] loci, long[][] possible) {
+        int sum = 0;
+        for (int g = 0; g < players.length; g++) {
+            HeartsPlayer p = players[g];
+            for (int i = 0; i < loci[g].length; i++) {
+                Card c = p.pick(loci[g][i], possible[g][i]);
+                sum += c.index();
+            }
+        }
+        return sum;
+    }
+}
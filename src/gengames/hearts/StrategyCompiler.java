@@ -0,0 +1,179 @@
+package gengames.hearts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import gengames.Trait;
+import gengames.deck.Card;
+import gengames.deck.CardMask;
+import gengames.deck.Suit;
+import gengames.hearts.traits.NormalTrait;
+
+/**
+ * Compiles a strategy into decision code specialised to its traits.  The interpreted path, in HeartsPlayer, looks the trait up in the
+ * strategy, casts it, and switches on it to find how to pick a card.  A compiled strategy is a MethodHandle tree which takes the locus
+ * and the possible cards and jumps straight to the picking code for the trait at that locus.  The tree is held as a constant by its own
+ * hidden class, defined from the {@link CompiledStrategy} template, so the JIT can fold the traits in and inline the picking code.
+ * <p>Identical strategies share one array (see GenomePool), so compiled strategies are cached per array, and dropped once no player
+ * uses the array.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ * @see HeartsPlayerBuilder#compiling()
+ */
+/* package */final class StrategyCompiler {
+    /**
+     * A compiled strategy.
+     */
+    interface Decisions {
+        /**
+         * Picks a card as the trait at a locus directs.
+         * @param locus the index of a NormalTrait in the strategy.
+         * @param possible the cards which may be picked, as a {@link gengames.deck.CardMask CardMask}.
+         * @return the card picked.
+         */
+        Card decide(int locus, long possible);
+    }
+
+    /** The type of a strategy's decision handle: (locus, possible cards) -> the card to play. */
+    static final MethodType DECISION = MethodType.methodType(Card.class, int.class, long.class);
+    private static final MethodType PICK = MethodType.methodType(Card.class, long.class);
+
+    private static final MethodHandle HIGHEST;
+    private static final MethodHandle LOWEST;
+    private static final MethodHandle SMALLEST_SUIT;
+    private static final MethodHandle LARGEST_SUIT;
+    private static final MethodHandle LOWEST_OF;
+    private static final MethodHandle HIGHEST_OF;
+    private static final MethodHandle RANDOM;
+    private static final MethodHandle NOT_A_DECISION;
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    /** The class file of the CompiledStrategy template, which every compiled strategy is a hidden copy of. */
+    private static final byte[] TEMPLATE = template();
+    static {
+        MethodHandles.Lookup lookup = LOOKUP;
+        try {
+            HIGHEST = lookup.findStatic(CardMask.class, "highest", PICK);
+            LOWEST = lookup.findStatic(CardMask.class, "lowest", PICK);
+            MethodType select = MethodType.methodType(long.class, long.class);
+            SMALLEST_SUIT = lookup.findStatic(HeartsPlayer.class, "smallestSuit", select);
+            LARGEST_SUIT = lookup.findStatic(HeartsPlayer.class, "largestSuit", select);
+            MethodType ofSuit = MethodType.methodType(Card.class, long.class, Suit.class);
+            LOWEST_OF = lookup.findStatic(HeartsPlayer.class, "lowestOf", ofSuit);
+            HIGHEST_OF = lookup.findStatic(HeartsPlayer.class, "highestOf", ofSuit);
+            RANDOM = lookup.findStatic(HeartsPlayer.class, "randomCard", PICK);
+            NOT_A_DECISION = lookup.findStatic(StrategyCompiler.class, "notADecision", DECISION);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException("Could not find the card picking methods to compile strategies from.", e);
+        }
+    }
+
+    private static final Map<Trait[], Decisions> COMPILED = new WeakHashMap<>();
+
+    private StrategyCompiler() {
+        // static methods only
+    }
+
+    /**
+     * Compiles a strategy, or returns the strategy already compiled from the same array.
+     * @param strategy the strategy, which must not change once compiled.
+     * @return the compiled strategy.
+     */
+    static Decisions compile(Trait[] strategy) {
+        synchronized (COMPILED) {
+            Decisions compiled = COMPILED.get(strategy);
+            if (compiled == null) {
+                compiled = define(decisions(strategy));
+                COMPILED.put(strategy, compiled);
+            }
+            return compiled;
+        }
+    }
+
+    /**
+     * Builds the decision handle for a strategy.
+     * @param strategy the strategy.
+     * @return a handle of type {@link #DECISION}, picking a card by the NormalTrait at the locus.
+     */
+    static MethodHandle decisions(Trait[] strategy) {
+        MethodHandle[] cases = new MethodHandle[strategy.length];
+        for (int i = 0; i < cases.length; i++) {
+            if (strategy[i] instanceof NormalTrait)
+                cases[i] = MethodHandles.dropArguments(picker((NormalTrait) strategy[i]), 0, int.class);
+            else
+                cases[i] = NOT_A_DECISION;
+        }
+        return MethodHandles.tableSwitch(NOT_A_DECISION, cases);
+    }
+
+    /**
+     * Defines a hidden copy of the CompiledStrategy template holding the decision handle.
+     */
+    private static Decisions define(MethodHandle decisions) {
+        try {
+            MethodHandles.Lookup hidden = LOOKUP.defineHiddenClassWithClassData(TEMPLATE, decisions, true);
+            return (Decisions) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException("Could not define a compiled strategy.", t);
+        }
+    }
+
+    private static byte[] template() {
+        try (InputStream in = CompiledStrategy.class.getResourceAsStream(CompiledStrategy.class.getSimpleName() + ".class")) {
+            if (in == null)
+                throw new RuntimeException("Could not find the compiled strategy template.");
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+                bytes.write(buffer, 0, n);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read the compiled strategy template.", e);
+        }
+    }
+
+    /**
+     * @return a handle picking a card from the possible cards as the trait directs, exactly as HeartsPlayer.pickCard does.
+     */
+    private static MethodHandle picker(NormalTrait trait) {
+        switch (trait) {
+        case HIGHEST:
+            return HIGHEST;
+        case LOWEST:
+            return LOWEST;
+        case SMALLESTSUITLOW:
+            return MethodHandles.filterArguments(LOWEST, 0, SMALLEST_SUIT);
+        case LARGESTSUITLOW:
+            return MethodHandles.filterArguments(LOWEST, 0, LARGEST_SUIT);
+        case SMALLESTSUITHIGH:
+            return MethodHandles.filterArguments(HIGHEST, 0, SMALLEST_SUIT);
+        case LARGESTSUITHIGH:
+            return MethodHandles.filterArguments(HIGHEST, 0, LARGEST_SUIT);
+        case LOWHEARTS:
+            return MethodHandles.insertArguments(LOWEST_OF, 1, Suit.HEARTS);
+        case LOWSPADES:
+            return MethodHandles.insertArguments(LOWEST_OF, 1, Suit.SPADES);
+        case HIGHHEARTS:
+            return MethodHandles.insertArguments(HIGHEST_OF, 1, Suit.HEARTS);
+        case HIGHSPADES:
+            return MethodHandles.insertArguments(HIGHEST_OF, 1, Suit.SPADES);
+        case RANDOM:
+            return RANDOM;
+        default:
+            throw new RuntimeException("Unexpected trait.");
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static Card notADecision(int locus, long possible) {
+        throw new RuntimeException("Locus " + locus + " does not hold a NormalTrait.");
+    }
+}
@@ -0,0 +1,120 @@
+package gengames.journal;
+
+import java.nio.ByteBuffer;
+
+import gengames.GenGameImplementationException;
+import gengames.Trait;
+
+/**
+ * One journaled generation, read directly from its memory-mapped segment without copying the population.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ * @see JournalReader
+ */
+public final class Generation {
+    private final long number;
+    private final int size;
+    private final int loci;
+    private final int stride;
+    private final int fields;
+    private final ByteBuffer records;
+    private final Trait[][] alleles;
+
+    /**
+     * @param generation the generation's number.
+     * @param individuals the population size.
+     * @param lociCount the number of loci in a genome.
+     * @param region the generation's records.
+     * @param traits the Traits each locus may hold indexed by ordinal, or null if their classes could not be loaded.
+     */
+    Generation(long generation, int individuals, int lociCount, ByteBuffer region, Trait[][] traits) {
+        number = generation;
+        size = individuals;
+        loci = lociCount;
+        stride = JournalFormat.stride(loci);
+        fields = JournalFormat.fields(loci);
+        records = region;
+        alleles = traits;
+    }
+
+    /**
+     * @return the generation's number.
+     */
+    public long number() {
+        return number;
+    }
+
+    /**
+     * @return the number of individuals in the population.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of loci in each genome.
+     */
+    public int loci() {
+        return loci;
+    }
+
+    /**
+     * @param i an individual's index.
+     * @param locus a locus.
+     * @return the ordinal of the Trait the individual holds at that locus.
+     */
+    public int allele(int i, int locus) {
+        return records.get(i * stride + locus) & 0xFF;
+    }
+
+    /**
+     * Decodes an individual's strategy, which needs the game's Trait classes to be available.
+     * @param i an individual's index.
+     * @return a new array holding its strategy.
+     * @throws GenGameImplementationException if the journal's Trait classes could not be loaded.
+     */
+    public Trait[] genome(int i) {
+        if (alleles == null)
+            throw new GenGameImplementationException("The journal's Traits could not be loaded, only their ordinals can be read.");
+        Trait[] genome = new Trait[loci];
+        for (int locus = 0; locus < loci; locus++) {
+            genome[locus] = alleles[locus][allele(i, locus)];
+        }
+        return genome;
+    }
+
+    /**
+     * @param i an individual's index.
+     * @return its fitness.
+     */
+    public long fitness(int i) {
+        return records.getLong(i * stride + fields + JournalFormat.RECORD_FITNESS);
+    }
+
+    /**
+     * @param i an individual's index.
+     * @return the number of games it played.
+     */
+    public int games(int i) {
+        return records.getInt(i * stride + fields + JournalFormat.RECORD_GAMES);
+    }
+
+    /**
+     * An individual's first parent.  A survivor's first parent is itself in the previous generation, a copy's is the individual it
+     * was copied from, and a child of crossover has both its parents.  A parent which was itself new to the population is recorded
+     * as its own first parent.
+     * @param i an individual's index.
+     * @return the index of its first parent in the previous journaled generation, or -1 if it has none.
+     */
+    public int parent(int i) {
+        return records.getInt(i * stride + fields + JournalFormat.RECORD_PARENT);
+    }
+
+    /**
+     * @param i an individual's index.
+     * @return the index of its second parent in the previous journaled generation, or -1 if it has one parent or none.
+     */
+    public int otherParent(int i) {
+        return records.getInt(i * stride + fields + JournalFormat.RECORD_OTHER_PARENT);
+    }
+}
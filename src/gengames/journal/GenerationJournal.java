@@ -0,0 +1,328 @@
+package gengames.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import gengames.GenGameImplementationException;
+import gengames.Trait;
+
+/**
+ * Appends generations to a journal on disk.  Each generation is written straight into a memory-mapped segment file by the thread
+ * that calls {@link #start(long, int)}, which costs about as much as copying the population, while flushing it to disk and adding
+ * it to the index is left to a background thread.  A journal can be reopened to append to it, as long as its genomes have the same
+ * number of loci.  See {@link JournalReader} for reading a journal.
+ * <p>Journaling requires every locus to be an enum Trait with at most 256 constants, as the Traits of the included games are.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public class GenerationJournal implements Closeable {
+    /** The default size of a segment file.  A generation larger than this is written to a segment of its own. */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    /** How many index entries the index file grows by at a time. */
+    private static final int INDEX_GROWTH = 1 << 16;
+
+    private final File directory;
+    private final Trait[][] alleles;
+    private final int loci;
+    private final int stride;
+    private final int segmentSize;
+    private final FileChannel indexChannel;
+    /** The index, only used by the background thread once the journal is open. */
+    private MappedByteBuffer index;
+    private long count;
+    private int segment;
+    private MappedByteBuffer data;
+    private int position;
+    private Entry open;
+    private volatile IOException failure;
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "Generation Journal");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    /**
+     * Opens a journal with the default segment size, creating it if it does not exist.
+     * @param dir the journal's directory.
+     * @param sample a strategy of the players to journal, whose Traits decide what each locus may hold.
+     * @throws IOException if the journal cannot be opened, or holds genomes of a different length.
+     */
+    public GenerationJournal(File dir, Trait[] sample) throws IOException {
+        this(dir, sample, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens a journal, creating it if it does not exist.
+     * @param dir the journal's directory.
+     * @param sample a strategy of the players to journal, whose Traits decide what each locus may hold.
+     * @param segSize the size of a new segment file, ignored if the journal already exists.
+     * @throws IOException if the journal cannot be opened, or holds genomes of a different length.
+     * @throws GenGameImplementationException if the strategy's Traits cannot be journaled.
+     */
+    public GenerationJournal(File dir, Trait[] sample, int segSize) throws IOException {
+        directory = dir;
+        loci = sample.length;
+        stride = JournalFormat.stride(loci);
+        alleles = new Trait[loci][];
+        for (int i = 0; i < loci; i++) {
+            if (!(sample[i] instanceof Enum))
+                throw new GenGameImplementationException("Only enum Traits can be journaled, locus " + i + " is a "
+                        + sample[i].getClass().getName() + ".");
+            Trait[] constants = (Trait[]) ((Enum<?>) sample[i]).getDeclaringClass().getEnumConstants();
+            if (constants.length > 256)
+                throw new GenGameImplementationException("Locus " + i + " has more than 256 Traits to journal in a byte.");
+            alleles[i] = constants;
+        }
+        if (!dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("Could not create the journal directory " + dir + ".");
+
+        File indexFile = new File(dir, JournalFormat.INDEX);
+        boolean exists = indexFile.length() >= JournalFormat.HEADER_SIZE;
+        indexChannel = new RandomAccessFile(indexFile, "rw").getChannel();
+        try {
+            long capacity = Math.max(indexChannel.size(), JournalFormat.entry(INDEX_GROWTH));
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            if (exists) {
+                if (index.getInt(JournalFormat.HEADER_MAGIC) != JournalFormat.MAGIC
+                        || index.getInt(JournalFormat.HEADER_VERSION) != JournalFormat.VERSION)
+                    throw new IOException(indexFile + " is not a generation journal.");
+                if (index.getInt(JournalFormat.HEADER_LOCI) != loci)
+                    throw new IOException(dir + " journals genomes of " + index.getInt(JournalFormat.HEADER_LOCI)
+                            + " loci, not " + loci + ".");
+                segmentSize = index.getInt(JournalFormat.HEADER_SEGMENT_SIZE);
+                count = index.getLong(JournalFormat.HEADER_COUNT);
+            } else {
+                segmentSize = segSize;
+                index.putInt(JournalFormat.HEADER_MAGIC, JournalFormat.MAGIC);
+                index.putInt(JournalFormat.HEADER_VERSION, JournalFormat.VERSION);
+                index.putInt(JournalFormat.HEADER_LOCI, loci);
+                index.putInt(JournalFormat.HEADER_STRIDE, stride);
+                index.putInt(JournalFormat.HEADER_SEGMENT_SIZE, segmentSize);
+                index.putLong(JournalFormat.HEADER_COUNT, 0);
+                index.force();
+                writeAlleles();
+            }
+            if (count > 0) {
+                int last = (int) JournalFormat.entry(count - 1);
+                segment = index.getInt(last + JournalFormat.ENTRY_SEGMENT);
+                position = index.getInt(last + JournalFormat.ENTRY_OFFSET)
+                        + index.getInt(last + JournalFormat.ENTRY_POPULATION) * stride;
+                data = map(segment, 0);
+            } else {
+                segment = -1;
+            }
+        } catch (IOException e) {
+            indexChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts writing a generation, reserving room for it in the current segment, or in a new one if it will not fit.  Every individual
+     * must then be added to the returned entry before it is passed to {@link #append(Entry)}.
+     * @param generation the generation's number.
+     * @param size the number of individuals in the population.
+     * @return the entry to add the population to.
+     * @throws IOException if a new segment cannot be created, or writing an earlier generation failed.
+     */
+    public Entry start(long generation, int size) throws IOException {
+        checkFailure();
+        if (open != null)
+            throw new IllegalStateException("Generation " + open.generation + " was started but not appended.");
+        long length = (long) size * stride;
+        if (length > Integer.MAX_VALUE)
+            throw new IOException("A generation of " + size + " individuals is too large to journal.");
+        if (data == null || position + length > data.capacity()) {
+            data = map(segment + 1, (int) length);
+            segment++;
+            position = 0;
+        }
+        ByteBuffer region = data.duplicate();
+        region.position(position).limit(position + (int) length);
+        open = new Entry(generation, size, segment, position, data, region.slice());
+        position += length;
+        return open;
+    }
+
+    /**
+     * Finishes writing a generation.  The generation is flushed to disk and added to the index in the background, after which
+     * readers can see it.
+     * @param entry the generation, with its whole population added.
+     * @throws IOException if writing an earlier generation failed.
+     */
+    public void append(final Entry entry) throws IOException {
+        checkFailure();
+        if (entry != open)
+            throw new IllegalStateException("Generation " + entry.generation + " is not the generation being written.");
+        if (entry.added != entry.size)
+            throw new IllegalStateException("Only " + entry.added + " of generation " + entry.generation + "'s "
+                    + entry.size + " individuals were added.");
+        open = null;
+        flusher.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    entry.segmentData.force(entry.offset, entry.size * stride);
+                    index(entry);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the journal's directory.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Waits for every appended generation to be written, and closes the journal.
+     * @throws IOException if writing a generation failed.
+     */
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        index.force();
+        indexChannel.close();
+        checkFailure();
+    }
+
+    /**
+     * Adds a written generation to the index, then counts it in the header, so a reader never sees an entry before it is complete.
+     */
+    private void index(Entry entry) throws IOException {
+        if (JournalFormat.entry(count + 1) > index.capacity())
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, JournalFormat.entry(count + INDEX_GROWTH));
+        int at = (int) JournalFormat.entry(count);
+        index.putLong(at + JournalFormat.ENTRY_GENERATION, entry.generation);
+        index.putInt(at + JournalFormat.ENTRY_SEGMENT, entry.segment);
+        index.putInt(at + JournalFormat.ENTRY_OFFSET, entry.offset);
+        index.putInt(at + JournalFormat.ENTRY_POPULATION, entry.size);
+        index.force();
+        count++;
+        index.putLong(JournalFormat.HEADER_COUNT, count);
+        index.force();
+    }
+
+    private MappedByteBuffer map(int number, int minimum) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(JournalFormat.segment(directory, number), "rw");
+        try {
+            long size = Math.max(Math.max(segmentSize, minimum), file.length());
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            // the mapping stays valid once the file is closed
+            file.close();
+        }
+    }
+
+    private void writeAlleles() throws IOException {
+        PrintWriter out = new PrintWriter(new FileWriter(new File(directory, JournalFormat.ALLELES)));
+        try {
+            for (int i = 0; i < loci; i++) {
+                out.println(((Enum<?>) alleles[i][0]).getDeclaringClass().getName());
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null)
+            throw new IOException("Writing the journal failed.", e);
+    }
+
+    /**
+     * One generation being written, directly into the journal's memory-mapped segment.
+     */
+    public final class Entry {
+        private final long generation;
+        private final int size;
+        private final int segment;
+        private final int offset;
+        private final MappedByteBuffer segmentData;
+        private final ByteBuffer records;
+        private int added;
+
+        private Entry(long gen, int individuals, int seg, int off, MappedByteBuffer mapped, ByteBuffer region) {
+            generation = gen;
+            size = individuals;
+            segment = seg;
+            offset = off;
+            segmentData = mapped;
+            records = region;
+        }
+
+        /**
+         * Adds the next individual.
+         * @param genome its strategy.
+         * @param fitness its fitness.
+         * @param games the number of games it played.
+         * @param parent the index of its first parent in the previous journaled generation, or -1.
+         * @param otherParent the index of its second parent in the previous journaled generation, or -1.
+         */
+        public void add(Trait[] genome, long fitness, int games, int parent, int otherParent) {
+            int base = next();
+            for (int locus = 0; locus < loci; locus++) {
+                int ordinal = ((Enum<?>) genome[locus]).ordinal();
+                if (ordinal >= alleles[locus].length || alleles[locus][ordinal] != genome[locus])
+                    throw new GenGameImplementationException("Locus " + locus + " holds " + genome[locus]
+                            + ", which is not one of " + Arrays.toString(alleles[locus]) + ".");
+                records.put(base + locus, (byte) ordinal);
+            }
+            fields(base, fitness, games, parent, otherParent);
+        }
+
+        /**
+         * Adds the next individual, whose genome is already packed as one Trait ordinal per byte.
+         * @param genomes the buffer holding the packed genome.
+         * @param at the genome's offset in the buffer.
+         * @param fitness its fitness.
+         * @param games the number of games it played.
+         * @param parent the index of its first parent in the previous journaled generation, or -1.
+         * @param otherParent the index of its second parent in the previous journaled generation, or -1.
+         */
+        public void add(ByteBuffer genomes, int at, long fitness, int games, int parent, int otherParent) {
+            int base = next();
+            records.put(base, genomes, at, loci);
+            fields(base, fitness, games, parent, otherParent);
+        }
+
+        private int next() {
+            if (added == size)
+                throw new IllegalStateException("Generation " + generation + " only has " + size + " individuals.");
+            return added++ * stride;
+        }
+
+        private void fields(int base, long fitness, int games, int parent, int otherParent) {
+            int at = base + JournalFormat.fields(loci);
+            records.putLong(at + JournalFormat.RECORD_FITNESS, fitness);
+            records.putInt(at + JournalFormat.RECORD_GAMES, games);
+            records.putInt(at + JournalFormat.RECORD_PARENT, parent);
+            records.putInt(at + JournalFormat.RECORD_OTHER_PARENT, otherParent);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package gengames.journal;
+
+import java.io.File;
+
+/**
+ * The layout of a journal, which is a directory holding an index, the segments generations are written to, and a list of the Trait
+ * class at each locus.
+ * <p>The index starts with a header of HEADER_SIZE bytes, followed by one entry of ENTRY_SIZE bytes for each generation, giving the
+ * generation's number, the segment and offset it was written at, and its population size.  The header's count of generations is only
+ * updated once a generation and its entry have been written, so a journal cut short by a crash is still consistent.</p>
+ * <p>A generation is its population's records, one after another.  Each record is RECORD_SIZE plus the number of loci, rounded up to
+ * 8, bytes: the ordinal of each locus' Trait, then the fitness, games played and the indexes of up to two parents in the previous
+ * journaled generation, -1 for none.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+/* package */final class JournalFormat {
+    static final String INDEX = "journal.idx";
+    static final String ALLELES = "alleles.txt";
+    static final int MAGIC = 0x47474A4E; // GGJN
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_LOCI = 8;
+    static final int HEADER_STRIDE = 12;
+    static final int HEADER_SEGMENT_SIZE = 16;
+    static final int HEADER_COUNT = 24;
+
+    static final int ENTRY_SIZE = 24;
+    static final int ENTRY_GENERATION = 0;
+    static final int ENTRY_SEGMENT = 8;
+    static final int ENTRY_OFFSET = 12;
+    static final int ENTRY_POPULATION = 16;
+
+    static final int RECORD_SIZE = 24;
+    static final int RECORD_FITNESS = 0;
+    static final int RECORD_GAMES = 8;
+    static final int RECORD_PARENT = 12;
+    static final int RECORD_OTHER_PARENT = 16;
+
+    private JournalFormat() {
+    }
+
+    /**
+     * @param loci the number of loci in a genome.
+     * @return the size of a record.
+     */
+    static int stride(int loci) {
+        return ((loci + 7) & ~7) + RECORD_SIZE;
+    }
+
+    /**
+     * @param loci the number of loci in a genome.
+     * @return the offset of the fitness and other fields after the genome in a record.
+     */
+    static int fields(int loci) {
+        return (loci + 7) & ~7;
+    }
+
+    /**
+     * @param directory the journal's directory.
+     * @param segment the segment's number.
+     * @return the segment's file.
+     */
+    static File segment(File directory, int segment) {
+        return new File(directory, String.format("segment-%06d.dat", segment));
+    }
+
+    /**
+     * @param index the position of an entry in the index.
+     * @return the entry's offset in the index file.
+     */
+    static long entry(long index) {
+        return HEADER_SIZE + index * ENTRY_SIZE;
+    }
+}
@@ -0,0 +1,179 @@
+package gengames.journal;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+import gengames.Trait;
+
+/**
+ * Reads a journal written by {@link GenerationJournal}, for tools that study a run afterwards, or while it is still running.  Any
+ * generation is found in constant time, by its position in the index or by its number, and is read straight from its memory-mapped
+ * segment.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public class JournalReader implements Closeable {
+    private final File directory;
+    private final RandomAccessFile indexFile;
+    private MappedByteBuffer index;
+    private final int loci;
+    private final Trait[][] alleles;
+    private final Map<Integer, MappedByteBuffer> segments = new HashMap<>();
+
+    /**
+     * Opens a journal to read.
+     * @param dir the journal's directory.
+     * @throws IOException if the journal cannot be read.
+     */
+    public JournalReader(File dir) throws IOException {
+        directory = dir;
+        indexFile = new RandomAccessFile(new File(dir, JournalFormat.INDEX), "r");
+        try {
+            mapIndex();
+            if (index.capacity() < JournalFormat.HEADER_SIZE
+                    || index.getInt(JournalFormat.HEADER_MAGIC) != JournalFormat.MAGIC)
+                throw new IOException(dir + " is not a generation journal.");
+            if (index.getInt(JournalFormat.HEADER_VERSION) != JournalFormat.VERSION)
+                throw new IOException(dir + " is a version " + index.getInt(JournalFormat.HEADER_VERSION)
+                        + " journal, only version " + JournalFormat.VERSION + " can be read.");
+            loci = index.getInt(JournalFormat.HEADER_LOCI);
+        } catch (IOException e) {
+            indexFile.close();
+            throw e;
+        }
+        alleles = loadAlleles();
+    }
+
+    /**
+     * @return the number of generations in the journal, which grows while the journal is being written to.
+     */
+    public long generations() {
+        return index.getLong(JournalFormat.HEADER_COUNT);
+    }
+
+    /**
+     * @return the number of loci in each genome.
+     */
+    public int loci() {
+        return loci;
+    }
+
+    /**
+     * @return true if the journal's Trait classes were loaded, so genomes can be decoded rather than just read as ordinals.
+     */
+    public boolean hasTraits() {
+        return alleles != null;
+    }
+
+    /**
+     * Reads the generation at a position in the journal.
+     * @param position the position, from 0 to generations() - 1.
+     * @return the generation.
+     * @throws IOException if its segment cannot be read.
+     */
+    public Generation get(long position) throws IOException {
+        if (position < 0 || position >= generations())
+            throw new IndexOutOfBoundsException("The journal has " + generations() + " generations, not "
+                    + (position + 1) + ".");
+        if (JournalFormat.entry(position + 1) > index.capacity())
+            mapIndex();
+        int at = (int) JournalFormat.entry(position);
+        int size = index.getInt(at + JournalFormat.ENTRY_POPULATION);
+        int offset = index.getInt(at + JournalFormat.ENTRY_OFFSET);
+        ByteBuffer region = segment(index.getInt(at + JournalFormat.ENTRY_SEGMENT)).duplicate();
+        region.position(offset).limit(offset + size * JournalFormat.stride(loci));
+        return new Generation(index.getLong(at + JournalFormat.ENTRY_GENERATION), size, loci, region.slice(), alleles);
+    }
+
+    /**
+     * Reads a generation by its number.  Journaled generations are usually consecutive, in which case this is a single lookup,
+     * otherwise the index is searched from the end.  A journal appended to by more than one run may hold a number more than once, in
+     * which case the latest generation with that number is read.
+     * @param number the generation's number.
+     * @return the generation, or null if it was not journaled.
+     * @throws IOException if its segment cannot be read.
+     */
+    public Generation find(long number) throws IOException {
+        long count = generations();
+        if (count == 0)
+            return null;
+        long guess = count - 1 - (number(count - 1) - number);
+        if (guess >= 0 && guess < count && number(guess) == number)
+            return get(guess);
+        for (long position = count - 1; position >= 0; position--) {
+            if (number(position) == number)
+                return get(position);
+        }
+        return null;
+    }
+
+    /**
+     * Closes the journal.  Generations already read stay readable until they are garbage collected.
+     * @throws IOException if the index cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        indexFile.close();
+        segments.clear();
+    }
+
+    private long number(long position) throws IOException {
+        if (JournalFormat.entry(position + 1) > index.capacity())
+            mapIndex();
+        return index.getLong((int) JournalFormat.entry(position) + JournalFormat.ENTRY_GENERATION);
+    }
+
+    private void mapIndex() throws IOException {
+        index = indexFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, indexFile.length());
+    }
+
+    private MappedByteBuffer segment(int number) throws IOException {
+        MappedByteBuffer segment = segments.get(number);
+        if (segment == null) {
+            RandomAccessFile file = new RandomAccessFile(JournalFormat.segment(directory, number), "r");
+            try {
+                segment = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            } finally {
+                file.close();
+            }
+            segments.put(number, segment);
+        }
+        return segment;
+    }
+
+    /**
+     * Loads the Trait classes the journal's genomes were written with.
+     * @return the Traits each locus may hold indexed by ordinal, or null if they cannot be loaded.
+     */
+    private Trait[][] loadAlleles() {
+        Trait[][] traits = new Trait[loci][];
+        try {
+            BufferedReader in = new BufferedReader(new FileReader(new File(directory, JournalFormat.ALLELES)));
+            try {
+                for (int i = 0; i < loci; i++) {
+                    String name = in.readLine();
+                    if (name == null)
+                        return null;
+                    Class<?> c = Class.forName(name);
+                    if (!c.isEnum() || !Trait.class.isAssignableFrom(c))
+                        return null;
+                    traits[i] = (Trait[]) c.getEnumConstants();
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            return null;
+        }
+        return traits;
+    }
+}
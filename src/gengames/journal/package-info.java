@@ -0,0 +1,7 @@
+/**
+ * This package journals the GA's generations to disk, so a run can be studied afterwards.  Every journaled generation's population,
+ * with each individual's packed genome, fitness and parents, is appended to memory-mapped segment files, and an index of fixed size
+ * entries lets {@link gengames.journal.JournalReader JournalReader} open any generation of a run in constant time.
+ */
+
+package gengames.journal;
@@ -0,0 +1,30 @@
+package gengames.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for breeding new players from the survivors.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+@Name("gengames.Crossover")
+@Label("Crossover")
+@Category("Genetic Games")
+@Description("Breeding new players from the survivors.")
+@Threshold("0 ms")
+@StackTrace(false)
+public class CrossoverEvent extends Event {
+    /** The number of the generation being bred. */
+    @Label("Generation")
+    public int generation;
+
+    /** The number of players bred. */
+    @Label("Children")
+    public int children;
+}
@@ -0,0 +1,34 @@
+package gengames.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for one game, from its first round until it ends or is interrupted.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+@Name("gengames.Game")
+@Label("Game")
+@Category("Genetic Games")
+@Description("One game, from its first round until it ends or is interrupted.")
+@Threshold("0 ms")
+@StackTrace(false)
+public class GameEvent extends Event {
+    /** Identifies the game within this run. */
+    @Label("Game Id")
+    public long gameId;
+
+    /** The number of rounds played. */
+    @Label("Rounds")
+    public int rounds;
+
+    /** True if the game was interrupted before it ended. */
+    @Label("Interrupted")
+    public boolean interrupted;
+}
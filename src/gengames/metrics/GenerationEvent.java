@@ -0,0 +1,34 @@
+package gengames.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for one whole generation of the GA, from the end of the one before.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+@Name("gengames.Generation")
+@Label("Generation")
+@Category("Genetic Games")
+@Description("One whole generation of the GA, from the end of the one before.")
+@Threshold("0 ms")
+@StackTrace(false)
+public class GenerationEvent extends Event {
+    /** The number of the generation. */
+    @Label("Generation")
+    public int generation;
+
+    /** The number of players in the population. */
+    @Label("Population Size")
+    public int populationSize;
+
+    /** The number of games played during the generation. */
+    @Label("Games")
+    public long games;
+}
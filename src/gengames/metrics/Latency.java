@@ -0,0 +1,32 @@
+package gengames.metrics;
+
+/**
+ * The stages of the GA whose latencies the {@link MetricsRegistry} keeps histograms of.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public enum Latency {
+    /** One game, from being started until it is recorded. */
+    GAME("Game"),
+    /** Playing a generation's tournament. */
+    TOURNAMENT("Tournament"),
+    /** Ranking players and choosing who survives. */
+    SELECTION("Selection"),
+    /** Crossover, mutation and refilling the population. */
+    BREEDING("Breeding"),
+    /** One whole generation, from the end of the one before. */
+    GENERATION("Generation");
+
+    private final String description;
+
+    private Latency(String desc) {
+        description = desc;
+    }
+
+    /**
+     * @return a short name for the stage, suitable for display.
+     */
+    public String description() {
+        return description;
+    }
+}
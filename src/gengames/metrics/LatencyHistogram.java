@@ -0,0 +1,135 @@
+package gengames.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations, with logarithmic buckets each one eighth the width of its power of two, so any duration from a
+ * nanosecond to centuries is recorded in constant time and space, and reported to within about 6%.  Recording is thread safe and
+ * lock free.  A copy of a histogram is a snapshot of it, and subtracting an earlier snapshot gives the durations recorded in between.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public final class LatencyHistogram {
+    /** Each power of two is split into 1 << SUB_BITS buckets. */
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final AtomicLongArray totals = new AtomicLongArray(2); // count, sum
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+    }
+
+    private LatencyHistogram(long[] bucketCounts, long count, long sum) {
+        counts = new AtomicLongArray(bucketCounts);
+        totals.set(0, count);
+        totals.set(1, sum);
+    }
+
+    /**
+     * Records one duration.
+     * @param nanos the duration in nanoseconds, negative durations are recorded as zero.
+     */
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(nanos));
+        totals.incrementAndGet(0);
+        totals.addAndGet(1, nanos);
+    }
+
+    /**
+     * @return a copy of this histogram as it is now.
+     */
+    public LatencyHistogram copy() {
+        long[] c = new long[BUCKETS];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = counts.get(i);
+        }
+        return new LatencyHistogram(c, totals.get(0), totals.get(1));
+    }
+
+    /**
+     * @param earlier an earlier copy of this histogram.
+     * @return a histogram of the durations recorded since the earlier copy.
+     */
+    public LatencyHistogram since(LatencyHistogram earlier) {
+        long[] c = new long[BUCKETS];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = counts.get(i) - earlier.counts.get(i);
+        }
+        return new LatencyHistogram(c, count() - earlier.count(), totals.get(1) - earlier.totals.get(1));
+    }
+
+    /**
+     * @return the number of durations recorded.
+     */
+    public long count() {
+        return totals.get(0);
+    }
+
+    /**
+     * @return the average duration in milliseconds, or zero if none were recorded.
+     */
+    public double meanMillis() {
+        long count = count();
+        return count == 0 ? 0 : toMillis(totals.get(1) / (double) count);
+    }
+
+    /**
+     * Estimates a percentile of the recorded durations, as the middle of the bucket it falls in.
+     * @param percentile the percentile to find, from 0 to 100.
+     * @return the duration in milliseconds, or zero if none were recorded.
+     */
+    public double percentileMillis(double percentile) {
+        long count = count();
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return toMillis((lowest(i) + lowest(i + 1)) / 2.0);
+        }
+        return toMillis(lowest(BUCKETS));
+    }
+
+    /**
+     * Summarises the histogram: count, mean, median, 90th and 99th percentile.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms", count(), meanMillis(),
+                percentileMillis(50), percentileMillis(90), percentileMillis(99));
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS)
+            return (int) nanos;
+        int exp = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exp - SUB_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exp - SUB_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return the smallest duration in the bucket, as a double since the bucket past the last is beyond Long.MAX_VALUE.
+     */
+    private static double lowest(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int exp = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) * Math.pow(2, exp - SUB_BITS);
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,207 @@
+package gengames.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts the games, rounds and tricks played and keeps histograms of the latency of each {@link Latency stage} of the GA, for capacity
+ * planning.  There is one registry, from {@link #get()}, which is registered as a JMX MBean the first time it is asked for, and can be
+ * written out periodically by a {@link MetricsSnapshotWriter}, which needs neither JMX nor a display.
+ * <p>Counting is always on, as it costs a LongAdder increment per round, trick or game, which is nothing next to playing them.  Games
+ * which have rounds and tricks should report them with {@link #countRound(int)}, games are counted by the GA.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public final class MetricsRegistry implements MetricsRegistryMBean {
+    /** The name the registry is registered in JMX under. */
+    public static final String OBJECT_NAME = "gengames:type=Metrics";
+    /** How often, in seconds, the rates reported through JMX are sampled. */
+    public static final int SAMPLE_SECONDS = 5;
+
+    /**
+     * Holds the registry, so it is only created and registered once it is used.
+     */
+    private static class Holder {
+        static final MetricsRegistry REGISTRY = new MetricsRegistry();
+        static {
+            REGISTRY.register();
+        }
+    }
+
+    private final long started = System.nanoTime();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder rounds = new LongAdder();
+    private final LongAdder tricks = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private volatile int workers = 1;
+    private final Map<Latency, LatencyHistogram> latencies = new EnumMap<>(Latency.class);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "Metrics");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+    private MetricsSnapshot lastSample;
+    private volatile MetricsSnapshot recent;
+
+    private MetricsRegistry() {
+        for (Latency l : Latency.values()) {
+            latencies.put(l, new LatencyHistogram());
+        }
+        lastSample = snapshot();
+        recent = lastSample;
+        scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                sample();
+            }
+        }, SAMPLE_SECONDS, SAMPLE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the registry.
+     */
+    public static MetricsRegistry get() {
+        return Holder.REGISTRY;
+    }
+
+    private void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // another copy of the classes, in another class loader, got there first
+        } catch (JMException e) {
+            throw new RuntimeException("Could not register the metrics with JMX.", e);
+        }
+    }
+
+    /**
+     * Records a finished game.
+     * @param nanos how long the game took, in nanoseconds.
+     */
+    public void countGame(long nanos) {
+        games.increment();
+        busyNanos.add(nanos);
+        latencies.get(Latency.GAME).record(nanos);
+    }
+
+    /**
+     * Records a finished round.
+     * @param trickCount the number of tricks played in the round.
+     */
+    public void countRound(int trickCount) {
+        rounds.increment();
+        tricks.add(trickCount);
+    }
+
+    /**
+     * Records how long a stage of the GA took.
+     * @param latency the stage.
+     * @param nanos how long it took, in nanoseconds.
+     */
+    public void record(Latency latency, long nanos) {
+        latencies.get(latency).record(nanos);
+    }
+
+    /**
+     * Sets the number of games the GA plays at once, which worker utilisation is measured against.
+     * @param count the number of game slots.
+     */
+    public void setWorkers(int count) {
+        workers = count;
+    }
+
+    /**
+     * @return the registry's totals as they are now.
+     */
+    public MetricsSnapshot snapshot() {
+        Map<Latency, LatencyHistogram> copies = new EnumMap<>(Latency.class);
+        for (Latency l : Latency.values()) {
+            copies.put(l, latencies.get(l).copy());
+        }
+        long now = System.nanoTime();
+        return new MetricsSnapshot(now, now - started, games.sum(), rounds.sum(), tricks.sum(), busyNanos.sum(),
+                workers, copies);
+    }
+
+    /**
+     * Runs a task periodically on the registry's thread.
+     * @param task the task to run.
+     * @param seconds the period, in seconds.
+     * @return the scheduled task, to cancel it.
+     */
+    /* package */ScheduledFuture<?> schedule(Runnable task, int seconds) {
+        return scheduler.scheduleAtFixedRate(task, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    private synchronized void sample() {
+        MetricsSnapshot now = snapshot();
+        recent = now.since(lastSample);
+        lastSample = now;
+    }
+
+    @Override
+    public long getGames() {
+        return games.sum();
+    }
+
+    @Override
+    public long getRounds() {
+        return rounds.sum();
+    }
+
+    @Override
+    public long getTricks() {
+        return tricks.sum();
+    }
+
+    @Override
+    public double getGamesPerSecond() {
+        return recent.gamesPerSecond();
+    }
+
+    @Override
+    public double getRoundsPerSecond() {
+        return recent.roundsPerSecond();
+    }
+
+    @Override
+    public double getTricksPerSecond() {
+        return recent.tricksPerSecond();
+    }
+
+    @Override
+    public double getWorkerUtilisation() {
+        return recent.workerUtilisation();
+    }
+
+    @Override
+    public String[] getLatencies() {
+        List<String> lines = new ArrayList<>();
+        for (Latency l : Latency.values()) {
+            lines.add(l.description() + ": " + latencies.get(l));
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    @Override
+    public double latencyPercentile(String stage, double percentile) {
+        return latencies.get(Latency.valueOf(stage)).percentileMillis(percentile);
+    }
+}
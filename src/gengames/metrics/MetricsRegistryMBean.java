@@ -0,0 +1,57 @@
+package gengames.metrics;
+
+/**
+ * The management interface the {@link MetricsRegistry} is registered in JMX with, under the name {@value MetricsRegistry#OBJECT_NAME}.
+ * Totals are since the GA started, rates are over the last {@value MetricsRegistry#SAMPLE_SECONDS} second sample.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public interface MetricsRegistryMBean {
+    /**
+     * @return the number of games played.
+     */
+    long getGames();
+
+    /**
+     * @return the number of rounds played.
+     */
+    long getRounds();
+
+    /**
+     * @return the number of tricks played.
+     */
+    long getTricks();
+
+    /**
+     * @return recent games played per second.
+     */
+    double getGamesPerSecond();
+
+    /**
+     * @return recent rounds played per second.
+     */
+    double getRoundsPerSecond();
+
+    /**
+     * @return recent tricks played per second.
+     */
+    double getTricksPerSecond();
+
+    /**
+     * @return the recent fraction of time the GA's game slots were running games.
+     */
+    double getWorkerUtilisation();
+
+    /**
+     * @return a summary of every stage's latencies, one stage per entry.
+     */
+    String[] getLatencies();
+
+    /**
+     * Estimates a percentile of a stage's latency.
+     * @param stage the stage's name, as in {@link Latency}.
+     * @param percentile the percentile, from 0 to 100.
+     * @return the latency in milliseconds.
+     */
+    double latencyPercentile(String stage, double percentile);
+}
@@ -0,0 +1,127 @@
+package gengames.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GA's throughput counters and latency histograms at one moment, as recorded by the {@link MetricsRegistry}, or the difference
+ * between two such moments, which gives the rates over the interval.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public final class MetricsSnapshot {
+    private final long nanoTime;
+    private final long elapsed;
+    private final long games;
+    private final long rounds;
+    private final long tricks;
+    private final long busyNanos;
+    private final int workers;
+    private final Map<Latency, LatencyHistogram> latencies;
+
+    /* package */MetricsSnapshot(long time, long elapsedNanos, long gameCount, long roundCount, long trickCount,
+            long busy, int workerCount, Map<Latency, LatencyHistogram> histograms) {
+        nanoTime = time;
+        elapsed = elapsedNanos;
+        games = gameCount;
+        rounds = roundCount;
+        tricks = trickCount;
+        busyNanos = busy;
+        workers = workerCount;
+        latencies = histograms;
+    }
+
+    /**
+     * @param earlier a snapshot taken before this one.
+     * @return the counts and latencies recorded between the two snapshots.
+     */
+    public MetricsSnapshot since(MetricsSnapshot earlier) {
+        Map<Latency, LatencyHistogram> diff = new EnumMap<>(Latency.class);
+        for (Latency l : Latency.values()) {
+            diff.put(l, latencies.get(l).since(earlier.latencies.get(l)));
+        }
+        return new MetricsSnapshot(nanoTime, nanoTime - earlier.nanoTime, games - earlier.games,
+                rounds - earlier.rounds, tricks - earlier.tricks, busyNanos - earlier.busyNanos, workers, diff);
+    }
+
+    /**
+     * @return the number of games played.
+     */
+    public long games() {
+        return games;
+    }
+
+    /**
+     * @return the number of rounds played, by games which report them.
+     */
+    public long rounds() {
+        return rounds;
+    }
+
+    /**
+     * @return the number of tricks played, by games which report them.
+     */
+    public long tricks() {
+        return tricks;
+    }
+
+    /**
+     * @return games played per second.
+     */
+    public double gamesPerSecond() {
+        return perSecond(games);
+    }
+
+    /**
+     * @return rounds played per second.
+     */
+    public double roundsPerSecond() {
+        return perSecond(rounds);
+    }
+
+    /**
+     * @return tricks played per second.
+     */
+    public double tricksPerSecond() {
+        return perSecond(tricks);
+    }
+
+    /**
+     * @return the fraction of the time the GA's game slots were running games, from 0 to 1.
+     */
+    public double workerUtilisation() {
+        if (elapsed <= 0 || workers == 0)
+            return 0;
+        return Math.min(1, busyNanos / ((double) elapsed * workers));
+    }
+
+    /**
+     * @param latency a stage of the GA.
+     * @return the histogram of how long the stage took.
+     */
+    public LatencyHistogram latency(Latency latency) {
+        return latencies.get(latency);
+    }
+
+    private double perSecond(long count) {
+        return elapsed <= 0 ? 0 : count / ((double) elapsed / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Describes the rates and the latencies of every stage which was recorded, one per line.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%.1f games/s %.1f rounds/s %.1f tricks/s %.0f%% of %d workers busy%n",
+                gamesPerSecond(), roundsPerSecond(), tricksPerSecond(), workerUtilisation() * 100, workers));
+        for (Latency l : Latency.values()) {
+            LatencyHistogram h = latencies.get(l);
+            if (h.count() > 0)
+                sb.append(String.format("%-10s %s%n", l.description(), h));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package gengames.metrics;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Periodically appends the {@link MetricsRegistry}'s rates and latencies over the last period to a file, so a run without a display,
+ * or without JMX access, can still be measured.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public class MetricsSnapshotWriter implements Runnable {
+    private final File file;
+    private final PrintWriter out;
+    private final ScheduledFuture<?> task;
+    private MetricsSnapshot last;
+
+    /**
+     * Opens the file and starts writing to it.
+     * @param logFile the file to append snapshots to.
+     * @param seconds how often to write a snapshot.
+     * @throws IOException if the file cannot be opened.
+     */
+    public MetricsSnapshotWriter(File logFile, int seconds) throws IOException {
+        file = logFile;
+        out = new PrintWriter(new FileWriter(logFile, true));
+        last = MetricsRegistry.get().snapshot();
+        task = MetricsRegistry.get().schedule(this, seconds);
+    }
+
+    /**
+     * Writes the metrics since the last snapshot.
+     * @see java.lang.Runnable#run()
+     */
+    @Override
+    public synchronized void run() {
+        MetricsSnapshot now = MetricsRegistry.get().snapshot();
+        out.print(new Date() + " " + now.games() + " games played\n" + now.since(last) + "\n");
+        out.flush();
+        last = now;
+    }
+
+    /**
+     * Writes a final snapshot and closes the file.
+     */
+    public synchronized void stop() {
+        task.cancel(false);
+        run();
+        out.close();
+    }
+
+    /**
+     * @return the file being written to.
+     */
+    public File getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,30 @@
+package gengames.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for mutating the population.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+@Name("gengames.Mutation")
+@Label("Mutation")
+@Category("Genetic Games")
+@Description("Mutating the population.")
+@Threshold("0 ms")
+@StackTrace(false)
+public class MutationEvent extends Event {
+    /** The number of the generation being bred. */
+    @Label("Generation")
+    public int generation;
+
+    /** The number of players mutated. */
+    @Label("Mutated")
+    public int mutated;
+}
@@ -0,0 +1,37 @@
+package gengames.metrics;
+
+/**
+ * The phases of play a game's time is divided into by the {@link PhaseTimer}.  Phases may nest, the time of a trick includes the time
+ * spent finding legal moves and waiting for players to choose theirs.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public enum Phase {
+    /** Shuffling and dealing hands. */
+    DEAL("Deal"),
+    /** Choosing and exchanging passed cards. */
+    PASS("Pass"),
+    /** Playing a whole trick. */
+    TRICK("Trick"),
+    /** Determining which cards a player may play. */
+    LEGAL_MOVES("Legal Moves"),
+    /** A player choosing its move. */
+    PLAYER_MOVE("Player Move"),
+    /** Scoring a round and checking for the end of the game. */
+    SCORE("Score"),
+    /** Writing game output. */
+    OUTPUT("Output");
+
+    private final String description;
+
+    private Phase(String desc) {
+        description = desc;
+    }
+
+    /**
+     * @return a short name for the phase, suitable for display.
+     */
+    public String description() {
+        return description;
+    }
+}
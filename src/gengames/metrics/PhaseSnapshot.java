@@ -0,0 +1,76 @@
+package gengames.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time spent in each {@link Phase} of play, as recorded by the {@link PhaseTimer}, either in total or between two snapshots.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public final class PhaseSnapshot {
+    private final long[] nanos;
+    private final long[] counts;
+
+    /* package */PhaseSnapshot(long[] phaseNanos, long[] phaseCounts) {
+        nanos = phaseNanos;
+        counts = phaseCounts;
+    }
+
+    /**
+     * @param earlier a snapshot taken before this one.
+     * @return the time spent in each phase between the two snapshots.
+     */
+    public PhaseSnapshot since(PhaseSnapshot earlier) {
+        long[] n = new long[nanos.length];
+        long[] c = new long[counts.length];
+        for (int i = 0; i < n.length; i++) {
+            n[i] = nanos[i] - earlier.nanos[i];
+            c[i] = counts[i] - earlier.counts[i];
+        }
+        return new PhaseSnapshot(n, c);
+    }
+
+    /**
+     * @param phase a phase of play.
+     * @return the total time spent in the phase, in nanoseconds.
+     */
+    public long nanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * @param phase a phase of play.
+     * @return the number of times the phase ran.
+     */
+    public long count(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    /**
+     * @return true if no phase ran.
+     */
+    public boolean isEmpty() {
+        for (long c : counts) {
+            if (c != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Describes the time spent in each phase which ran, one phase per line.
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase p : Phase.values()) {
+            long c = count(p);
+            if (c == 0)
+                continue;
+            sb.append(String.format("%-12s %8d ms %10d times %8d ns each%n", p.description(),
+                    TimeUnit.NANOSECONDS.toMillis(nanos(p)), c, nanos(p) / c));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package gengames.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the time spent in each {@link Phase} of play, across every game thread.  Timing a phase looks like:
+<pre>long start = PhaseTimer.start();
+dealCards();
+PhaseTimer.stop(Phase.DEAL, start);</pre>
+ * <p>When timing is disabled start() returns 0 without reading the clock and stop() returns immediately, so the only cost left in the
+ * game is checking one flag.  When enabled each phase is accumulated in a LongAdder, which gives each contending thread its own cell,
+ * so game threads do not contend with each other, and totals are only summed when a snapshot is taken.</p>
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+public final class PhaseTimer {
+    private static volatile boolean enabled;
+
+    private static final LongAdder[] NANOS = new LongAdder[Phase.values().length];
+    private static final LongAdder[] COUNTS = new LongAdder[Phase.values().length];
+    static {
+        for (int i = 0; i < NANOS.length; i++) {
+            NANOS[i] = new LongAdder();
+            COUNTS[i] = new LongAdder();
+        }
+    }
+
+    private PhaseTimer() {
+        // static methods only
+    }
+
+    /**
+     * Turns timing on or off.  Phases already started when timing is turned on are not counted.
+     * @param on true to time phases.
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * @return true if phases are being timed.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Marks the start of a phase.
+     * @return the time the phase started, or 0 if timing is disabled.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Marks the end of a phase, adding the time since it started to its total.
+     * @param phase the phase which ended.
+     * @param start the value start() returned when the phase started.
+     */
+    public static void stop(Phase phase, long start) {
+        if (start == 0)
+            return;
+        NANOS[phase.ordinal()].add(System.nanoTime() - start);
+        COUNTS[phase.ordinal()].increment();
+    }
+
+    /**
+     * Takes a snapshot of the totals so far.  Totals are never reset, the time spent between two snapshots is found with
+     * {@link PhaseSnapshot#since(PhaseSnapshot)}.
+     * @return the total time and number of times each phase has run.
+     */
+    public static PhaseSnapshot snapshot() {
+        long[] nanos = new long[NANOS.length];
+        long[] counts = new long[COUNTS.length];
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = NANOS[i].sum();
+            counts[i] = COUNTS[i].sum();
+        }
+        return new PhaseSnapshot(nanos, counts);
+    }
+}
@@ -0,0 +1,30 @@
+package gengames.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for one round of a game, possibly played ahead of the game on another thread.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+@Name("gengames.Round")
+@Label("Round")
+@Category("Genetic Games")
+@Description("One round of a game, possibly played ahead of the game on another thread.")
+@Threshold("1 ms")
+@StackTrace(false)
+public class RoundEvent extends Event {
+    /** Identifies the game within this run. */
+    @Label("Game Id")
+    public long gameId;
+
+    /** The number of the round within its game. */
+    @Label("Round")
+    public int round;
+}
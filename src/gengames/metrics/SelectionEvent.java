@@ -0,0 +1,30 @@
+package gengames.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for ranking the population and choosing which players survive or breed.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+@Name("gengames.Selection")
+@Label("Selection")
+@Category("Genetic Games")
+@Description("Ranking the population and choosing which players survive or breed.")
+@Threshold("0 ms")
+@StackTrace(false)
+public class SelectionEvent extends Event {
+    /** The number of the generation being bred. */
+    @Label("Generation")
+    public int generation;
+
+    /** The number of players ranked. */
+    @Label("Candidates")
+    public int candidates;
+}
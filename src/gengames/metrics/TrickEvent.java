@@ -0,0 +1,36 @@
+package gengames.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for one trick of a round.  Disabled by default, as there are many of them.
+ * @author Michael Diamond
+ * @author Blake Lavender
+ */
+@Name("gengames.Trick")
+@Label("Trick")
+@Category("Genetic Games")
+@Description("One trick of a round.  Disabled by default, as there are many of them.")
+@Enabled(false)
+@Threshold("100 us")
+@StackTrace(false)
+public class TrickEvent extends Event {
+    /** Identifies the game within this run. */
+    @Label("Game Id")
+    public long gameId;
+
+    /** The number of the round within its game. */
+    @Label("Round")
+    public int round;
+
+    /** The number of the trick within its round. */
+    @Label("Trick")
+    public int trick;
+}
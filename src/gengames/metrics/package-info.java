@@ -0,0 +1,9 @@
+/**
+ * This package measures the GA: how many games, rounds and tricks it plays and how long each of its stages takes, for capacity
+ * planning, and where the time goes while games are played, so optimisation can be aimed at measurements from real runs.  The
+ * throughput counters are always on, timing the phases of play is off unless it is enabled.  It also defines the Flight Recorder
+ * events the GA and games emit, so recordings can be lined up with generations, games, rounds and tricks.  Each event has a default
+ * threshold, and like any Flight Recorder event can be enabled, disabled or given another threshold in the recording's settings.
+ */
+
+package gengames.metrics;